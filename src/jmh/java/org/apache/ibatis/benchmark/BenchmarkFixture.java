@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+/**
+ * Builds a {@link SqlSessionFactory} backed by an in-memory HSQLDB database holding {@link #ROWS} items.
+ */
+public final class BenchmarkFixture {
+
+  public static final int ROWS = 1000;
+
+  private static final String MAPPER = "org/apache/ibatis/benchmark/ItemMapper.xml";
+  private static final String SCHEMA = "org/apache/ibatis/benchmark/CreateDB.sql";
+
+  private BenchmarkFixture() {
+  }
+
+  public static SqlSessionFactory createSqlSessionFactory(String databaseName) throws Exception {
+    PooledDataSource dataSource = new PooledDataSource("org.hsqldb.jdbcDriver",
+        "jdbc:hsqldb:mem:" + databaseName, "sa", "");
+    createDatabase(dataSource);
+
+    Configuration configuration = new Configuration(
+        new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    try (InputStream inputStream = Resources.getResourceAsStream(MAPPER)) {
+      new XMLMapperBuilder(inputStream, configuration, MAPPER, configuration.getSqlFragments()).parse();
+    }
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  private static void createDatabase(DataSource dataSource) throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      ScriptRunner runner = new ScriptRunner(connection);
+      runner.setAutoCommit(true);
+      runner.setLogWriter(null);
+      try (Reader reader = Resources.getResourceAsReader(SCHEMA)) {
+        runner.runScript(reader);
+      }
+      insertItems(connection);
+    }
+  }
+
+  private static void insertItems(Connection connection) throws SQLException {
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement(
+        "insert into item (id, name, description, price, quantity, active, created) values (?, ?, ?, ?, ?, ?, ?)")) {
+      long now = System.currentTimeMillis();
+      for (int i = 1; i <= ROWS; i++) {
+        ps.setInt(1, i);
+        ps.setString(2, "item-" + i);
+        ps.setString(3, "Description of item number " + i);
+        ps.setBigDecimal(4, BigDecimal.valueOf(i * 7 % 1000, 2));
+        ps.setInt(5, i % 50);
+        ps.setBoolean(6, i % 3 != 0);
+        ps.setTimestamp(7, new Timestamp(now - i * 60000L));
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+    connection.commit();
+    connection.setAutoCommit(true);
+  }
+
+}
@@ -0,0 +1,94 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link CacheKey} creation by {@link org.apache.ibatis.executor.BaseExecutor#createCacheKey}, and key equality as
+ * used by the local and second level caches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheKeyBenchmark {
+
+  private Executor executor;
+  private MappedStatement mappedStatement;
+  private ItemCriteria criteria;
+  private BoundSql boundSql;
+  private CacheKey cacheKey;
+  private CacheKey equalCacheKey;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    SqlSessionFactory sqlSessionFactory = BenchmarkFixture.createSqlSessionFactory("cachekey");
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    executor = configuration.newExecutor(
+        new JdbcTransaction(configuration.getEnvironment().getDataSource(), null, false), ExecutorType.SIMPLE);
+    mappedStatement = configuration.getMappedStatement("org.apache.ibatis.benchmark.ItemMapper.selectByCriteria");
+    criteria = new ItemCriteria();
+    criteria.setName("item-%");
+    criteria.setMinPrice(BigDecimal.ONE);
+    criteria.setIds(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    boundSql = mappedStatement.getBoundSql(criteria);
+    cacheKey = createCacheKey();
+    equalCacheKey = createCacheKey();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.close(false);
+  }
+
+  @Benchmark
+  public CacheKey createCacheKey() {
+    return executor.createCacheKey(mappedStatement, criteria, RowBounds.DEFAULT, boundSql);
+  }
+
+  @Benchmark
+  public boolean equalCacheKeys() {
+    return cacheKey.equals(equalCacheKey);
+  }
+
+}
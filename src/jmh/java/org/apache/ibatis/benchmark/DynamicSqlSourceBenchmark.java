@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link org.apache.ibatis.scripting.xmltags.DynamicSqlSource#getBoundSql(Object)} for a statement using
+ * {@code <where>}, {@code <if>}, {@code <foreach>} and {@code <choose>}. No database access is involved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicSqlSourceBenchmark {
+
+  private MappedStatement mappedStatement;
+  private ItemCriteria emptyCriteria;
+  private ItemCriteria fullCriteria;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    mappedStatement = BenchmarkFixture.createSqlSessionFactory("dynamicsql").getConfiguration()
+        .getMappedStatement("org.apache.ibatis.benchmark.ItemMapper.selectByCriteria");
+    emptyCriteria = new ItemCriteria();
+    fullCriteria = new ItemCriteria();
+    fullCriteria.setName("item-%");
+    fullCriteria.setMinPrice(BigDecimal.ONE);
+    fullCriteria.setActive(Boolean.TRUE);
+    fullCriteria.setIds(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    fullCriteria.setOrderBy("price");
+  }
+
+  @Benchmark
+  public BoundSql noConditions() {
+    return mappedStatement.getBoundSql(emptyCriteria);
+  }
+
+  @Benchmark
+  public BoundSql allConditions() {
+    return mappedStatement.getBoundSql(fullCriteria);
+  }
+
+}
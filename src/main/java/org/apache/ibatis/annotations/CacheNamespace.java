@@ -17,6 +17,7 @@ package org.apache.ibatis.annotations;
 
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
 
 import java.lang.annotation.*;
 
@@ -38,8 +39,53 @@ public @interface CacheNamespace {
 
     boolean readWrite() default true;
 
+    /**
+     * Serializer of a read/write cache.
+     */
+    Class<? extends org.apache.ibatis.cache.CacheSerializer> serializer() default JavaCacheSerializer.class;
+
     boolean blocking() default false;
 
+    /**
+     * Invalidate only the entries matching the cache tags of a statement instead of the whole cache.
+     */
+    boolean tagInvalidation() default false;
+
+    /**
+     * Let concurrent misses of a key share one load instead of blocking on a lock per key.
+     */
+    boolean coalescing() default false;
+
+    /**
+     * Milliseconds a coalesced miss waits for the in-flight load before loading on its own, 0 waits indefinitely.
+     */
+    long coalescingTimeout() default 0;
+
+    /**
+     * Milliseconds after which a coalesced entry is stale, 0 keeps entries fresh.
+     */
+    long maxAge() default 0;
+
+    /**
+     * Milliseconds after {@link #maxAge()} during which a stale entry is returned while one caller reloads it.
+     */
+    long staleWhileRevalidate() default 0;
+
+    /**
+     * Milliseconds after which an entry expires, 0 for no limit.
+     */
+    long timeToLive() default 0;
+
+    /**
+     * Milliseconds after its last read after which an entry expires, 0 for no limit.
+     */
+    long timeToIdle() default 0;
+
+    /**
+     * Milliseconds before its {@link #timeToLive()} from which reading an entry reloads it in the background.
+     */
+    long refreshAhead() default 0;
+
     /**
      * Property values for a implementation object.
      * @since 3.4.2
@@ -47,6 +47,18 @@ public @interface Options {
 
     String resultSets() default "";
 
+    /**
+     * Comma separated tags of the second level cache entries the statement reads or invalidates.
+     * See {@link org.apache.ibatis.mapping.MappedStatement#getCacheTags()}.
+     */
+    String cacheTags() default "";
+
+    /**
+     * Inserts a collection parameter with multi-row statements of this many rows.
+     * See {@link org.apache.ibatis.mapping.MappedStatement#getRowsPerInsert()}.
+     */
+    int rowsPerInsert() default 0;
+
     /**
      * The options for the {@link Options#flushCache()}.
      * The default is {@link FlushCachePolicy#DEFAULT}
@@ -18,6 +18,7 @@ package org.apache.ibatis.binding;
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.Flow;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
@@ -28,6 +29,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
@@ -37,6 +39,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * @author Clinton Begin
@@ -52,9 +56,48 @@ public class MapperMethod {
     public MapperMethod(Class<?> mapperInterface, Method method, Configuration config) {
         this.command = new SqlCommand(config, mapperInterface, method);
         this.method = new MethodSignature(config, mapperInterface, method);
+        if (this.method.returnsFuture() && (command.getType() == SqlCommandType.FLUSH
+                || this.method.returnsCursor() || this.method.returnsPublisher())) {
+            throw new BindingException("Mapper method '" + mapperInterface.getName() + "." + method.getName()
+                    + "' cannot return a CompletableFuture because it flushes statements or returns a Cursor or Publisher.");
+        }
     }
 
     public Object execute(SqlSession sqlSession, Object[] args) {
+        if (method.returnsFuture()) {
+            return executeAsync(sqlSession.getConfiguration(), args);
+        }
+        return executeCommand(sqlSession, args);
+    }
+
+    /**
+     * Runs the command in its own session, opened by the {@link Configuration#getAsyncSqlSessionFactory() async
+     * session factory}, on the {@link Configuration#getAsyncExecutor() async executor}. The session is committed if
+     * the command succeeds and closed in any case. If the executor rejects the command, the future fails with the
+     * {@link RejectedExecutionException}.
+     */
+    private CompletableFuture<Object> executeAsync(Configuration configuration, Object[] args) {
+        SqlSessionFactory sqlSessionFactory = configuration.getAsyncSqlSessionFactory();
+        if (sqlSessionFactory == null) {
+            throw new BindingException("Mapper method '" + command.getName() + "' returns a CompletableFuture, but no "
+                    + "SqlSessionFactory has been set with Configuration#setAsyncSqlSessionFactory to open its session.");
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+                    Object result = executeCommand(sqlSession, args);
+                    sqlSession.commit();
+                    return result;
+                }
+            }, configuration.getAsyncExecutor());
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<Object> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    private Object executeCommand(SqlSession sqlSession, Object[] args) {
         Object result;
         switch (command.getType()) {
             case INSERT: {
@@ -82,6 +125,8 @@ public class MapperMethod {
                     result = executeForMap(sqlSession, args);
                 } else if (method.returnsCursor()) {
                     result = executeForCursor(sqlSession, args);
+                } else if (method.returnsPublisher()) {
+                    result = executeForPublisher(sqlSession, args);
                 } else {
                     Object param = method.convertArgsToSqlCommandParam(args);
                     result = sqlSession.selectOne(command.getName(), param);
@@ -169,6 +214,18 @@ public class MapperMethod {
         return result;
     }
 
+    private <T> Flow.Publisher<T> executeForPublisher(SqlSession sqlSession, Object[] args) {
+        Flow.Publisher<T> result;
+        Object param = method.convertArgsToSqlCommandParam(args);
+        if (method.hasRowBounds()) {
+            RowBounds rowBounds = method.extractRowBounds(args);
+            result = sqlSession.<T>selectPublisher(command.getName(), param, rowBounds);
+        } else {
+            result = sqlSession.<T>selectPublisher(command.getName(), param);
+        }
+        return result;
+    }
+
     private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
         Object collection = config.getObjectFactory().create(method.getReturnType());
         MetaObject metaObject = config.newMetaObject(collection);
@@ -278,7 +335,9 @@ public class MapperMethod {
         private final boolean returnsMap;
         private final boolean returnsVoid;
         private final boolean returnsCursor;
+        private final boolean returnsPublisher;
         private final boolean returnsOptional;
+        private final boolean returnsFuture;
         private final Class<?> returnType;
         private final String mapKey;
         private final Integer resultHandlerIndex;
@@ -287,18 +346,25 @@ public class MapperMethod {
 
         public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
             Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
+            this.returnsFuture = CompletableFuture.class.equals(method.getReturnType());
+            if (this.returnsFuture) {
+                // the signature describes the value the future completes with
+                resolvedReturnType = resolvedReturnType instanceof ParameterizedType
+                        ? ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0] : Object.class;
+            }
             if (resolvedReturnType instanceof Class<?>) {
                 this.returnType = (Class<?>) resolvedReturnType;
             } else if (resolvedReturnType instanceof ParameterizedType) {
                 this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
             } else {
-                this.returnType = method.getReturnType();
+                this.returnType = this.returnsFuture ? Object.class : method.getReturnType();
             }
-            this.returnsVoid = void.class.equals(this.returnType);
+            this.returnsVoid = void.class.equals(this.returnType) || (this.returnsFuture && Void.class.equals(this.returnType));
             this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
             this.returnsCursor = Cursor.class.equals(this.returnType);
+            this.returnsPublisher = Flow.Publisher.class.equals(this.returnType);
             this.returnsOptional = Optional.class.equals(this.returnType);
-            this.mapKey = getMapKey(method);
+            this.mapKey = getMapKey(method, this.returnsFuture ? this.returnType : method.getReturnType());
             this.returnsMap = this.mapKey != null;
             this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
             this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
@@ -349,6 +415,10 @@ public class MapperMethod {
             return returnsCursor;
         }
 
+        public boolean returnsPublisher() {
+            return returnsPublisher;
+        }
+
         /**
          * return whether return type is {@code java.util.Optional}
          * @return return {@code true}, if return type is {@code java.util.Optional}
@@ -358,6 +428,15 @@ public class MapperMethod {
             return returnsOptional;
         }
 
+        /**
+         * return whether return type is {@code java.util.concurrent.CompletableFuture}.
+         * The other methods of this signature then describe the value the future completes with.
+         * @return return {@code true}, if return type is {@code java.util.concurrent.CompletableFuture}
+         */
+        public boolean returnsFuture() {
+            return returnsFuture;
+        }
+
         private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
             Integer index = null;
             final Class<?>[] argTypes = method.getParameterTypes();
@@ -373,9 +452,9 @@ public class MapperMethod {
             return index;
         }
 
-        private String getMapKey(Method method) {
+        private String getMapKey(Method method, Class<?> returnType) {
             String mapKey = null;
-            if (Map.class.isAssignableFrom(method.getReturnType())) {
+            if (Map.class.isAssignableFrom(returnType)) {
                 final MapKey mapKeyAnnotation = method.getAnnotation(MapKey.class);
                 if (mapKeyAnnotation != null) {
                     mapKey = mapKeyAnnotation.value();
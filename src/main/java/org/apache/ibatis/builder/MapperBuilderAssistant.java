@@ -16,6 +16,7 @@
 package org.apache.ibatis.builder;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.executor.ErrorContext;
@@ -108,13 +109,82 @@ public class MapperBuilderAssistant extends BaseBuilder {
                              boolean readWrite,
                              boolean blocking,
                              Properties props) {
+        return useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, null, blocking, props);
+    }
+
+    public Cache useNewCache(Class<? extends Cache> typeClass,
+                             Class<? extends Cache> evictionClass,
+                             Long flushInterval,
+                             Integer size,
+                             boolean readWrite,
+                             Class<? extends CacheSerializer> serializerClass,
+                             boolean blocking,
+                             Properties props) {
+        return useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, serializerClass, blocking, false, props);
+    }
+
+    public Cache useNewCache(Class<? extends Cache> typeClass,
+                             Class<? extends Cache> evictionClass,
+                             Long flushInterval,
+                             Integer size,
+                             boolean readWrite,
+                             Class<? extends CacheSerializer> serializerClass,
+                             boolean blocking,
+                             boolean tagInvalidation,
+                             Properties props) {
+        return useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, serializerClass, blocking, tagInvalidation, false, null, null, null, props);
+    }
+
+    public Cache useNewCache(Class<? extends Cache> typeClass,
+                             Class<? extends Cache> evictionClass,
+                             Long flushInterval,
+                             Integer size,
+                             boolean readWrite,
+                             Class<? extends CacheSerializer> serializerClass,
+                             boolean blocking,
+                             boolean tagInvalidation,
+                             boolean coalescing,
+                             Long coalescingTimeout,
+                             Long maxAge,
+                             Long staleWhileRevalidate,
+                             Properties props) {
+        return useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, serializerClass, blocking, tagInvalidation,
+                coalescing, coalescingTimeout, maxAge, staleWhileRevalidate, null, null, null, props);
+    }
+
+    public Cache useNewCache(Class<? extends Cache> typeClass,
+                             Class<? extends Cache> evictionClass,
+                             Long flushInterval,
+                             Integer size,
+                             boolean readWrite,
+                             Class<? extends CacheSerializer> serializerClass,
+                             boolean blocking,
+                             boolean tagInvalidation,
+                             boolean coalescing,
+                             Long coalescingTimeout,
+                             Long maxAge,
+                             Long staleWhileRevalidate,
+                             Long timeToLive,
+                             Long timeToIdle,
+                             Long refreshAhead,
+                             Properties props) {
         Cache cache = new CacheBuilder(currentNamespace)
                 .implementation(valueOrDefault(typeClass, PerpetualCache.class))
                 .addDecorator(valueOrDefault(evictionClass, LruCache.class))
                 .clearInterval(flushInterval)
                 .size(size)
                 .readWrite(readWrite)
+                .serializer(serializerClass)
                 .blocking(blocking)
+                .coalescing(coalescing)
+                .coalescingTimeout(coalescingTimeout)
+                .maxAge(maxAge)
+                .staleWhileRevalidate(staleWhileRevalidate)
+                .timeToLive(timeToLive)
+                .timeToIdle(timeToIdle)
+                .refreshAhead(refreshAhead, configuration.getCacheRefresher())
+                .tagInvalidation(tagInvalidation)
+                .invalidationTransport(configuration.getCacheInvalidationTransport())
                 .properties(props)
                 .build();
         configuration.addCache(cache);
@@ -247,6 +317,65 @@ public class MapperBuilderAssistant extends BaseBuilder {
             String databaseId,
             LanguageDriver lang,
             String resultSets) {
+        return addMappedStatement(
+                id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+                parameterMap, parameterType, resultMap, resultType, resultSetType,
+                flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+                keyColumn, databaseId, lang, resultSets, null);
+    }
+
+    public MappedStatement addMappedStatement(
+            String id,
+            SqlSource sqlSource,
+            StatementType statementType,
+            SqlCommandType sqlCommandType,
+            Integer fetchSize,
+            Integer timeout,
+            String parameterMap,
+            Class<?> parameterType,
+            String resultMap,
+            Class<?> resultType,
+            ResultSetType resultSetType,
+            boolean flushCache,
+            boolean useCache,
+            boolean resultOrdered,
+            KeyGenerator keyGenerator,
+            String keyProperty,
+            String keyColumn,
+            String databaseId,
+            LanguageDriver lang,
+            String resultSets,
+            String cacheTags) {
+        return addMappedStatement(
+                id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+                parameterMap, parameterType, resultMap, resultType, resultSetType,
+                flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+                keyColumn, databaseId, lang, resultSets, cacheTags, 0);
+    }
+
+    public MappedStatement addMappedStatement(
+            String id,
+            SqlSource sqlSource,
+            StatementType statementType,
+            SqlCommandType sqlCommandType,
+            Integer fetchSize,
+            Integer timeout,
+            String parameterMap,
+            Class<?> parameterType,
+            String resultMap,
+            Class<?> resultType,
+            ResultSetType resultSetType,
+            boolean flushCache,
+            boolean useCache,
+            boolean resultOrdered,
+            KeyGenerator keyGenerator,
+            String keyProperty,
+            String keyColumn,
+            String databaseId,
+            LanguageDriver lang,
+            String resultSets,
+            String cacheTags,
+            int rowsPerInsert) {
 
         if (unresolvedCacheRef) {
             throw new IncompleteElementException("Cache-ref not yet resolved");
@@ -271,6 +400,8 @@ public class MapperBuilderAssistant extends BaseBuilder {
                 .resultSetType(resultSetType)
                 .flushCacheRequired(valueOrDefault(flushCache, !isSelect))
                 .useCache(valueOrDefault(useCache, isSelect))
+                .cacheTags(cacheTags)
+                .rowsPerInsert(rowsPerInsert)
                 .cache(currentCache);
 
         ParameterMap statementParameterMap = getStatementParameterMap(parameterMap, parameterType, id);
@@ -353,10 +484,32 @@ public class MapperBuilderAssistant extends BaseBuilder {
             String resultSet,
             String foreignColumn,
             boolean lazy) {
+        return buildResultMapping(
+                resultType, property, column, javaType, jdbcType, nestedSelect, nestedResultMap, notNullColumn,
+                columnPrefix, typeHandler, flags, resultSet, foreignColumn, lazy, null, null);
+    }
+
+    public ResultMapping buildResultMapping(
+            Class<?> resultType,
+            String property,
+            String column,
+            Class<?> javaType,
+            JdbcType jdbcType,
+            String nestedSelect,
+            String nestedResultMap,
+            String notNullColumn,
+            String columnPrefix,
+            Class<? extends TypeHandler<?>> typeHandler,
+            List<ResultFlag> flags,
+            String resultSet,
+            String foreignColumn,
+            boolean lazy,
+            String batchSelect,
+            String batchKey) {
         Class<?> javaTypeClass = resolveResultJavaType(resultType, property, javaType);
         TypeHandler<?> typeHandlerInstance = resolveTypeHandler(javaTypeClass, typeHandler);
         List<ResultMapping> composites = parseCompositeColumnName(column);
-        return new ResultMapping.Builder(configuration, property, column, javaTypeClass)
+        ResultMapping resultMapping = new ResultMapping.Builder(configuration, property, column, javaTypeClass)
                 .jdbcType(jdbcType)
                 .nestedQueryId(applyCurrentNamespace(nestedSelect, true))
                 .nestedResultMapId(applyCurrentNamespace(nestedResultMap, true))
@@ -368,7 +521,13 @@ public class MapperBuilderAssistant extends BaseBuilder {
                 .columnPrefix(columnPrefix)
                 .foreignColumn(foreignColumn)
                 .lazy(lazy)
+                .batchQueryId(applyCurrentNamespace(batchSelect, true))
+                .batchKey(batchKey)
                 .build();
+        if (resultMapping.getBatchQueryId() != null) {
+            configuration.addUncheckedBatchSelect(resultMapping);
+        }
+        return resultMapping;
     }
 
     private Set<String> parseMultipleColumnNames(String columnName) {
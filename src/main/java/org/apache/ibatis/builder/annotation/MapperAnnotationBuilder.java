@@ -26,6 +26,7 @@ import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.Flow;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -47,6 +48,7 @@ import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Clinton Begin
@@ -147,7 +149,14 @@ public class MapperAnnotationBuilder {
             Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
             Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
             Properties props = convertToProperties(cacheDomain.properties());
-            assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+            Long coalescingTimeout = cacheDomain.coalescingTimeout() == 0 ? null : cacheDomain.coalescingTimeout();
+            Long maxAge = cacheDomain.maxAge() == 0 ? null : cacheDomain.maxAge();
+            Long staleWhileRevalidate = cacheDomain.staleWhileRevalidate() == 0 ? null : cacheDomain.staleWhileRevalidate();
+            Long timeToLive = cacheDomain.timeToLive() == 0 ? null : cacheDomain.timeToLive();
+            Long timeToIdle = cacheDomain.timeToIdle() == 0 ? null : cacheDomain.timeToIdle();
+            Long refreshAhead = cacheDomain.refreshAhead() == 0 ? null : cacheDomain.refreshAhead();
+            assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.serializer(), cacheDomain.blocking(), cacheDomain.tagInvalidation(),
+                    cacheDomain.coalescing(), coalescingTimeout, maxAge, staleWhileRevalidate, timeToLive, timeToIdle, refreshAhead, props);
         }
     }
 
@@ -342,7 +351,9 @@ public class MapperAnnotationBuilder {
                     null,
                     languageDriver,
                     // ResultSets
-                    options != null ? nullOrEmpty(options.resultSets()) : null);
+                    options != null ? nullOrEmpty(options.resultSets()) : null,
+                    options != null ? nullOrEmpty(options.cacheTags()) : null,
+                    options != null ? options.rowsPerInsert() : 0);
         }
     }
 
@@ -374,6 +385,13 @@ public class MapperAnnotationBuilder {
     private Class<?> getReturnType(Method method) {
         Class<?> returnType = method.getReturnType();
         Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
+        if (CompletableFuture.class.equals(returnType)) {
+            // the statement returns the value the future completes with
+            returnType = Object.class;
+            if (resolvedReturnType instanceof ParameterizedType) {
+                resolvedReturnType = ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0];
+            }
+        }
         if (resolvedReturnType instanceof Class) {
             returnType = (Class<?>) resolvedReturnType;
             if (returnType.isArray()) {
@@ -389,7 +407,8 @@ public class MapperAnnotationBuilder {
         } else if (resolvedReturnType instanceof ParameterizedType) {
             ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
             Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-            if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+            if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)
+                    || Flow.Publisher.class.isAssignableFrom(rawType)) {
                 Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
                 if (actualTypeArguments != null && actualTypeArguments.length == 1) {
                     Type returnTypeParameter = actualTypeArguments[0];
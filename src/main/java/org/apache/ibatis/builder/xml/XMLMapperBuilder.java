@@ -17,6 +17,7 @@ package org.apache.ibatis.builder.xml;
 
 import org.apache.ibatis.builder.*;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.*;
@@ -190,9 +191,23 @@ public class XMLMapperBuilder extends BaseBuilder {
             Long flushInterval = context.getLongAttribute("flushInterval");
             Integer size = context.getIntAttribute("size");
             boolean readWrite = !context.getBooleanAttribute("readOnly", false);
+            String serializer = context.getStringAttribute("serializer");
+            Class<? extends CacheSerializer> serializerClass = configuration.getCacheSerializerRegistry().resolve(serializer);
+            if (serializerClass == null) {
+                serializerClass = resolveClass(serializer);
+            }
             boolean blocking = context.getBooleanAttribute("blocking", false);
+            boolean tagInvalidation = context.getBooleanAttribute("tagInvalidation", false);
+            boolean coalescing = context.getBooleanAttribute("coalescing", false);
+            Long coalescingTimeout = context.getLongAttribute("coalescingTimeout");
+            Long maxAge = context.getLongAttribute("maxAge");
+            Long staleWhileRevalidate = context.getLongAttribute("staleWhileRevalidate");
+            Long timeToLive = context.getLongAttribute("timeToLive");
+            Long timeToIdle = context.getLongAttribute("timeToIdle");
+            Long refreshAhead = context.getLongAttribute("refreshAhead");
             Properties props = context.getChildrenAsProperties();
-            builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+            builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, serializerClass, blocking, tagInvalidation,
+                    coalescing, coalescingTimeout, maxAge, staleWhileRevalidate, timeToLive, timeToIdle, refreshAhead, props);
         }
     }
 
@@ -375,10 +390,12 @@ public class XMLMapperBuilder extends BaseBuilder {
         String resultSet = context.getStringAttribute("resultSet");
         String foreignColumn = context.getStringAttribute("foreignColumn");
         boolean lazy = "lazy".equals(context.getStringAttribute("fetchType", configuration.isLazyLoadingEnabled() ? "lazy" : "eager"));
+        String batchSelect = context.getStringAttribute("batchSelect");
+        String batchKey = context.getStringAttribute("batchKey");
         Class<?> javaTypeClass = resolveClass(javaType);
         Class<? extends TypeHandler<?>> typeHandlerClass = resolveClass(typeHandler);
         JdbcType jdbcTypeEnum = resolveJdbcType(jdbcType);
-        return builderAssistant.buildResultMapping(resultType, property, column, javaTypeClass, jdbcTypeEnum, nestedSelect, nestedResultMap, notNullColumn, columnPrefix, typeHandlerClass, flags, resultSet, foreignColumn, lazy);
+        return builderAssistant.buildResultMapping(resultType, property, column, javaTypeClass, jdbcTypeEnum, nestedSelect, nestedResultMap, notNullColumn, columnPrefix, typeHandlerClass, flags, resultSet, foreignColumn, lazy, batchSelect, batchKey);
     }
 
     private String processNestedResultMappings(XNode context, List<ResultMapping> resultMappings, Class<?> enclosingType) throws Exception {
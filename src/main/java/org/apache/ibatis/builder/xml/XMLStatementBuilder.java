@@ -89,6 +89,8 @@ public class XMLStatementBuilder extends BaseBuilder {
         // Parse the SQL (pre: <selectKey> and <include> were parsed and removed)
         SqlSource sqlSource = langDriver.createSqlSource(configuration, context, parameterTypeClass);
         String resultSets = context.getStringAttribute("resultSets");
+        String cacheTags = context.getStringAttribute("cacheTags");
+        int rowsPerInsert = context.getIntAttribute("rowsPerInsert", 0);
         String keyProperty = context.getStringAttribute("keyProperty");
         String keyColumn = context.getStringAttribute("keyColumn");
         KeyGenerator keyGenerator;
@@ -105,7 +107,7 @@ public class XMLStatementBuilder extends BaseBuilder {
         builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType,
                 fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
                 resultSetTypeEnum, flushCache, useCache, resultOrdered,
-                keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+                keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets, cacheTags, rowsPerInsert);
     }
 
     private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -17,41 +17,80 @@ package org.apache.ibatis.cache;
 
 import org.apache.ibatis.reflection.ArrayUtil;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 /**
+ * The components of a key are kept in a flat array, which can be sized up front with {@link #CacheKey(int)}.
+ * Besides the 32-bit {@link #hashCode()} a key offers a 64-bit {@link #getHash64() hash} for caches that index
+ * entries by a wider hash; it is computed on first use.
+ * <p>
+ * The serialized form is unchanged: the components are written as a list that is only created for serialization.
+ *
  * @author Clinton Begin
  */
 public class CacheKey implements Cloneable, Serializable {
 
     public static final CacheKey NULL_CACHE_KEY = new NullCacheKey();
     private static final long serialVersionUID = 1146682552656046210L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("multiplier", int.class),
+            new ObjectStreamField("hashcode", int.class),
+            new ObjectStreamField("checksum", long.class),
+            new ObjectStreamField("count", int.class),
+            new ObjectStreamField("updateList", List.class)
+    };
     private static final int DEFAULT_MULTIPLYER = 37;
     private static final int DEFAULT_HASHCODE = 17;
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final Object[] EMPTY = new Object[0];
+    private static final long HASH64_SEED = 0x9E3779B97F4A7C15L;
 
-    private final int multiplier;
+    private int multiplier;
     private int hashcode;
     private long checksum;
     private int count;
-    // 8/21/2017 - Sonarlint flags this as needing to be marked transient.  While true if content is not serializable, this is not always true and thus should not be marked transient.
-    private List<Object> updateList;
+    private Object[] components;
+    private long hash64;
+    private boolean hash64Computed;
 
     public CacheKey() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedUpdateCount the number of components the key will most likely consist of
+     */
+    public CacheKey(int expectedUpdateCount) {
         this.hashcode = DEFAULT_HASHCODE;
         this.multiplier = DEFAULT_MULTIPLYER;
         this.count = 0;
-        this.updateList = new ArrayList<>();
+        this.components = expectedUpdateCount > 0 ? new Object[expectedUpdateCount] : EMPTY;
     }
 
     public CacheKey(Object[] objects) {
-        this();
+        this(objects.length);
         updateAll(objects);
     }
 
     public int getUpdateCount() {
-        return updateList.size();
+        return count;
     }
 
     public void update(Object object) {
@@ -63,7 +102,11 @@ public class CacheKey implements Cloneable, Serializable {
 
         hashcode = multiplier * hashcode + baseHashCode;
 
-        updateList.add(object);
+        if (count > components.length) {
+            components = Arrays.copyOf(components, Math.max(DEFAULT_CAPACITY, components.length << 1));
+        }
+        components[count - 1] = object;
+        hash64Computed = false;
     }
 
     public void updateAll(Object[] objects) {
@@ -72,6 +115,111 @@ public class CacheKey implements Cloneable, Serializable {
         }
     }
 
+    /**
+     * Returns a 64-bit hash of all components. Strings, numbers, dates, times and arrays contribute all of their
+     * content; other objects contribute their 32-bit {@link Object#hashCode()}.
+     * <p>
+     * The hash is not an identity: distinct keys may share it, so a cache that indexes entries by it still has to
+     * compare the keys themselves.
+     *
+     * @return the hash
+     */
+    public long getHash64() {
+        if (!hash64Computed) {
+            long hash = HASH64_SEED ^ count;
+            for (int i = 0; i < count; i++) {
+                hash = mix64(Long.rotateLeft(hash, 27) ^ componentHash64(components[i])) + i;
+            }
+            hash64 = hash;
+            hash64Computed = true;
+        }
+        return hash64;
+    }
+
+    private static long componentHash64(Object object) {
+        if (object == null) {
+            return 1;
+        }
+        if (object instanceof CharSequence) {
+            CharSequence chars = (CharSequence) object;
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < chars.length(); i++) {
+                hash ^= chars.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+        if (object instanceof Long || object instanceof Integer || object instanceof Short || object instanceof Byte) {
+            return mix64(((Number) object).longValue());
+        }
+        if (object instanceof Double) {
+            return mix64(Double.doubleToLongBits((Double) object));
+        }
+        if (object instanceof byte[]) {
+            return bytesHash64((byte[]) object);
+        }
+        Class<?> type = object.getClass();
+        if (type == BigDecimal.class) {
+            BigDecimal decimal = (BigDecimal) object;
+            return mix64(bytesHash64(decimal.unscaledValue().toByteArray()) ^ decimal.scale());
+        }
+        if (type == BigInteger.class) {
+            return bytesHash64(((BigInteger) object).toByteArray());
+        }
+        if (type == Timestamp.class) {
+            // the nanos repeat the milliseconds of the time, but are ignored by Timestamp.hashCode()
+            return mix64(mix64(((Timestamp) object).getTime()) + ((Timestamp) object).getNanos());
+        }
+        if (type == Date.class || type == java.sql.Date.class || type == Time.class) {
+            return mix64(((Date) object).getTime());
+        }
+        if (type == LocalDateTime.class) {
+            LocalDateTime dateTime = (LocalDateTime) object;
+            return mix64(mix64(dateTime.toLocalDate().toEpochDay()) + dateTime.toLocalTime().toNanoOfDay());
+        }
+        if (type == LocalDate.class) {
+            return mix64(((LocalDate) object).toEpochDay());
+        }
+        if (type == LocalTime.class) {
+            return mix64(((LocalTime) object).toNanoOfDay());
+        }
+        if (type == Instant.class) {
+            return mix64(mix64(((Instant) object).getEpochSecond()) + ((Instant) object).getNano());
+        }
+        if (type == UUID.class) {
+            return mix64(mix64(((UUID) object).getMostSignificantBits()) + ((UUID) object).getLeastSignificantBits());
+        }
+        if (object instanceof Object[]) {
+            long hash = HASH64_SEED;
+            for (Object element : (Object[]) object) {
+                hash = mix64(Long.rotateLeft(hash, 27) ^ componentHash64(element));
+            }
+            return hash;
+        }
+        return mix64(ArrayUtil.hashCode(object));
+    }
+
+    /**
+     * The 64-bit FNV-1a hash of the bytes.
+     */
+    private static long bytesHash64(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * The finalizer of SplitMix64.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     @Override
     public boolean equals(Object object) {
         if (this == object) {
@@ -93,9 +241,9 @@ public class CacheKey implements Cloneable, Serializable {
             return false;
         }
 
-        for (int i = 0; i < updateList.size(); i++) {
-            Object thisObject = updateList.get(i);
-            Object thatObject = cacheKey.updateList.get(i);
+        for (int i = 0; i < count; i++) {
+            Object thisObject = components[i];
+            Object thatObject = cacheKey.components[i];
             if (!ArrayUtil.equals(thisObject, thatObject)) {
                 return false;
             }
@@ -111,8 +259,8 @@ public class CacheKey implements Cloneable, Serializable {
     @Override
     public String toString() {
         StringBuilder returnValue = new StringBuilder().append(hashcode).append(':').append(checksum);
-        for (Object object : updateList) {
-            returnValue.append(':').append(ArrayUtil.toString(object));
+        for (int i = 0; i < count; i++) {
+            returnValue.append(':').append(ArrayUtil.toString(components[i]));
         }
         return returnValue.toString();
     }
@@ -120,8 +268,28 @@ public class CacheKey implements Cloneable, Serializable {
     @Override
     public CacheKey clone() throws CloneNotSupportedException {
         CacheKey clonedCacheKey = (CacheKey) super.clone();
-        clonedCacheKey.updateList = new ArrayList<>(updateList);
+        clonedCacheKey.components = count == 0 ? EMPTY : Arrays.copyOf(components, count);
         return clonedCacheKey;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("multiplier", multiplier);
+        fields.put("hashcode", hashcode);
+        fields.put("checksum", checksum);
+        fields.put("count", count);
+        fields.put("updateList", new ArrayList<>(Arrays.asList(components).subList(0, count)));
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        multiplier = fields.get("multiplier", DEFAULT_MULTIPLYER);
+        hashcode = fields.get("hashcode", DEFAULT_HASHCODE);
+        checksum = fields.get("checksum", 0L);
+        List<?> updateList = (List<?>) fields.get("updateList", null);
+        components = updateList == null ? EMPTY : updateList.toArray();
+        count = components.length;
+    }
+
 }
@@ -0,0 +1,41 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * SPI for the conversion of cached values to bytes, used by read/write caches to hand out a copy of the cached
+ * objects on every hit.
+ * <p>
+ * Implementations must have a public no-arg constructor. The properties of the cache configuration are applied to
+ * their setters in the same way as to the cache itself.
+ *
+ * @see org.apache.ibatis.cache.decorators.SerializedCache
+ */
+public interface CacheSerializer {
+
+    /**
+     * @param value the value to store, either null or a {@link java.io.Serializable}
+     * @return the serialized form of the value
+     */
+    byte[] serialize(Object value);
+
+    /**
+     * @param bytes a result of {@link #serialize(Object)}
+     * @return a copy of the serialized value
+     */
+    Object deserialize(byte[] bytes);
+
+}
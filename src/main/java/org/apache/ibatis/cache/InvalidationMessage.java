@@ -0,0 +1,95 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An eviction that happened in the second level cache of one node and has to be repeated on the others.
+ */
+public final class InvalidationMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        /**
+         * The whole cache was cleared.
+         */
+        CLEAR,
+        /**
+         * The entries of some tags were invalidated, see {@link TaggedCache#invalidate(Set)}.
+         */
+        INVALIDATE
+    }
+
+    private final String origin;
+    private final String cacheId;
+    private final Type type;
+    private final Set<String> tags;
+
+    private InvalidationMessage(String origin, String cacheId, Type type, Set<String> tags) {
+        this.origin = origin;
+        this.cacheId = cacheId;
+        this.type = type;
+        this.tags = tags;
+    }
+
+    public static InvalidationMessage clear(String origin, String cacheId) {
+        return new InvalidationMessage(origin, cacheId, Type.CLEAR, null);
+    }
+
+    /**
+     * @return a message that clears every cache, delivered by transports that lost messages and cannot tell which
+     */
+    public static InvalidationMessage clearAll(String origin) {
+        return new InvalidationMessage(origin, null, Type.CLEAR, null);
+    }
+
+    public static InvalidationMessage invalidate(String origin, String cacheId, Set<String> tags) {
+        return new InvalidationMessage(origin, cacheId, Type.INVALIDATE, Collections.unmodifiableSet(new HashSet<>(tags)));
+    }
+
+    /**
+     * @return an identifier of the publishing cache instance
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return the id of the cache, or null for all caches
+     */
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + cacheId + (tags != null ? " " + tags : "");
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Closeable;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * SPI that carries {@link InvalidationMessage}s between the second level caches of several nodes, so that a write
+ * committed on one node evicts the affected entries everywhere.
+ * <p>
+ * A transport delivers every published message to all subscribers, on this node and on the others. Subscribers
+ * ignore their own messages.
+ *
+ * @see org.apache.ibatis.cache.decorators.BroadcastingCache
+ * @see org.apache.ibatis.session.Configuration#setCacheInvalidationTransport(InvalidationTransport)
+ */
+public interface InvalidationTransport extends Closeable {
+
+    /**
+     * Receives the properties of the {@code cacheInvalidationTransport} element of the configuration.
+     */
+    default void setProperties(Properties properties) {
+        // NOP
+    }
+
+    void publish(InvalidationMessage message);
+
+    void subscribe(Consumer<InvalidationMessage> listener);
+
+    /**
+     * Releases the threads and connections of this transport, called by {@link org.apache.ibatis.session.Configuration#close()}.
+     */
+    @Override
+    default void close() {
+        // NOP
+    }
+
+}
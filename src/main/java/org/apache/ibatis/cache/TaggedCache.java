@@ -0,0 +1,44 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Set;
+
+/**
+ * A cache that knows which tags, e.g. table names or row keys, its entries were read from, so that a write can
+ * evict only the entries that depend on the tags it touches instead of clearing the whole namespace.
+ * <p>
+ * Entries stored without tags depend on everything and are evicted by every invalidation.
+ *
+ * @see org.apache.ibatis.mapping.MappedStatement#getCacheTags()
+ */
+public interface TaggedCache extends Cache {
+
+    /**
+     * @param key   the key
+     * @param value the value
+     * @param tags  the tags the value was read from, or null if unknown
+     */
+    void putObject(Object key, Object value, Set<String> tags);
+
+    /**
+     * Evicts all entries tagged with any of the given tags and all entries without tags.
+     *
+     * @param tags the tags that have been written
+     */
+    void invalidate(Set<String> tags);
+
+}
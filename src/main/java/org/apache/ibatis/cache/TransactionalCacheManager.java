@@ -19,6 +19,7 @@ import org.apache.ibatis.cache.decorators.TransactionalCache;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Clinton Begin
@@ -35,10 +36,22 @@ public class TransactionalCacheManager {
         return getTransactionalCache(cache).getObject(key);
     }
 
+    public Object getObject(Cache cache, CacheKey key, Set<String> tags) {
+        return getTransactionalCache(cache).getObject(key, tags);
+    }
+
     public void putObject(Cache cache, CacheKey key, Object value) {
         getTransactionalCache(cache).putObject(key, value);
     }
 
+    public void putObject(Cache cache, CacheKey key, Object value, Set<String> tags) {
+        getTransactionalCache(cache).putObject(key, value, tags);
+    }
+
+    public void invalidate(Cache cache, Set<String> tags) {
+        getTransactionalCache(cache).invalidate(tags);
+    }
+
     public void commit() {
         for (TransactionalCache txCache : transactionalCaches.values()) {
             txCache.commit();
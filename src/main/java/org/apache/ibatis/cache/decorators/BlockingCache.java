@@ -17,7 +17,9 @@ package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.TaggedCache;
 
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -34,7 +36,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * @author Eduardo Macarron
  *
  */
-public class BlockingCache implements Cache {
+public class BlockingCache implements TaggedCache {
 
     private final Cache delegate;
     private final ConcurrentHashMap<Object, ReentrantLock> locks;
@@ -64,6 +66,34 @@ public class BlockingCache implements Cache {
         }
     }
 
+    /**
+     * Passes the tags on if the delegate is a {@link TaggedCache}, otherwise stores the value without them.
+     */
+    @Override
+    public void putObject(Object key, Object value, Set<String> tags) {
+        try {
+            if (delegate instanceof TaggedCache) {
+                ((TaggedCache) delegate).putObject(key, value, tags);
+            } else {
+                delegate.putObject(key, value);
+            }
+        } finally {
+            releaseLock(key);
+        }
+    }
+
+    /**
+     * Passes the tags on if the delegate is a {@link TaggedCache}, otherwise clears it.
+     */
+    @Override
+    public void invalidate(Set<String> tags) {
+        if (delegate instanceof TaggedCache) {
+            ((TaggedCache) delegate).invalidate(tags);
+        } else {
+            delegate.clear();
+        }
+    }
+
     @Override
     public Object getObject(Object key) {
         acquireLock(key);
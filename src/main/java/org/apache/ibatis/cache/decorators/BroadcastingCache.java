@@ -0,0 +1,151 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.InvalidationMessage;
+import org.apache.ibatis.cache.InvalidationTransport;
+import org.apache.ibatis.cache.TaggedCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Publishes the evictions of this cache to the caches with the same id on other nodes, and repeats the evictions
+ * they publish.
+ * <p>
+ * The {@link TransactionalCache} only clears or invalidates the cache when a session commits, so other nodes are
+ * notified of committed writes only. {@link #removeObject(Object)} is not published: it only releases the key a
+ * session has missed, for example when that session rolls back. Messages received from other nodes are applied to
+ * the delegate without being published again.
+ *
+ * @see InvalidationTransport
+ */
+public class BroadcastingCache implements TaggedCache {
+
+    private static final Log log = LogFactory.getLog(BroadcastingCache.class);
+
+    private final Cache delegate;
+    private final InvalidationTransport transport;
+    private final String origin = UUID.randomUUID().toString();
+
+    private BroadcastingCache(Cache delegate, InvalidationTransport transport) {
+        this.delegate = delegate;
+        this.transport = transport;
+    }
+
+    /**
+     * Decorates a cache and subscribes it to the messages of the transport.
+     */
+    public static BroadcastingCache subscribe(Cache delegate, InvalidationTransport transport) {
+        BroadcastingCache cache = new BroadcastingCache(delegate, transport);
+        // only once constructed, the transport may deliver on its own threads
+        transport.subscribe(cache::onMessage);
+        return cache;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public void putObject(Object key, Object value, Set<String> tags) {
+        if (delegate instanceof TaggedCache) {
+            ((TaggedCache) delegate).putObject(key, value, tags);
+        } else {
+            delegate.putObject(key, value);
+        }
+    }
+
+    /**
+     * Removes the key locally only, see {@link Cache#removeObject(Object)}.
+     */
+    @Override
+    public Object removeObject(Object key) {
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        publish(InvalidationMessage.clear(origin, getId()));
+    }
+
+    @Override
+    public void invalidate(Set<String> tags) {
+        if (delegate instanceof TaggedCache) {
+            ((TaggedCache) delegate).invalidate(tags);
+            publish(InvalidationMessage.invalidate(origin, getId(), tags));
+        } else {
+            clear();
+        }
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    private void publish(InvalidationMessage message) {
+        try {
+            transport.publish(message);
+        } catch (RuntimeException e) {
+            // the local cache is consistent, the other nodes will catch up with their flush interval
+            log.warn("Could not publish cache invalidation " + message + ". Cause: " + e);
+        }
+    }
+
+    private void onMessage(InvalidationMessage message) {
+        if (origin.equals(message.getOrigin())
+                || message.getCacheId() != null && !getId().equals(message.getCacheId())) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Received cache invalidation " + message);
+        }
+        switch (message.getType()) {
+            case INVALIDATE:
+                if (delegate instanceof TaggedCache) {
+                    ((TaggedCache) delegate).invalidate(message.getTags());
+                } else {
+                    delegate.clear();
+                }
+                break;
+            default:
+                delegate.clear();
+        }
+    }
+
+}
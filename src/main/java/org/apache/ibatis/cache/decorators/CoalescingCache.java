@@ -0,0 +1,233 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.TaggedCache;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Request coalescing alternative to {@link BlockingCache}.
+ * <p>
+ * The first caller that misses a key gets {@code null} and loads the value, concurrent callers of the same key wait
+ * for that single in-flight load and then read the value from the delegate, so read/write caches still hand out
+ * copies. A load ends when its value is put or when {@link #removeObject(Object)} releases it, and it is removed from
+ * the in-flight map at that point, so keys never pile up. A caller that has waited {@code timeout} milliseconds takes
+ * the load over instead of failing.
+ * <p>
+ * With a {@code maxAge} entries are stored with their write time. Entries older than that are stale: during the
+ * following {@code staleWhileRevalidate} milliseconds one caller reloads the entry and all others get the stale value
+ * meanwhile. Older entries are treated as misses.
+ */
+public class CoalescingCache implements TaggedCache {
+
+    private final Cache delegate;
+    private final ConcurrentMap<Object, Load> loads = new ConcurrentHashMap<>();
+    private long timeout;
+    private long maxAge;
+    private long staleWhileRevalidate;
+
+    public CoalescingCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        try {
+            delegate.putObject(key, wrap(value));
+        } finally {
+            release(key);
+        }
+    }
+
+    /**
+     * Passes the tags on if the delegate is a {@link TaggedCache}, otherwise stores the value without them.
+     */
+    @Override
+    public void putObject(Object key, Object value, Set<String> tags) {
+        try {
+            if (delegate instanceof TaggedCache) {
+                ((TaggedCache) delegate).putObject(key, wrap(value), tags);
+            } else {
+                delegate.putObject(key, wrap(value));
+            }
+        } finally {
+            release(key);
+        }
+    }
+
+    /**
+     * Passes the tags on if the delegate is a {@link TaggedCache}, otherwise clears it.
+     */
+    @Override
+    public void invalidate(Set<String> tags) {
+        if (delegate instanceof TaggedCache) {
+            ((TaggedCache) delegate).invalidate(tags);
+        } else {
+            delegate.clear();
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        while (true) {
+            Object stored = delegate.getObject(key);
+            if (stored != null) {
+                if (!(stored instanceof Stamped)) {
+                    return stored;
+                }
+                Stamped entry = (Stamped) stored;
+                long age = System.currentTimeMillis() - entry.writtenAt;
+                if (age <= maxAge) {
+                    return entry.value;
+                }
+                if (age <= maxAge + staleWhileRevalidate) {
+                    // the first caller revalidates, the others keep reading the stale value
+                    return loads.putIfAbsent(key, new Load()) == null ? null : entry.value;
+                }
+            }
+            Load load = new Load();
+            Load current = loads.putIfAbsent(key, load);
+            if (current == null || current.owner == Thread.currentThread()) {
+                return null;
+            }
+            if (!await(current) && loads.replace(key, current, load)) {
+                // the loader is too slow or has been abandoned, this caller loads instead
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        // despite of its name, this method is called only to release loads
+        release(key);
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    /**
+     * @return the number of keys that are being loaded
+     */
+    public int getLoadCount() {
+        return loads.size();
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public long getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(long staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    private Object wrap(Object value) {
+        return maxAge > 0 && value != null ? new Stamped(value, System.currentTimeMillis()) : value;
+    }
+
+    private void release(Object key) {
+        Load load = loads.remove(key);
+        if (load != null) {
+            load.complete(null);
+        }
+    }
+
+    /**
+     * @return false if the load did not end within the timeout
+     */
+    private boolean await(Load load) {
+        try {
+            if (timeout > 0) {
+                load.get(timeout, TimeUnit.MILLISECONDS);
+            } else {
+                load.get();
+            }
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("Got interrupted while waiting for the load of a key at the cache " + delegate.getId(), e);
+        } catch (ExecutionException e) {
+            throw new CacheException("Load failed at the cache " + delegate.getId() + ". Cause: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static final class Load extends CompletableFuture<Void> {
+
+        // a session that reads its own key again must not wait for itself
+        private final Thread owner = Thread.currentThread();
+    }
+
+    private static final class Stamped implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+        private final long writtenAt;
+
+        Stamped(Object value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+}
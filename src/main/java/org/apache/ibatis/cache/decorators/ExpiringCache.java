@@ -0,0 +1,185 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.TaggedCache;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Expires each entry on its own instead of clearing the whole cache like {@link ScheduledCache}.
+ * <p>
+ * An entry expires {@code timeToLive} milliseconds after it has been written or {@code timeToIdle} milliseconds after
+ * it has been read last, whichever comes first. With a {@code refreshAhead} and a refresher, reading an entry that
+ * expires within that many milliseconds hands its key to the refresher, which is expected to put a new value
+ * asynchronously, so that frequently read entries are replaced before they expire.
+ * <p>
+ * Caches that store copies of their values only see the write time, {@code timeToIdle} then behaves like
+ * {@code timeToLive}.
+ */
+public class ExpiringCache implements TaggedCache {
+
+    private final Cache delegate;
+    private long timeToLive;
+    private long timeToIdle;
+    private long refreshAhead;
+    private Consumer<Object> refresher;
+
+    public ExpiringCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, wrap(value));
+    }
+
+    /**
+     * Passes the tags on if the delegate is a {@link TaggedCache}, otherwise stores the value without them.
+     */
+    @Override
+    public void putObject(Object key, Object value, Set<String> tags) {
+        if (delegate instanceof TaggedCache) {
+            ((TaggedCache) delegate).putObject(key, wrap(value), tags);
+        } else {
+            delegate.putObject(key, wrap(value));
+        }
+    }
+
+    /**
+     * Passes the tags on if the delegate is a {@link TaggedCache}, otherwise clears it.
+     */
+    @Override
+    public void invalidate(Set<String> tags) {
+        if (delegate instanceof TaggedCache) {
+            ((TaggedCache) delegate).invalidate(tags);
+        } else {
+            delegate.clear();
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object stored = delegate.getObject(key);
+        if (!(stored instanceof Entry)) {
+            return stored;
+        }
+        Entry entry = (Entry) stored;
+        long now = System.currentTimeMillis();
+        long expiresAt = entry.expiresAt(timeToLive, timeToIdle);
+        if (now >= expiresAt) {
+            delegate.removeObject(key);
+            return null;
+        }
+        entry.readAt = now;
+        if (refresher != null && refreshAhead > 0 && timeToLive > 0 && now >= entry.writtenAt + timeToLive - refreshAhead) {
+            refresher.accept(key);
+        }
+        return entry.value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Object stored = delegate.removeObject(key);
+        return stored instanceof Entry ? ((Entry) stored).value : stored;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public long getTimeToIdle() {
+        return timeToIdle;
+    }
+
+    public void setTimeToIdle(long timeToIdle) {
+        this.timeToIdle = timeToIdle;
+    }
+
+    public long getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void setRefreshAhead(long refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * @param refresher receives the keys of entries that are read within {@code refreshAhead} of their expiry
+     */
+    public void setRefresher(Consumer<Object> refresher) {
+        this.refresher = refresher;
+    }
+
+    private Object wrap(Object value) {
+        return value == null ? null : new Entry(value, System.currentTimeMillis());
+    }
+
+    private static final class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+        private final long writtenAt;
+        private volatile long readAt;
+
+        Entry(Object value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+            this.readAt = writtenAt;
+        }
+
+        long expiresAt(long timeToLive, long timeToIdle) {
+            long expiresAt = Long.MAX_VALUE;
+            if (timeToLive > 0) {
+                expiresAt = writtenAt + timeToLive;
+            }
+            if (timeToIdle > 0) {
+                expiresAt = Math.min(expiresAt, readAt + timeToIdle);
+            }
+            return expiresAt;
+        }
+    }
+
+}
@@ -17,20 +17,30 @@ package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
 import org.apache.ibatis.io.Resources;
 
 import java.io.*;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
+ * Stores serialized copies of the cached objects, so that every hit returns a new copy.
+ *
  * @author Clinton Begin
  */
 public class SerializedCache implements Cache {
 
     private final Cache delegate;
+    private final CacheSerializer serializer;
 
     public SerializedCache(Cache delegate) {
+        this(delegate, new JavaCacheSerializer());
+    }
+
+    public SerializedCache(Cache delegate, CacheSerializer serializer) {
         this.delegate = delegate;
+        this.serializer = serializer;
     }
 
     @Override
@@ -46,7 +56,7 @@ public class SerializedCache implements Cache {
     @Override
     public void putObject(Object key, Object object) {
         if (object == null || object instanceof Serializable) {
-            delegate.putObject(key, serialize((Serializable) object));
+            delegate.putObject(key, serializer.serialize(object));
         } else {
             throw new CacheException("SharedCache failed to make a copy of a non-serializable object: " + object);
         }
@@ -55,7 +65,7 @@ public class SerializedCache implements Cache {
     @Override
     public Object getObject(Object key) {
         Object object = delegate.getObject(key);
-        return object == null ? null : deserialize((byte[]) object);
+        return object == null ? null : serializer.deserialize((byte[]) object);
     }
 
     @Override
@@ -83,28 +93,6 @@ public class SerializedCache implements Cache {
         return delegate.equals(obj);
     }
 
-    private byte[] serialize(Serializable value) {
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-             ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-            oos.writeObject(value);
-            oos.flush();
-            return bos.toByteArray();
-        } catch (Exception e) {
-            throw new CacheException("Error serializing object.  Cause: " + e, e);
-        }
-    }
-
-    private Serializable deserialize(byte[] value) {
-        Serializable result;
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(value);
-             ObjectInputStream ois = new CustomObjectInputStream(bis)) {
-            result = (Serializable) ois.readObject();
-        } catch (Exception e) {
-            throw new CacheException("Error deserializing object.  Cause: " + e, e);
-        }
-        return result;
-    }
-
     public static class CustomObjectInputStream extends ObjectInputStream {
 
         public CustomObjectInputStream(InputStream in) throws IOException {
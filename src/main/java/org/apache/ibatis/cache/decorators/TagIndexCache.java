@@ -0,0 +1,163 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.TaggedCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Keeps a reverse index from tags to the keys cached with them, so that {@link #invalidate(Set)} removes only the
+ * affected entries.
+ * <p>
+ * The index holds at most {@code maxKeys} keys. When it is full the oldest key is dropped and its entry is removed
+ * from the cache as well, so an entry that can no longer be found by tag is never served.
+ *
+ * @see TaggedCache
+ */
+public class TagIndexCache implements TaggedCache {
+
+    public static final int DEFAULT_MAX_KEYS = 2048;
+
+    private static final String UNTAGGED = "";
+
+    private final Cache delegate;
+    private final int maxKeys;
+    private final Map<Object, Set<String>> tagsByKey = new LinkedHashMap<>();
+    private final Map<String, Set<Object>> keysByTag = new HashMap<>();
+
+    public TagIndexCache(Cache delegate) {
+        this(delegate, DEFAULT_MAX_KEYS);
+    }
+
+    public TagIndexCache(Cache delegate, int maxKeys) {
+        this.delegate = delegate;
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        putObject(key, value, null);
+    }
+
+    @Override
+    public synchronized void putObject(Object key, Object value, Set<String> tags) {
+        delegate.putObject(key, value);
+        unindex(key);
+        if (value == null) {
+            // a null value is a miss, there is nothing to invalidate
+            return;
+        }
+        Set<String> keyTags = tags == null || tags.isEmpty() ? Collections.singleton(UNTAGGED) : new HashSet<>(tags);
+        tagsByKey.put(key, keyTags);
+        for (String tag : keyTags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+        if (tagsByKey.size() > maxKeys) {
+            Iterator<Object> eldest = tagsByKey.keySet().iterator();
+            Object eldestKey = eldest.next();
+            unindex(eldestKey);
+            delegate.removeObject(eldestKey);
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(Set<String> tags) {
+        List<Object> keys = new ArrayList<>();
+        collectKeys(UNTAGGED, keys);
+        for (String tag : tags) {
+            collectKeys(tag, keys);
+        }
+        for (Object key : keys) {
+            if (unindex(key)) {
+                delegate.removeObject(key);
+            }
+        }
+    }
+
+    @Override
+    public synchronized Object removeObject(Object key) {
+        unindex(key);
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        tagsByKey.clear();
+        keysByTag.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    /**
+     * @return the number of keys in the index
+     */
+    public synchronized int getIndexedKeyCount() {
+        return tagsByKey.size();
+    }
+
+    private void collectKeys(String tag, List<Object> keys) {
+        Set<Object> tagged = keysByTag.get(tag);
+        if (tagged != null) {
+            keys.addAll(tagged);
+        }
+    }
+
+    private boolean unindex(Object key) {
+        Set<String> tags = tagsByKey.remove(key);
+        if (tags == null) {
+            return false;
+        }
+        for (String tag : tags) {
+            Set<Object> keys = keysByTag.get(tag);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+        return true;
+    }
+
+}
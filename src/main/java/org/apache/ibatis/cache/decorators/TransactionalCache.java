@@ -16,11 +16,14 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.TaggedCache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -33,6 +36,9 @@ import java.util.concurrent.locks.ReadWriteLock;
  * Blocking cache support has been added. Therefore any get() that returns a cache miss
  * will be followed by a put() so any lock associated with the key can be released.
  *
+ * If the delegate is a {@link TaggedCache}, writes that declare tags only invalidate the entries read from those
+ * tags, both in this buffer and, on commit, in the delegate.
+ *
  * @author Clinton Begin
  * @author Eduardo Macarron
  */
@@ -43,6 +49,8 @@ public class TransactionalCache implements Cache {
     private final Cache delegate;
     private final Map<Object, Object> entriesToAddOnCommit;
     private final Set<Object> entriesMissedInCache;
+    private final Map<Object, Set<String>> tagsOfEntriesToAdd;
+    private final Set<String> tagsToInvalidateOnCommit;
     private boolean clearOnCommit;
 
     public TransactionalCache(Cache delegate) {
@@ -50,6 +58,8 @@ public class TransactionalCache implements Cache {
         this.clearOnCommit = false;
         this.entriesToAddOnCommit = new HashMap<>();
         this.entriesMissedInCache = new HashSet<>();
+        this.tagsOfEntriesToAdd = new HashMap<>();
+        this.tagsToInvalidateOnCommit = new HashSet<>();
     }
 
     @Override
@@ -77,6 +87,17 @@ public class TransactionalCache implements Cache {
         }
     }
 
+    /**
+     * Same as {@link #getObject(Object)}, but also misses if this transaction has invalidated any of the tags.
+     */
+    public Object getObject(Object key, Set<String> tags) {
+        Object object = getObject(key);
+        if (object != null && isInvalidated(tags)) {
+            return null;
+        }
+        return object;
+    }
+
     @Override
     public ReadWriteLock getReadWriteLock() {
         return null;
@@ -85,6 +106,16 @@ public class TransactionalCache implements Cache {
     @Override
     public void putObject(Object key, Object object) {
         entriesToAddOnCommit.put(key, object);
+        tagsOfEntriesToAdd.remove(key);
+    }
+
+    public void putObject(Object key, Object object, Set<String> tags) {
+        entriesToAddOnCommit.put(key, object);
+        if (tags == null) {
+            tagsOfEntriesToAdd.remove(key);
+        } else {
+            tagsOfEntriesToAdd.put(key, tags);
+        }
     }
 
     @Override
@@ -96,11 +127,34 @@ public class TransactionalCache implements Cache {
     public void clear() {
         clearOnCommit = true;
         entriesToAddOnCommit.clear();
+        tagsOfEntriesToAdd.clear();
+    }
+
+    /**
+     * Marks the entries read from any of the given tags as stale. Clears the whole cache on commit if the delegate
+     * is not a {@link TaggedCache}.
+     */
+    public void invalidate(Set<String> tags) {
+        if (!(delegate instanceof TaggedCache)) {
+            clear();
+            return;
+        }
+        tagsToInvalidateOnCommit.addAll(tags);
+        Iterator<Object> keys = entriesToAddOnCommit.keySet().iterator();
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            if (isInvalidatedBy(tagsOfEntriesToAdd.get(key), tags)) {
+                keys.remove();
+                tagsOfEntriesToAdd.remove(key);
+            }
+        }
     }
 
     public void commit() {
         if (clearOnCommit) {
             delegate.clear();
+        } else if (!tagsToInvalidateOnCommit.isEmpty()) {
+            ((TaggedCache) delegate).invalidate(tagsToInvalidateOnCommit);
         }
         flushPendingEntries();
         reset();
@@ -115,11 +169,27 @@ public class TransactionalCache implements Cache {
         clearOnCommit = false;
         entriesToAddOnCommit.clear();
         entriesMissedInCache.clear();
+        tagsOfEntriesToAdd.clear();
+        tagsToInvalidateOnCommit.clear();
+    }
+
+    private boolean isInvalidated(Set<String> tags) {
+        return !tagsToInvalidateOnCommit.isEmpty() && isInvalidatedBy(tags, tagsToInvalidateOnCommit);
+    }
+
+    private static boolean isInvalidatedBy(Set<String> entryTags, Set<String> invalidatedTags) {
+        // entries without tags may depend on anything
+        return entryTags == null || entryTags.isEmpty() || !Collections.disjoint(entryTags, invalidatedTags);
     }
 
     private void flushPendingEntries() {
         for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-            delegate.putObject(entry.getKey(), entry.getValue());
+            Set<String> tags = tagsOfEntriesToAdd.get(entry.getKey());
+            if (tags != null && delegate instanceof TaggedCache) {
+                ((TaggedCache) delegate).putObject(entry.getKey(), entry.getValue(), tags);
+            } else {
+                delegate.putObject(entry.getKey(), entry.getValue());
+            }
         }
         for (Object entry : entriesMissedInCache) {
             if (!entriesToAddOnCommit.containsKey(entry)) {
@@ -0,0 +1,488 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.cache.serializer.CompactCacheSerializer;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * A cache that keeps serialized entries outside of the Java heap.
+ * <p>
+ * The {@link #setCapacity(long) capacity} is split into {@link #setSlabs(int) slabs}, direct {@link ByteBuffer}s
+ * that are each guarded by their own lock. The {@link CacheKey#getHash64() 64-bit hash} of a key selects the slab
+ * and indexes the entry within it; only these hashes and the entry offsets stay on the heap. The hash is not an
+ * identity, so every entry also holds its serialized key, which is compared on every read: a key that merely shares
+ * the hash of a stored one is a miss, and at most one of them is kept. Every slab is a ring: new entries are appended
+ * and, once the end is reached, the oldest entries are overwritten.
+ * <p>
+ * If a {@link #setFile(String) file} is set, the slabs are memory-mapped regions of that file and the entries
+ * survive a restart with the same capacity and number of slabs. Note that changes made to the database while the
+ * application was down are not seen by such a cache.
+ * <p>
+ * Keys and values are serialized with a {@link CacheSerializer}, {@link CompactCacheSerializer} unless the cache is
+ * configured otherwise, which must write equal keys as equal bytes. Keys that cannot be serialized are not cached.
+ * As values are copied anyway, {@link org.apache.ibatis.mapping.CacheBuilder} does not wrap this cache with
+ * {@link org.apache.ibatis.cache.decorators.SerializedCache}. Neither does it add an eviction decorator nor
+ * {@link org.apache.ibatis.cache.decorators.SynchronizedCache}.
+ */
+public class OffHeapCache implements Cache, InitializingObject {
+
+    private static final long DEFAULT_CAPACITY = 64L << 20;
+    private static final int DEFAULT_SLABS = 8;
+
+    private final String id;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long capacity = DEFAULT_CAPACITY;
+    private int slabCount = DEFAULT_SLABS;
+    private String file;
+    private CacheSerializer serializer = new CompactCacheSerializer();
+    private volatile Slab[] slabs;
+
+    public OffHeapCache(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the number of bytes reserved for entries. Defaults to 64 MiB. Has no effect once the cache is in use.
+     *
+     * @param capacity the number of bytes
+     */
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getSlabs() {
+        return slabCount;
+    }
+
+    /**
+     * Sets the number of independently locked buffers the capacity is split into. Defaults to 8. Has no effect once
+     * the cache is in use.
+     *
+     * @param slabs the number of buffers, each of which may hold up to 2 GiB
+     */
+    public void setSlabs(int slabs) {
+        this.slabCount = slabs;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the file the entries are mapped to. Without a file the entries are kept in direct buffers and are lost
+     * on restart. Has no effect once the cache is in use.
+     *
+     * @param file the path of the file
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public void setSerializer(CacheSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        long evictions = 0;
+        for (Slab slab : slabs()) {
+            synchronized (slab) {
+                evictions += slab.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    @Override
+    public synchronized void initialize() {
+        if (slabs != null) {
+            return;
+        }
+        if (slabCount < 1 || capacity < slabCount) {
+            throw new CacheException("Invalid capacity " + capacity + " or number of slabs " + slabCount + " of cache '" + id + "'.");
+        }
+        long slabSize = capacity / slabCount;
+        if (slabSize > Integer.MAX_VALUE) {
+            throw new CacheException("The slabs of cache '" + id + "' would exceed 2 GiB, use more than " + slabCount + " slabs.");
+        }
+        Slab[] newSlabs = new Slab[slabCount];
+        if (file == null) {
+            for (int i = 0; i < slabCount; i++) {
+                newSlabs[i] = new Slab(ByteBuffer.allocateDirect((int) slabSize), false);
+            }
+        } else {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                for (int i = 0; i < slabCount; i++) {
+                    newSlabs[i] = new Slab(channel.map(FileChannel.MapMode.READ_WRITE, i * slabSize, slabSize), true);
+                }
+            } catch (IOException e) {
+                throw new CacheException("Could not map file '" + file + "' for cache '" + id + "'.  Cause: " + e, e);
+            }
+        }
+        slabs = newSlabs;
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Slab slab : slabs()) {
+            synchronized (slab) {
+                size += slab.index.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        byte[] keyBytes = serializeKey(key);
+        byte[] bytes = keyBytes == null ? null : serializer.serialize(value);
+        long hash = hash(key);
+        Slab slab = slabFor(hash);
+        synchronized (slab) {
+            if (keyBytes == null) {
+                slab.remove(hash);
+            } else {
+                slab.put(hash, keyBytes, bytes);
+            }
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        byte[] keyBytes = serializeKey(key);
+        long hash = hash(key);
+        Slab slab = slabFor(hash);
+        byte[] bytes = null;
+        if (keyBytes != null) {
+            synchronized (slab) {
+                bytes = slab.get(hash, keyBytes);
+            }
+        }
+        if (bytes == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return serializer.deserialize(bytes);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        long hash = hash(key);
+        Slab slab = slabFor(hash);
+        synchronized (slab) {
+            slab.remove(hash);
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        for (Slab slab : slabs()) {
+            synchronized (slab) {
+                slab.clear();
+            }
+        }
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (getId() == null) {
+            throw new CacheException("Cache instances require an ID.");
+        }
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cache)) {
+            return false;
+        }
+
+        Cache otherCache = (Cache) o;
+        return getId().equals(otherCache.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        if (getId() == null) {
+            throw new CacheException("Cache instances require an ID.");
+        }
+        return getId().hashCode();
+    }
+
+    private Slab[] slabs() {
+        Slab[] current = slabs;
+        if (current == null) {
+            initialize();
+            current = slabs;
+        }
+        return current;
+    }
+
+    private Slab slabFor(long hash) {
+        Slab[] current = slabs();
+        return current[(int) ((hash >>> 1) % current.length)];
+    }
+
+    /**
+     * @return the serialized key, or null if the key cannot be serialized
+     */
+    private byte[] serializeKey(Object key) {
+        try {
+            return serializer.serialize(key);
+        } catch (CacheException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The {@link CacheKey#getHash64() 64-bit hash} of a cache key, or a 64-bit FNV-1a hash of the UTF-8 form of
+     * {@link Object#toString()} for other keys.
+     */
+    static long hash(Object key) {
+        if (key instanceof CacheKey) {
+            return ((CacheKey) key).getHash64();
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : String.valueOf(key).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * A ring of entries within one buffer. The header holds the ring positions, so that a mapped slab can be
+     * reopened; every entry is stored as its key hash, the length of its value, a live flag, the length of its key,
+     * the serialized key and the serialized value.
+     */
+    private static final class Slab {
+
+        private static final int MAGIC = 0x4D424F4B;
+        private static final int HEADER_SIZE = 24;
+        private static final int ENTRY_HEADER_SIZE = 17;
+        private static final byte LIVE = 1;
+        private static final byte DEAD = 0;
+
+        private final ByteBuffer buffer;
+        private final int capacity;
+        private final Map<Long, Integer> index = new HashMap<>();
+        // live entries are in [evictPosition, writePosition), or in [evictPosition, wrapLimit) and
+        // [HEADER_SIZE, writePosition) once the ring has wrapped
+        private int writePosition;
+        private int evictPosition;
+        private int wrapLimit;
+        private boolean wrapped;
+        private long evictions;
+
+        Slab(ByteBuffer buffer, boolean reopen) {
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+            if (!reopen || !restore()) {
+                clear();
+            }
+        }
+
+        byte[] get(long hash, byte[] key) {
+            Integer position = index.get(hash);
+            if (position == null || !hasKey(position, key)) {
+                return null;
+            }
+            byte[] bytes = new byte[buffer.getInt(position + 8)];
+            ByteBuffer view = buffer.duplicate();
+            ((Buffer) view).position(position + ENTRY_HEADER_SIZE + key.length);
+            view.get(bytes);
+            return bytes;
+        }
+
+        void put(long hash, byte[] key, byte[] bytes) {
+            long size = (long) ENTRY_HEADER_SIZE + key.length + bytes.length;
+            if (size > capacity - HEADER_SIZE) {
+                // too large to ever fit, keep the previous value out as well
+                remove(hash);
+                return;
+            }
+            int position = allocate((int) size);
+            buffer.putLong(position, hash);
+            buffer.putInt(position + 8, bytes.length);
+            buffer.put(position + 12, LIVE);
+            buffer.putInt(position + 13, key.length);
+            ByteBuffer view = buffer.duplicate();
+            ((Buffer) view).position(position + ENTRY_HEADER_SIZE);
+            view.put(key);
+            view.put(bytes);
+            Integer previous = index.put(hash, position);
+            if (previous != null) {
+                buffer.put(previous + 12, DEAD);
+            }
+            writeHeader();
+        }
+
+        private boolean hasKey(int position, byte[] key) {
+            if (buffer.getInt(position + 13) != key.length) {
+                return false;
+            }
+            int start = position + ENTRY_HEADER_SIZE;
+            for (int i = 0; i < key.length; i++) {
+                if (buffer.get(start + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long sizeOf(int position) {
+            return (long) ENTRY_HEADER_SIZE + buffer.getInt(position + 13) + buffer.getInt(position + 8);
+        }
+
+        void remove(long hash) {
+            Integer position = index.remove(hash);
+            if (position != null) {
+                buffer.put(position + 12, DEAD);
+            }
+        }
+
+        void clear() {
+            index.clear();
+            writePosition = HEADER_SIZE;
+            evictPosition = HEADER_SIZE;
+            wrapLimit = capacity;
+            wrapped = false;
+            writeHeader();
+        }
+
+        private int allocate(int size) {
+            while (true) {
+                if (!wrapped) {
+                    if (writePosition + size <= capacity) {
+                        return advance(size);
+                    }
+                    wrapLimit = writePosition;
+                    writePosition = HEADER_SIZE;
+                    wrapped = true;
+                }
+                while (writePosition + size > evictPosition) {
+                    if (evictPosition >= wrapLimit) {
+                        evictPosition = HEADER_SIZE;
+                        wrapped = false;
+                        break;
+                    }
+                    evictPosition = evict(evictPosition);
+                }
+                if (wrapped) {
+                    return advance(size);
+                }
+            }
+        }
+
+        private int advance(int size) {
+            int position = writePosition;
+            writePosition += size;
+            return position;
+        }
+
+        private int evict(int position) {
+            if (buffer.get(position + 12) == LIVE) {
+                index.remove(buffer.getLong(position));
+                evictions++;
+            }
+            return (int) (position + sizeOf(position));
+        }
+
+        private void writeHeader() {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, capacity);
+            buffer.putInt(8, writePosition);
+            buffer.putInt(12, evictPosition);
+            buffer.putInt(16, wrapLimit);
+            buffer.putInt(20, wrapped ? 1 : 0);
+        }
+
+        private boolean restore() {
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != capacity) {
+                return false;
+            }
+            writePosition = buffer.getInt(8);
+            evictPosition = buffer.getInt(12);
+            wrapLimit = buffer.getInt(16);
+            wrapped = buffer.getInt(20) == 1;
+            if (wrapLimit > capacity || writePosition < HEADER_SIZE || evictPosition < HEADER_SIZE
+                    || (wrapped ? writePosition > evictPosition || evictPosition > wrapLimit : evictPosition > writePosition)) {
+                return false;
+            }
+            if (wrapped) {
+                return scan(evictPosition, wrapLimit) && scan(HEADER_SIZE, writePosition);
+            }
+            return scan(evictPosition, writePosition);
+        }
+
+        private boolean scan(int from, int to) {
+            int position = from;
+            while (position < to) {
+                if (position + ENTRY_HEADER_SIZE > to || buffer.getInt(position + 8) < 0 || buffer.getInt(position + 13) < 0
+                        || position + sizeOf(position) > to) {
+                    index.clear();
+                    return false;
+                }
+                if (buffer.get(position + 12) == LIVE) {
+                    index.put(buffer.getLong(position), position);
+                }
+                position += (int) sizeOf(position);
+            }
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,361 @@
+/**
+ * Copyright 2009-2018 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, thread-safe cache using the W-TinyLFU eviction policy.
+ * <p>
+ * Entries are stored in a {@link ConcurrentHashMap}, so reads never block. New entries enter a small LRU window
+ * and, when they leave it, have to compete with the eviction candidate of the main (segmented LRU) space: the one
+ * that has been used less often according to a {@link FrequencySketch} is discarded. Reads are recorded in a lossy
+ * buffer and replayed on the policy when the eviction lock can be taken without waiting.
+ * <p>
+ * As this cache is safe for concurrent use, {@link org.apache.ibatis.mapping.CacheBuilder} does not wrap it with
+ * an eviction decorator nor with {@link org.apache.ibatis.cache.decorators.SynchronizedCache}.
+ */
+public class TinyLfuCache implements Cache {
+
+    private static final int DEFAULT_SIZE = 1024;
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD_MASK = 31;
+
+    private final String id;
+    private final ConcurrentMap<Object, Node> cache = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readCount = new AtomicLong();
+
+    // guarded by evictionLock
+    private final NodeList window = new NodeList();
+    private final NodeList probation = new NodeList();
+    private final NodeList protectedList = new NodeList();
+    private FrequencySketch sketch;
+    private int maximumSize;
+    private int windowMaximumSize;
+    private int mainMaximumSize;
+    private int protectedMaximumSize;
+
+    public TinyLfuCache(String id) {
+        this.id = id;
+        setSize(DEFAULT_SIZE);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    /**
+     * Sets the maximum number of entries. Defaults to 1024.
+     *
+     * @param size the maximum number of entries
+     */
+    public void setSize(int size) {
+        if (size < 1) {
+            throw new CacheException("The size of cache '" + id + "' must be greater than zero but was " + size + ".");
+        }
+        evictionLock.lock();
+        try {
+            maximumSize = size;
+            windowMaximumSize = Math.max(1, size / 100);
+            mainMaximumSize = size - windowMaximumSize;
+            protectedMaximumSize = mainMaximumSize * 4 / 5;
+            sketch = new FrequencySketch(size);
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        Node node = new Node(key, value);
+        Node prior = cache.putIfAbsent(key, node);
+        if (prior != null) {
+            prior.value = value;
+            afterRead(prior);
+            return;
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            // removed or cleared by another thread in the meantime
+            if (cache.get(key) == node) {
+                sketch.increment(key);
+                window.addLast(node, Node.WINDOW);
+                evict();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Node node = cache.get(key);
+        if (node == null) {
+            return null;
+        }
+        afterRead(node);
+        return node.value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Node node = cache.remove(key);
+        if (node == null) {
+            return null;
+        }
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+        return node.value;
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                readBuffer.lazySet(i, null);
+            }
+            cache.clear();
+            window.clear();
+            probation.clear();
+            protectedList.clear();
+            sketch.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    private void afterRead(Node node) {
+        long count = readCount.getAndIncrement();
+        readBuffer.lazySet((int) count & READ_BUFFER_MASK, node);
+        if ((count & DRAIN_THRESHOLD_MASK) == DRAIN_THRESHOLD_MASK && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+            Node node = readBuffer.getAndSet(i, null);
+            if (node != null) {
+                onAccess(node);
+            }
+        }
+    }
+
+    private void onAccess(Node node) {
+        if (node.queue == Node.DEAD) {
+            return;
+        }
+        sketch.increment(node.key);
+        if (node.queue == Node.WINDOW) {
+            window.moveToLast(node);
+        } else if (node.queue == Node.PROBATION) {
+            probation.remove(node);
+            protectedList.addLast(node, Node.PROTECTED);
+            while (protectedList.size > protectedMaximumSize) {
+                Node demoted = protectedList.removeFirst();
+                probation.addLast(demoted, Node.PROBATION);
+            }
+        } else if (node.queue == Node.PROTECTED) {
+            protectedList.moveToLast(node);
+        }
+    }
+
+    private void evict() {
+        while (window.size > windowMaximumSize) {
+            Node candidate = window.removeFirst();
+            if (probation.size + protectedList.size < mainMaximumSize) {
+                probation.addLast(candidate, Node.PROBATION);
+                continue;
+            }
+            Node victim = probation.size > 0 ? probation.first : protectedList.first;
+            if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                discard(victim);
+                probation.addLast(candidate, Node.PROBATION);
+            } else {
+                discard(candidate);
+            }
+        }
+        // only reached when the size has been reduced
+        while (window.size + probation.size + protectedList.size > maximumSize) {
+            Node victim = probation.size > 0 ? probation.first
+                    : protectedList.size > 0 ? protectedList.first : window.first;
+            discard(victim);
+        }
+    }
+
+    private void discard(Node node) {
+        unlink(node);
+        cache.remove(node.key, node);
+    }
+
+    private void unlink(Node node) {
+        if (node.queue == Node.WINDOW) {
+            window.remove(node);
+        } else if (node.queue == Node.PROBATION) {
+            probation.remove(node);
+        } else if (node.queue == Node.PROTECTED) {
+            protectedList.remove(node);
+        }
+        node.queue = Node.DEAD;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (getId() == null) {
+            throw new CacheException("Cache instances require an ID.");
+        }
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cache)) {
+            return false;
+        }
+
+        Cache otherCache = (Cache) o;
+        return getId().equals(otherCache.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        if (getId() == null) {
+            throw new CacheException("Cache instances require an ID.");
+        }
+        return getId().hashCode();
+    }
+
+    private static final class Node {
+
+        static final int NONE = 0;
+        static final int WINDOW = 1;
+        static final int PROBATION = 2;
+        static final int PROTECTED = 3;
+        static final int DEAD = 4;
+
+        final Object key;
+        volatile Object value;
+
+        // guarded by evictionLock
+        int queue = NONE;
+        Node prev;
+        Node next;
+
+        Node(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of nodes, ordered from least to most recently used.
+     */
+    private static final class NodeList {
+
+        Node first;
+        Node last;
+        int size;
+
+        void addLast(Node node, int queue) {
+            node.queue = queue;
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        Node removeFirst() {
+            Node node = first;
+            remove(node);
+            node.queue = Node.NONE;
+            return node;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node node) {
+            if (node != last) {
+                int queue = node.queue;
+                remove(node);
+                addLast(node, queue);
+            }
+        }
+
+        void clear() {
+            for (Node node = first; node != null; ) {
+                Node next = node.next;
+                node.queue = Node.DEAD;
+                node.prev = null;
+                node.next = null;
+                node = next;
+            }
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import org.apache.ibatis.cache.CacheSerializer;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Names of the {@link CacheSerializer} implementations that the {@code serializer} attribute of a cache accepts
+ * besides type aliases and class names. The names are kept apart from the type aliases, so that they cannot collide
+ * with the aliases of mapped types, and are case insensitive.
+ */
+public class CacheSerializerRegistry {
+
+    private final Map<String, Class<? extends CacheSerializer>> serializers = new HashMap<>();
+
+    public CacheSerializerRegistry() {
+        register("JAVA", JavaCacheSerializer.class);
+        register("COMPACT", CompactCacheSerializer.class);
+    }
+
+    public void register(String name, Class<? extends CacheSerializer> type) {
+        if (name == null) {
+            throw new IllegalArgumentException("null is not a valid cache serializer name");
+        }
+        serializers.put(name.toUpperCase(Locale.ENGLISH), type);
+    }
+
+    /**
+     * @return the serializer registered under the name, or null
+     */
+    public Class<? extends CacheSerializer> resolve(String name) {
+        return name == null ? null : serializers.get(name.toUpperCase(Locale.ENGLISH));
+    }
+
+}
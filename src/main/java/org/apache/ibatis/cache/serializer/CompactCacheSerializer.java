@@ -0,0 +1,703 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.Reflector;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * A compact binary serializer for mapped results.
+ * <p>
+ * Boxed primitives, strings, big numbers, dates, byte arrays, enums and the common {@link List}, {@link Map} and
+ * {@link java.util.Set} implementations are written with a one byte tag. Beans are written as their field values in
+ * declaration order, preceded by the class name the first time a class occurs in an entry. A class is treated as a
+ * bean if it is {@link Serializable}, has a no-arg constructor according to its {@link Reflector}, does not customize
+ * its serialization and has no final instance fields. Every other value is written with Java serialization. Shared
+ * and cyclic references between beans and collections are preserved.
+ * <p>
+ * Unlike Java serialization, a bean is read back by calling its own no-arg constructor and then setting its
+ * non-transient fields directly, without calling setters. Transient fields therefore keep the values the constructor
+ * assigns, and the constructor must not have side effects. Classes that define {@code readObject},
+ * {@code writeObject}, {@code readResolve}, {@code writeReplace}, {@code serialPersistentFields} or final fields are
+ * always written with Java serialization, so their own serialization logic still applies.
+ * <p>
+ * Output buffers of up to 64 KB are pooled, at most one per processor. If
+ * {@link #setCompressionThreshold(int) compressionThreshold} is set, entries of at least that many bytes are
+ * deflated.
+ */
+public class CompactCacheSerializer implements CacheSerializer {
+
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    private static final byte NULL = 0;
+    private static final byte REFERENCE = 1;
+    private static final byte STRING = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte TRUE = 7;
+    private static final byte FALSE = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte FLOAT = 10;
+    private static final byte CHARACTER = 11;
+    private static final byte BIG_DECIMAL = 12;
+    private static final byte BIG_INTEGER = 13;
+    private static final byte DATE = 14;
+    private static final byte SQL_DATE = 15;
+    private static final byte SQL_TIME = 16;
+    private static final byte TIMESTAMP = 17;
+    private static final byte BYTE_ARRAY = 18;
+    private static final byte ENUM = 19;
+    private static final byte ARRAY_LIST = 20;
+    private static final byte LINKED_LIST = 21;
+    private static final byte HASH_SET = 22;
+    private static final byte LINKED_HASH_SET = 23;
+    private static final byte HASH_MAP = 24;
+    private static final byte LINKED_HASH_MAP = 25;
+    private static final byte BEAN = 26;
+    private static final byte SERIALIZED = 27;
+
+    private static final BeanType NOT_A_BEAN = new BeanType(null, new Field[0]);
+
+    /**
+     * Kept by each class itself, so that caching it does not keep classes of other class loaders alive.
+     */
+    private static final ClassValue<BeanType> beanTypes = new ClassValue<BeanType>() {
+        @Override
+        protected BeanType computeValue(Class<?> type) {
+            return BeanType.of(type);
+        }
+    };
+
+    private final BlockingQueue<Output> outputs = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+    private int compressionThreshold;
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * @param compressionThreshold the size in bytes from which entries are deflated, or 0 to never deflate them
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        Output out = outputs.poll();
+        if (out == null) {
+            out = new Output();
+        }
+        try {
+            out.size = 0;
+            out.writeByte(PLAIN);
+            new Writer(out).writeValue(value);
+            if (compressionThreshold > 0 && out.size - 1 >= compressionThreshold) {
+                return deflate(out);
+            }
+            return Arrays.copyOf(out.buffer, out.size);
+        } catch (CacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheException("Error serializing object.  Cause: " + e, e);
+        } finally {
+            if (out.buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+                outputs.offer(out);
+            }
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        try {
+            Input in;
+            if (bytes[0] == DEFLATED) {
+                in = new Input(inflate(bytes), 0);
+            } else {
+                in = new Input(bytes, 1);
+            }
+            return new Reader(in).readValue();
+        } catch (CacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheException("Error deserializing object.  Cause: " + e, e);
+        }
+    }
+
+    private static byte[] deflate(Output out) throws Exception {
+        int length = out.size - 1;
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 2 + 16);
+        bos.write(DEFLATED);
+        bos.write(length >>> 24);
+        bos.write(length >>> 16);
+        bos.write(length >>> 8);
+        bos.write(length);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream dos = new DeflaterOutputStream(bos, deflater)) {
+            dos.write(out.buffer, 1, length);
+        } finally {
+            deflater.end();
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] bytes) throws DataFormatException {
+        int length = ((bytes[1] & 0xff) << 24) | ((bytes[2] & 0xff) << 16) | ((bytes[3] & 0xff) << 8) | (bytes[4] & 0xff);
+        byte[] result = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, 5, bytes.length - 5);
+            int offset = 0;
+            while (offset < length) {
+                int inflated = inflater.inflate(result, offset, length - offset);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("Truncated cache entry");
+                }
+                offset += inflated;
+            }
+        } finally {
+            inflater.end();
+        }
+        return result;
+    }
+
+    private static BeanType beanType(Class<?> type) {
+        BeanType beanType = beanTypes.get(type);
+        return beanType == NOT_A_BEAN ? null : beanType;
+    }
+
+    private static final class BeanType {
+
+        private static final String[] SERIALIZATION_METHODS = {
+                "writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve"};
+
+        private final Constructor<?> constructor;
+        private final Field[] fields;
+
+        private BeanType(Constructor<?> constructor, Field[] fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+
+        static BeanType of(Class<?> type) {
+            if (!Serializable.class.isAssignableFrom(type) || Externalizable.class.isAssignableFrom(type)
+                    || type.isArray() || Modifier.isAbstract(type.getModifiers()) || !Reflector.canControlMemberAccessible()) {
+                return NOT_A_BEAN;
+            }
+            Reflector reflector;
+            try {
+                reflector = new Reflector(type);
+            } catch (RuntimeException e) {
+                return NOT_A_BEAN;
+            }
+            if (!reflector.hasDefaultConstructor()) {
+                return NOT_A_BEAN;
+            }
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && Serializable.class.isAssignableFrom(c); c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    for (String name : SERIALIZATION_METHODS) {
+                        if (name.equals(method.getName())) {
+                            return NOT_A_BEAN;
+                        }
+                    }
+                }
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if ("serialPersistentFields".equals(field.getName())) {
+                        return NOT_A_BEAN;
+                    }
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+                    if (Modifier.isFinal(modifiers)) {
+                        return NOT_A_BEAN;
+                    }
+                    fields.add(field);
+                }
+            }
+            try {
+                Constructor<?> constructor = reflector.getDefaultConstructor();
+                constructor.setAccessible(true);
+                for (Field field : fields) {
+                    field.setAccessible(true);
+                }
+                return new BeanType(constructor, fields.toArray(new Field[0]));
+            } catch (SecurityException e) {
+                return NOT_A_BEAN;
+            }
+        }
+
+        Object newInstance() throws Exception {
+            return constructor.newInstance();
+        }
+    }
+
+    private static final class Writer {
+
+        private final Output out;
+        private final Map<Object, Integer> references = new IdentityHashMap<>();
+        private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+        Writer(Output out) {
+            this.out = out;
+        }
+
+        void writeValue(Object value) throws Exception {
+            if (value == null) {
+                out.writeByte(NULL);
+                return;
+            }
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                out.writeByte(STRING);
+                writeString((String) value);
+            } else if (type == Integer.class) {
+                out.writeByte(INTEGER);
+                out.writeVarLong((Integer) value);
+            } else if (type == Long.class) {
+                out.writeByte(LONG);
+                out.writeVarLong((Long) value);
+            } else if (type == Boolean.class) {
+                out.writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (type == Double.class) {
+                out.writeByte(DOUBLE);
+                out.writeLong(Double.doubleToRawLongBits((Double) value));
+            } else if (type == BigDecimal.class) {
+                BigDecimal decimal = (BigDecimal) value;
+                out.writeByte(BIG_DECIMAL);
+                writeBytes(decimal.unscaledValue().toByteArray());
+                out.writeVarLong(decimal.scale());
+            } else if (type == Short.class) {
+                out.writeByte(SHORT);
+                out.writeVarLong((Short) value);
+            } else if (type == Byte.class) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            } else if (type == Float.class) {
+                out.writeByte(FLOAT);
+                out.writeVarLong(Float.floatToRawIntBits((Float) value));
+            } else if (type == Character.class) {
+                out.writeByte(CHARACTER);
+                out.writeVarLong((Character) value);
+            } else if (type == BigInteger.class) {
+                out.writeByte(BIG_INTEGER);
+                writeBytes(((BigInteger) value).toByteArray());
+            } else if (type == Date.class) {
+                out.writeByte(DATE);
+                out.writeVarLong(((Date) value).getTime());
+            } else if (type == java.sql.Date.class) {
+                out.writeByte(SQL_DATE);
+                out.writeVarLong(((Date) value).getTime());
+            } else if (type == Time.class) {
+                out.writeByte(SQL_TIME);
+                out.writeVarLong(((Date) value).getTime());
+            } else if (type == Timestamp.class) {
+                Timestamp timestamp = (Timestamp) value;
+                out.writeByte(TIMESTAMP);
+                out.writeVarLong(timestamp.getTime());
+                out.writeVarLong(timestamp.getNanos());
+            } else if (type == byte[].class) {
+                out.writeByte(BYTE_ARRAY);
+                writeBytes((byte[]) value);
+            } else if (value instanceof Enum) {
+                out.writeByte(ENUM);
+                writeClass(((Enum<?>) value).getDeclaringClass());
+                writeString(((Enum<?>) value).name());
+            } else {
+                writeReference(value, type);
+            }
+        }
+
+        private void writeReference(Object value, Class<?> type) throws Exception {
+            Integer reference = references.get(value);
+            if (reference != null) {
+                out.writeByte(REFERENCE);
+                out.writeVarLong(reference);
+                return;
+            }
+            references.put(value, references.size());
+            if (type == ArrayList.class) {
+                writeCollection(ARRAY_LIST, (Collection<?>) value);
+            } else if (type == LinkedList.class) {
+                writeCollection(LINKED_LIST, (Collection<?>) value);
+            } else if (type == HashSet.class) {
+                writeCollection(HASH_SET, (Collection<?>) value);
+            } else if (type == LinkedHashSet.class) {
+                writeCollection(LINKED_HASH_SET, (Collection<?>) value);
+            } else if (type == HashMap.class) {
+                writeMap(HASH_MAP, (Map<?, ?>) value);
+            } else if (type == LinkedHashMap.class) {
+                writeMap(LINKED_HASH_MAP, (Map<?, ?>) value);
+            } else {
+                BeanType beanType = beanType(type);
+                if (beanType != null) {
+                    out.writeByte(BEAN);
+                    writeClass(type);
+                    writeFields(beanType, value);
+                } else {
+                    out.writeByte(SERIALIZED);
+                    writeBytes(javaSerialize(value));
+                }
+            }
+        }
+
+        private void writeCollection(byte tag, Collection<?> collection) throws Exception {
+            out.writeByte(tag);
+            out.writeVarLong(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        }
+
+        private void writeMap(byte tag, Map<?, ?> map) throws Exception {
+            out.writeByte(tag);
+            out.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+
+        private void writeFields(BeanType beanType, Object bean) throws Exception {
+            for (Field field : beanType.fields) {
+                Class<?> fieldType = field.getType();
+                if (fieldType == int.class) {
+                    out.writeVarLong(field.getInt(bean));
+                } else if (fieldType == long.class) {
+                    out.writeVarLong(field.getLong(bean));
+                } else if (fieldType == boolean.class) {
+                    out.writeByte(field.getBoolean(bean) ? 1 : 0);
+                } else if (fieldType == double.class) {
+                    out.writeLong(Double.doubleToRawLongBits(field.getDouble(bean)));
+                } else if (fieldType == float.class) {
+                    out.writeVarLong(Float.floatToRawIntBits(field.getFloat(bean)));
+                } else if (fieldType == short.class) {
+                    out.writeVarLong(field.getShort(bean));
+                } else if (fieldType == byte.class) {
+                    out.writeByte(field.getByte(bean));
+                } else if (fieldType == char.class) {
+                    out.writeVarLong(field.getChar(bean));
+                } else {
+                    writeValue(field.get(bean));
+                }
+            }
+        }
+
+        private void writeClass(Class<?> type) {
+            Integer index = classes.get(type);
+            if (index == null) {
+                out.writeVarLong(0);
+                writeString(type.getName());
+                classes.put(type, classes.size() + 1);
+            } else {
+                out.writeVarLong(index);
+            }
+        }
+
+        private void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeBytes(byte[] bytes) {
+            out.writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private static byte[] javaSerialize(Object value) throws Exception {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(value);
+            }
+            return bos.toByteArray();
+        }
+    }
+
+    private static final class Reader {
+
+        private final Input in;
+        private final List<Object> references = new ArrayList<>();
+        private final List<Class<?>> classes = new ArrayList<>();
+
+        Reader(Input in) {
+            this.in = in;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Object readValue() throws Exception {
+            byte tag = in.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case REFERENCE:
+                    return references.get((int) in.readVarLong());
+                case STRING:
+                    return readString();
+                case INTEGER:
+                    return (int) in.readVarLong();
+                case LONG:
+                    return in.readVarLong();
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case DOUBLE:
+                    return Double.longBitsToDouble(in.readLong());
+                case BIG_DECIMAL:
+                    return new BigDecimal(new BigInteger(readBytes()), (int) in.readVarLong());
+                case SHORT:
+                    return (short) in.readVarLong();
+                case BYTE:
+                    return in.readByte();
+                case FLOAT:
+                    return Float.intBitsToFloat((int) in.readVarLong());
+                case CHARACTER:
+                    return (char) in.readVarLong();
+                case BIG_INTEGER:
+                    return new BigInteger(readBytes());
+                case DATE:
+                    return new Date(in.readVarLong());
+                case SQL_DATE:
+                    return new java.sql.Date(in.readVarLong());
+                case SQL_TIME:
+                    return new Time(in.readVarLong());
+                case TIMESTAMP:
+                    Timestamp timestamp = new Timestamp(in.readVarLong());
+                    timestamp.setNanos((int) in.readVarLong());
+                    return timestamp;
+                case BYTE_ARRAY:
+                    return readBytes();
+                case ENUM:
+                    Class enumType = readClass();
+                    return Enum.valueOf(enumType, readString());
+                case ARRAY_LIST:
+                    return readCollection(new ArrayList<>());
+                case LINKED_LIST:
+                    return readCollection(new LinkedList<>());
+                case HASH_SET:
+                    return readCollection(new HashSet<>());
+                case LINKED_HASH_SET:
+                    return readCollection(new LinkedHashSet<>());
+                case HASH_MAP:
+                    return readMap(new HashMap<>());
+                case LINKED_HASH_MAP:
+                    return readMap(new LinkedHashMap<>());
+                case BEAN:
+                    return readBean();
+                case SERIALIZED:
+                    Object value = new JavaCacheSerializer().deserialize(readBytes());
+                    references.add(value);
+                    return value;
+                default:
+                    throw new CacheException("Unknown tag " + tag + " in cache entry.");
+            }
+        }
+
+        private Collection<Object> readCollection(Collection<Object> collection) throws Exception {
+            references.add(collection);
+            int size = (int) in.readVarLong();
+            for (int i = 0; i < size; i++) {
+                collection.add(readValue());
+            }
+            return collection;
+        }
+
+        private Map<Object, Object> readMap(Map<Object, Object> map) throws Exception {
+            references.add(map);
+            int size = (int) in.readVarLong();
+            for (int i = 0; i < size; i++) {
+                Object key = readValue();
+                map.put(key, readValue());
+            }
+            return map;
+        }
+
+        private Object readBean() throws Exception {
+            Class<?> type = readClass();
+            BeanType beanType = beanType(type);
+            if (beanType == null) {
+                throw new CacheException("Cannot deserialize " + type + " because it is no longer a bean type.");
+            }
+            Object bean = beanType.newInstance();
+            references.add(bean);
+            for (Field field : beanType.fields) {
+                Class<?> fieldType = field.getType();
+                if (fieldType == int.class) {
+                    field.setInt(bean, (int) in.readVarLong());
+                } else if (fieldType == long.class) {
+                    field.setLong(bean, in.readVarLong());
+                } else if (fieldType == boolean.class) {
+                    field.setBoolean(bean, in.readByte() != 0);
+                } else if (fieldType == double.class) {
+                    field.setDouble(bean, Double.longBitsToDouble(in.readLong()));
+                } else if (fieldType == float.class) {
+                    field.setFloat(bean, Float.intBitsToFloat((int) in.readVarLong()));
+                } else if (fieldType == short.class) {
+                    field.setShort(bean, (short) in.readVarLong());
+                } else if (fieldType == byte.class) {
+                    field.setByte(bean, in.readByte());
+                } else if (fieldType == char.class) {
+                    field.setChar(bean, (char) in.readVarLong());
+                } else {
+                    field.set(bean, readValue());
+                }
+            }
+            return bean;
+        }
+
+        private Class<?> readClass() throws ClassNotFoundException {
+            int index = (int) in.readVarLong();
+            if (index == 0) {
+                Class<?> type = Resources.classForName(readString());
+                classes.add(type);
+                return type;
+            }
+            return classes.get(index - 1);
+        }
+
+        private String readString() {
+            int length = (int) in.readVarLong();
+            String value = new String(in.buffer, in.position, length, StandardCharsets.UTF_8);
+            in.position += length;
+            return value;
+        }
+
+        private byte[] readBytes() {
+            int length = (int) in.readVarLong();
+            byte[] bytes = Arrays.copyOfRange(in.buffer, in.position, in.position + length);
+            in.position += length;
+            return bytes;
+        }
+    }
+
+    private static final class Output {
+
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        /**
+         * Writes a zigzag encoded variable length integer, so that small negative values are short as well.
+         */
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[size++] = (byte) zigzag;
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + length));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+
+}
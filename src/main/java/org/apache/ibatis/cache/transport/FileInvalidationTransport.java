@@ -0,0 +1,379 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.transport;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.InvalidationMessage;
+import org.apache.ibatis.cache.InvalidationTransport;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Exchanges messages through a file that all nodes can reach, e.g. on a shared volume or, for local tests, in the
+ * temporary directory.
+ * <p>
+ * Messages are appended as length prefixed frames under an exclusive file lock. A frame only holds the strings of a
+ * message, so nothing but an {@link InvalidationMessage} can be read back from the file; Java serialization is not
+ * used. Each subscribed transport polls the file for frames written after it subscribed.
+ * <p>
+ * The file starts with a header that holds its generation, random for a new file. A message that would grow the file
+ * beyond {@code maxFileSize} truncates it and starts the next generation, whose header records the length the
+ * previous one reached. A subscriber that had not read the previous generation to its end, or finds the file replaced, clears all
+ * of its caches with {@link InvalidationMessage#clearAll(String)}, as it cannot tell which messages it missed.
+ * <p>
+ * Properties: {@code file} (required), {@code pollInterval} in milliseconds (default 100) and {@code maxFileSize} in
+ * bytes (default 1048576).
+ */
+public class FileInvalidationTransport implements InvalidationTransport {
+
+    private static final Log log = LogFactory.getLog(FileInvalidationTransport.class);
+
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * File locks are held by the whole JVM and throw when taken twice, so the transports of one JVM take this first.
+     */
+    private static final Object LOCK = new Object();
+
+    private final List<Consumer<InvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+    private File file;
+    private long pollInterval = 100;
+    private long maxFileSize = 1024 * 1024;
+    private Thread poller;
+    private long generation;
+    private long position;
+    private volatile boolean closed;
+
+    public FileInvalidationTransport() {
+    }
+
+    public FileInvalidationTransport(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String fileName = properties.getProperty("file");
+        if (fileName != null) {
+            file = new File(fileName);
+        }
+        String interval = properties.getProperty("pollInterval");
+        if (interval != null) {
+            pollInterval = Long.parseLong(interval);
+        }
+        String size = properties.getProperty("maxFileSize");
+        if (size != null) {
+            maxFileSize = Long.parseLong(size);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        byte[] bytes = write(message);
+        ByteBuffer frame = ByteBuffer.allocate(4 + bytes.length);
+        frame.putInt(bytes.length).put(bytes);
+        ((Buffer) frame).flip();
+        synchronized (LOCK) {
+            try (FileChannel channel = FileChannel.open(requireFile().toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                long size = channel.size();
+                ByteBuffer header = readHeader(channel);
+                if (header == null) {
+                    size = startGeneration(channel, newGeneration(), 0);
+                } else if (size > HEADER_SIZE && size + frame.remaining() > maxFileSize) {
+                    size = startGeneration(channel, nextGeneration(header.getLong(0)), size);
+                }
+                writeFully(channel, frame, size);
+            } catch (IOException e) {
+                throw new CacheException("Could not write cache invalidation to " + file + ". Cause: " + e, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<InvalidationMessage> listener) {
+        listeners.add(listener);
+        if (poller == null) {
+            startAtEnd();
+            poller = new Thread(this::pollUntilClosed, "mybatis-cache-invalidation-" + file.getName());
+            poller.setDaemon(true);
+            poller.start();
+        }
+    }
+
+    /**
+     * Stops polling the file.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (poller != null) {
+            poller.interrupt();
+        }
+    }
+
+    private File requireFile() {
+        if (file == null) {
+            throw new CacheException("The file of the FileInvalidationTransport has not been set.");
+        }
+        return file;
+    }
+
+    private void startAtEnd() {
+        // -1 if the file cannot be written, the messages of the first generation seen are all new then
+        generation = -1;
+        position = 0;
+        synchronized (LOCK) {
+            try (FileChannel channel = FileChannel.open(requireFile().toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                ByteBuffer header = readHeader(channel);
+                if (header == null) {
+                    generation = newGeneration();
+                    position = startGeneration(channel, generation, 0);
+                } else {
+                    generation = header.getLong(0);
+                    position = channel.size();
+                }
+            } catch (IOException e) {
+                log.warn("Could not start reading cache invalidations from " + file + ". Cause: " + e);
+            }
+        }
+    }
+
+    /**
+     * A new file starts with a random generation, so that subscribers can tell it from the file it replaced.
+     */
+    private static long newGeneration() {
+        return ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+    }
+
+    private static long nextGeneration(long generation) {
+        return (generation + 1) & Long.MAX_VALUE;
+    }
+
+    private static long startGeneration(FileChannel channel, long generation, long previousLength) throws IOException {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putLong(generation).putLong(previousLength);
+        ((Buffer) header).flip();
+        writeFully(channel, header, 0);
+        return HEADER_SIZE;
+    }
+
+    private void pollUntilClosed() {
+        while (!closed) {
+            try {
+                poll();
+            } catch (Exception e) {
+                log.warn("Could not read cache invalidations from " + file + ". Cause: " + e);
+            }
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void poll() throws IOException {
+        if (!file.exists()) {
+            // a file created again is recognized by its header
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel);
+            if (header == null) {
+                return;
+            }
+            long size = channel.size();
+            long fileGeneration = header.getLong(0);
+            long offset = position;
+            boolean missed = false;
+            if (fileGeneration != generation || size < position) {
+                missed = generation >= 0
+                        && (fileGeneration != nextGeneration(generation) || position != header.getLong(8));
+                offset = HEADER_SIZE;
+            }
+            List<InvalidationMessage> messages = new ArrayList<>();
+            IOException failure = null;
+            try {
+                offset = readFrames(channel, offset, size, messages);
+            } catch (IOException e) {
+                failure = e;
+            }
+            ByteBuffer current = readHeader(channel);
+            if (current == null || current.getLong(0) != fileGeneration) {
+                // truncated by a writer meanwhile, the next poll reads the new generation
+                return;
+            }
+            if (failure != null) {
+                log.warn("Skipping corrupt cache invalidations in " + file + ". Cause: " + failure);
+                offset = size;
+                missed = true;
+            }
+            generation = fileGeneration;
+            position = offset;
+            if (missed) {
+                dispatch(InvalidationMessage.clearAll(file.getName()));
+            }
+            for (InvalidationMessage message : messages) {
+                dispatch(message);
+            }
+        }
+    }
+
+    private static long readFrames(FileChannel channel, long offset, long size, List<InvalidationMessage> messages)
+            throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        while (offset + 4 <= size) {
+            ((Buffer) length).clear();
+            readFully(channel, length, offset);
+            int frameLength = length.getInt(0);
+            if (frameLength < 0) {
+                throw new IOException("Invalid frame length " + frameLength + " at " + offset);
+            }
+            if (offset + 4 + frameLength > size) {
+                // the frame is still being written
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(frameLength);
+            readFully(channel, body, offset + 4);
+            offset += 4 + frameLength;
+            messages.add(read(body.array()));
+        }
+        return offset;
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try {
+            readFully(channel, header, 0);
+        } catch (IOException e) {
+            // truncated meanwhile
+            return null;
+        }
+        return header;
+    }
+
+    private static byte[] write(InvalidationMessage message) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(message.getOrigin());
+            out.writeUTF(message.getCacheId());
+            if (message.getType() == InvalidationMessage.Type.INVALIDATE) {
+                out.writeInt(message.getTags().size());
+                for (String tag : message.getTags()) {
+                    out.writeUTF(tag);
+                }
+            } else {
+                out.writeInt(-1);
+            }
+        } catch (IOException e) {
+            throw new CacheException("Could not write cache invalidation " + message + ". Cause: " + e, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static InvalidationMessage read(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            String origin = in.readUTF();
+            String cacheId = in.readUTF();
+            int tagCount = in.readInt();
+            if (tagCount < 0) {
+                return InvalidationMessage.clear(origin, cacheId);
+            }
+            Set<String> tags = new HashSet<>();
+            for (int i = 0; i < tagCount; i++) {
+                tags.add(in.readUTF());
+            }
+            return InvalidationMessage.invalidate(origin, cacheId, tags);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+    }
+
+    private void dispatch(InvalidationMessage message) {
+        for (Consumer<InvalidationMessage> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply cache invalidation " + message + ". Cause: " + e);
+            }
+        }
+    }
+
+}
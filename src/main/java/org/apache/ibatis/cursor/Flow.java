@@ -0,0 +1,81 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+/**
+ * Interfaces for demand driven streaming of query results, with the same contract as the
+ * {@code java.util.concurrent.Flow} interfaces of Java 9 and Reactive Streams. A {@link Subscriber} receives items
+ * only after it has requested them, so a slow consumer controls how fast rows are read from the database.
+ *
+ * @see org.apache.ibatis.session.SqlSession#selectPublisher(String, Object)
+ */
+public final class Flow {
+
+    private Flow() {
+        // Prevent Instantiation of Static Class
+    }
+
+    /**
+     * A producer of items received by {@link Subscriber}s.
+     *
+     * @param <T> the item type
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+
+        /**
+         * Adds the given subscriber. {@link Subscriber#onSubscribe(Subscription)} is always called first.
+         *
+         * @param subscriber the subscriber
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items.
+     *
+     * @param <T> the item type
+     */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * Link between a {@link Publisher} and a {@link Subscriber}.
+     */
+    public interface Subscription {
+
+        /**
+         * Adds the given number of items to the demand of the subscriber.
+         *
+         * @param n the number of items, a value &lt;= 0 signals an error to the subscriber
+         */
+        void request(long n);
+
+        /**
+         * Stops sending items. Resources held by the publisher for this subscription are released.
+         */
+        void cancel();
+    }
+
+}
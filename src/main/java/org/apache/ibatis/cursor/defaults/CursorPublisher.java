@@ -0,0 +1,181 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.Flow;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the items of a {@link Cursor} as requested by the subscriber.
+ * <p>
+ * Each subscription opens its own cursor when items are requested for the first time. Items are delivered in the
+ * thread that calls {@link Flow.Subscription#request(long)}; rows are read from the result set only while there is
+ * outstanding demand, and the JDBC fetch size follows that demand. The cursor is closed on completion, on error and
+ * on cancellation. As the cursor belongs to a {@code SqlSession}, the session must stay open and must not be used
+ * by another thread until the subscription ends.
+ *
+ * @param <T> the item type
+ */
+public class CursorPublisher<T> implements Flow.Publisher<T> {
+
+    /**
+     * Upper bound of the fetch size derived from the demand of a subscriber.
+     */
+    static final int MAX_FETCH_SIZE = 1000;
+
+    private final Supplier<Cursor<T>> cursorSupplier;
+
+    public CursorPublisher(Supplier<Cursor<T>> cursorSupplier) {
+        this.cursorSupplier = cursorSupplier;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new CursorSubscription(subscriber));
+    }
+
+    private final class CursorSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException invalidRequest;
+
+        // only accessed by the thread that drains
+        private Cursor<T> cursor;
+        private Iterator<T> iterator;
+        private int fetchSize;
+        private boolean done;
+
+        CursorSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Subscription request must be positive, but was " + n);
+            } else {
+                requested.accumulateAndGet(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        /**
+         * Serializes the emission: a thread that finds another one draining leaves the work to it.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                emit();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (invalidRequest != null) {
+                finish();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            long demand = requested.get();
+            if (demand == 0) {
+                return;
+            }
+            try {
+                if (iterator == null) {
+                    cursor = cursorSupplier.get();
+                    iterator = cursor.iterator();
+                }
+                adjustFetchSize(demand);
+                long emitted = 0;
+                while (emitted != demand) {
+                    if (cancelled) {
+                        finish();
+                        return;
+                    }
+                    if (!iterator.hasNext()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(iterator.next());
+                    emitted++;
+                    if (emitted == demand && demand != Long.MAX_VALUE) {
+                        // pick up demand added by the subscriber in the meantime
+                        demand = requested.addAndGet(-emitted);
+                        emitted = 0;
+                        adjustFetchSize(demand);
+                    }
+                }
+            } catch (RuntimeException e) {
+                finish();
+                subscriber.onError(e);
+            }
+        }
+
+        private void adjustFetchSize(long demand) {
+            if (demand == 0 || demand == Long.MAX_VALUE || !(cursor instanceof DefaultCursor)) {
+                return;
+            }
+            int rows = (int) Math.min(demand, MAX_FETCH_SIZE);
+            if (rows != fetchSize) {
+                fetchSize = rows;
+                ((DefaultCursor<T>) cursor).setFetchSize(rows);
+            }
+        }
+
+        private void finish() {
+            done = true;
+            if (cursor != null) {
+                try {
+                    cursor.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+}
@@ -101,6 +101,22 @@ public class DefaultCursor<T> implements Cursor<T> {
         }
     }
 
+    /**
+     * Gives the JDBC driver a hint as to the number of rows that should be fetched when more rows are needed.
+     *
+     * @param rows the number of rows
+     */
+    public void setFetchSize(int rows) {
+        ResultSet rs = rsw.getResultSet();
+        try {
+            if (rs != null && !rs.isClosed()) {
+                rs.setFetchSize(rows);
+            }
+        } catch (SQLException e) {
+            // ignore, it is only a hint
+        }
+    }
+
     protected T fetchNextUsingRowBound() {
         T result = fetchNextObjectFromDatabase();
         while (result != null && indexWithRowBound < rowBounds.getOffset()) {
@@ -0,0 +1,252 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool state of a {@link ConcurrentPooledDataSource}.
+ * <p>
+ * Exposes the same statistics as {@link PoolState}, but keeps connections in lock-free collections and
+ * accumulates counters with {@link LongAdder}s so that reading or updating them never blocks a borrowing thread.
+ */
+class ConcurrentPoolState extends PoolState {
+
+    private final Deque<IdleConnection> idleQueue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final ConcurrentMap<ActiveKey, PooledConnection> activeMap = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder requestTime = new LongAdder();
+    private final LongAdder checkoutTime = new LongAdder();
+    private final LongAdder claimedOverdue = new LongAdder();
+    private final LongAdder checkoutTimeOfOverdue = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final LongAdder hadToWait = new LongAdder();
+    private final LongAdder badConnections = new LongAdder();
+
+    public ConcurrentPoolState(ConcurrentPooledDataSource dataSource) {
+        super(dataSource);
+    }
+
+    void addActive(PooledConnection conn) {
+        activeMap.put(new ActiveKey(conn), conn);
+    }
+
+    /**
+     * Removes the given connection (by identity) from the active connections.
+     *
+     * @param conn the connection to remove
+     * @return true if this call removed it, false if it was not active (anymore)
+     */
+    boolean removeActive(PooledConnection conn) {
+        return activeMap.remove(new ActiveKey(conn)) != null;
+    }
+
+    Collection<PooledConnection> activeConnections() {
+        return activeMap.values();
+    }
+
+    PooledConnection oldestActive() {
+        PooledConnection oldest = null;
+        for (PooledConnection conn : activeMap.values()) {
+            if (oldest == null || conn.getCheckoutTimestamp() < oldest.getCheckoutTimestamp()) {
+                oldest = conn;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Adds a connection to the idle connections, after {@link #reserveIdleSlot(int) reserving a slot} for it.
+     *
+     * @return the entry of the connection, which can be {@link #takeIdle(IdleConnection) taken} directly
+     */
+    IdleConnection offerIdle(PooledConnection conn) {
+        IdleConnection idle = new IdleConnection(conn);
+        idleQueue.offerFirst(idle);
+        return idle;
+    }
+
+    /**
+     * @return the connection of the entry if it is still idle, or null if it has been taken meanwhile
+     */
+    PooledConnection takeIdle(IdleConnection idle) {
+        if (!idle.take()) {
+            return null;
+        }
+        idleCount.decrementAndGet();
+        // the entry has been offered first, so it is usually found at once
+        idleQueue.removeFirstOccurrence(idle);
+        return idle.conn;
+    }
+
+    /**
+     * @return the most recently returned idle connection, or null if there is none
+     */
+    PooledConnection pollIdle() {
+        IdleConnection idle;
+        while ((idle = idleQueue.pollFirst()) != null) {
+            if (idle.take()) {
+                idleCount.decrementAndGet();
+                return idle.conn;
+            }
+        }
+        return null;
+    }
+
+    boolean reserveIdleSlot(int maximumIdleConnections) {
+        for (; ; ) {
+            int current = idleCount.get();
+            if (current >= maximumIdleConnections) {
+                return false;
+            }
+            if (idleCount.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void recordRequest(long requestMillis) {
+        requests.increment();
+        requestTime.add(requestMillis);
+    }
+
+    void recordCheckoutTime(long checkoutMillis) {
+        checkoutTime.add(checkoutMillis);
+    }
+
+    void recordOverdueClaim(long checkoutMillis) {
+        claimedOverdue.increment();
+        checkoutTimeOfOverdue.add(checkoutMillis);
+        checkoutTime.add(checkoutMillis);
+    }
+
+    void recordHadToWait() {
+        hadToWait.increment();
+    }
+
+    void recordWaitTime(long waitMillis) {
+        waitTime.add(waitMillis);
+    }
+
+    void recordBadConnection() {
+        badConnections.increment();
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    @Override
+    public long getAverageRequestTime() {
+        long count = requests.sum();
+        return count == 0 ? 0 : requestTime.sum() / count;
+    }
+
+    @Override
+    public long getAverageWaitTime() {
+        long count = hadToWait.sum();
+        return count == 0 ? 0 : waitTime.sum() / count;
+    }
+
+    @Override
+    public long getHadToWaitCount() {
+        return hadToWait.sum();
+    }
+
+    @Override
+    public long getBadConnectionCount() {
+        return badConnections.sum();
+    }
+
+    @Override
+    public long getClaimedOverdueConnectionCount() {
+        return claimedOverdue.sum();
+    }
+
+    @Override
+    public long getAverageOverdueCheckoutTime() {
+        long count = claimedOverdue.sum();
+        return count == 0 ? 0 : checkoutTimeOfOverdue.sum() / count;
+    }
+
+    @Override
+    public long getAverageCheckoutTime() {
+        long count = requests.sum();
+        return count == 0 ? 0 : checkoutTime.sum() / count;
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+        return idleCount.get();
+    }
+
+    @Override
+    public int getActiveConnectionCount() {
+        return activeMap.size();
+    }
+
+    /**
+     * An idle connection, taken at most once, either from the head of the queue or directly by the thread that has
+     * returned it. Once taken, e.g. by {@link ConcurrentPooledDataSource#forceCloseAll()}, the entry is never handed out
+     * again, even if a thread still refers to it.
+     */
+    static final class IdleConnection {
+
+        private final PooledConnection conn;
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        IdleConnection(PooledConnection conn) {
+            this.conn = conn;
+        }
+
+        boolean take() {
+            return !taken.get() && taken.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * {@link PooledConnection#equals(Object)} compares the real connections, so a proxy that has been claimed as
+     * overdue would be equal to its replacement. Active connections are therefore tracked by identity.
+     */
+    static final class ActiveKey {
+
+        private final PooledConnection conn;
+
+        ActiveKey(PooledConnection conn) {
+            this.conn = conn;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(conn);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ActiveKey && ((ActiveKey) obj).conn == conn;
+        }
+    }
+
+}
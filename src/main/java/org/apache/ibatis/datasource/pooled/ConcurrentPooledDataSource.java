@@ -0,0 +1,344 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A connection pool with the same configuration and statistics as {@link PooledDataSource}, but without a global
+ * monitor on the borrow and return paths.
+ * <p>
+ * Idle connections are kept in a lock-free deque and each thread first tries the connection it returned last.
+ * The number of active connections is bounded by a fair {@link Semaphore}, so threads that have to wait are
+ * served in arrival order.
+ */
+public class ConcurrentPooledDataSource extends PooledDataSource {
+
+    private static final Log log = LogFactory.getLog(ConcurrentPooledDataSource.class);
+
+    private final ConcurrentPoolState state = new ConcurrentPoolState(this);
+
+    private final ThreadLocal<ConcurrentPoolState.IdleConnection> lastReturnedConnection = new ThreadLocal<>();
+
+    private final ActivePermits activePermits = new ActivePermits(poolMaximumActiveConnections);
+
+    private int activePermitCapacity = poolMaximumActiveConnections;
+
+    public ConcurrentPooledDataSource() {
+        super();
+    }
+
+    public ConcurrentPooledDataSource(UnpooledDataSource dataSource) {
+        super(dataSource);
+    }
+
+    public ConcurrentPooledDataSource(String driver, String url, String username, String password) {
+        super(driver, url, username, password);
+    }
+
+    public ConcurrentPooledDataSource(String driver, String url, Properties driverProperties) {
+        super(driver, url, driverProperties);
+    }
+
+    public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, String username, String password) {
+        super(driverClassLoader, driver, url, username, password);
+    }
+
+    public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, Properties driverProperties) {
+        super(driverClassLoader, driver, url, driverProperties);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return popConnection(getUsername(), getPassword()).getProxyConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return popConnection(username, password).getProxyConnection();
+    }
+
+    @Override
+    public PoolState getPoolState() {
+        return state;
+    }
+
+    /*
+     * Closes all active and idle connections in the pool
+     */
+    @Override
+    public void forceCloseAll() {
+        // resets the expected connection type, the superclass does not hold any connection of this pool
+        super.forceCloseAll();
+        synchronized (state) {
+            if (poolMaximumActiveConnections > activePermitCapacity) {
+                activePermits.release(poolMaximumActiveConnections - activePermitCapacity);
+            } else if (poolMaximumActiveConnections < activePermitCapacity) {
+                activePermits.reducePermits(activePermitCapacity - poolMaximumActiveConnections);
+            }
+            activePermitCapacity = poolMaximumActiveConnections;
+            for (PooledConnection conn : state.activeConnections()) {
+                if (state.removeActive(conn)) {
+                    activePermits.release();
+                    closeQuietly(conn);
+                }
+            }
+            PooledConnection conn;
+            while ((conn = state.pollIdle()) != null) {
+                closeQuietly(conn);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("ConcurrentPooledDataSource forcefully closed/removed all connections.");
+        }
+    }
+
+    @Override
+    protected void pushConnection(PooledConnection conn) throws SQLException {
+        if (!state.removeActive(conn)) {
+            // already claimed as overdue or closed by forceCloseAll()
+            if (log.isDebugEnabled()) {
+                log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+            }
+            state.recordBadConnection();
+            return;
+        }
+        try {
+            if (conn.isValid()) {
+                state.recordCheckoutTime(conn.getCheckoutTime());
+                if (!conn.getRealConnection().getAutoCommit()) {
+                    conn.getRealConnection().rollback();
+                }
+                if (isExpectedConnectionType(conn) && state.reserveIdleSlot(poolMaximumIdleConnections)) {
+                    PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+                    newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
+                    newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+                    newConn.setStatementCache(conn.getStatementCache());
+                    conn.invalidate();
+                    lastReturnedConnection.set(state.offerIdle(newConn));
+                    if (log.isDebugEnabled()) {
+                        log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
+                    }
+                } else {
+                    conn.getRealConnection().close();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Closed connection " + conn.getRealHashCode() + ".");
+                    }
+                    conn.invalidate();
+                }
+            } else {
+                if (log.isDebugEnabled()) {
+                    log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+                }
+                state.recordBadConnection();
+            }
+        } finally {
+            activePermits.release();
+        }
+    }
+
+    private PooledConnection popConnection(String username, String password) throws SQLException {
+        boolean countedWait = false;
+        long t = System.currentTimeMillis();
+        int localBadConnectionCount = 0;
+
+        while (true) {
+            PooledConnection conn;
+            boolean acquired = tryAcquirePermit(0);
+            if (!acquired) {
+                if (!countedWait) {
+                    state.recordHadToWait();
+                    countedWait = true;
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+                }
+                long wt = System.currentTimeMillis();
+                acquired = tryAcquirePermit(poolTimeToWait);
+                long waited = System.currentTimeMillis() - wt;
+                state.recordWaitTime(waited);
+                recordWaitTime(waited);
+            }
+            if (acquired) {
+                conn = pollIdleConnection();
+                if (conn != null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+                    }
+                } else {
+                    conn = createConnection();
+                }
+            } else {
+                // the claimed connection inherits the permit of its previous owner
+                conn = claimOverdueConnection();
+            }
+            if (conn == null) {
+                continue;
+            }
+            // ping to server and check the connection is valid or not
+            if (conn.isValid() && rollbackForCheckout(conn)) {
+                conn.setConnectionTypeCode(getConnectionTypeCode(username, password));
+                conn.setCheckoutTimestamp(System.currentTimeMillis());
+                conn.setLastUsedTimestamp(System.currentTimeMillis());
+                state.addActive(conn);
+                state.recordRequest(System.currentTimeMillis() - t);
+                return conn;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+            }
+            activePermits.release();
+            state.recordBadConnection();
+            localBadConnectionCount++;
+            if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+                }
+                throw new SQLException("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+            }
+        }
+    }
+
+    /**
+     * @return false if the connection could not be rolled back, it is closed and invalidated then
+     */
+    private boolean rollbackForCheckout(PooledConnection conn) {
+        try {
+            if (!conn.getRealConnection().getAutoCommit()) {
+                conn.getRealConnection().rollback();
+            }
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not roll back connection " + conn.getRealHashCode() + ". Cause: " + e);
+            }
+            try {
+                conn.getRealConnection().close();
+            } catch (SQLException | RuntimeException ignore) {
+                // ignore
+            }
+            conn.invalidate();
+            return false;
+        }
+    }
+
+    private boolean tryAcquirePermit(long timeout) throws SQLException {
+        try {
+            // the timed variant honours the fairness setting, even with a zero timeout
+            return activePermits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("ConcurrentPooledDataSource: Interrupted while waiting for a connection.", e);
+        }
+    }
+
+    private PooledConnection pollIdleConnection() {
+        ConcurrentPoolState.IdleConnection lastReturned = lastReturnedConnection.get();
+        if (lastReturned != null) {
+            lastReturnedConnection.remove();
+            // null if another thread or forceCloseAll() has taken it meanwhile
+            PooledConnection conn = state.takeIdle(lastReturned);
+            if (conn != null) {
+                return conn;
+            }
+        }
+        return state.pollIdle();
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection realConnection;
+        try {
+            realConnection = openConnection();
+        } catch (SQLException | RuntimeException e) {
+            activePermits.release();
+            throw e;
+        }
+        PooledConnection conn = new PooledConnection(realConnection, this);
+        if (log.isDebugEnabled()) {
+            log.debug("Created connection " + conn.getRealHashCode() + ".");
+        }
+        return conn;
+    }
+
+    private PooledConnection claimOverdueConnection() {
+        PooledConnection oldestActiveConnection = state.oldestActive();
+        if (oldestActiveConnection == null) {
+            return null;
+        }
+        long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
+        if (longestCheckoutTime <= poolMaximumCheckoutTime || !state.removeActive(oldestActiveConnection)) {
+            return null;
+        }
+        state.recordOverdueClaim(longestCheckoutTime);
+        try {
+            if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+                oldestActiveConnection.getRealConnection().rollback();
+            }
+        } catch (SQLException e) {
+            // same as PooledDataSource: the ping in popConnection() discards it if it is really broken
+            log.debug("Bad connection. Could not roll back");
+        }
+        PooledConnection conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+        conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
+        conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+        conn.setStatementCache(oldestActiveConnection.getStatementCache());
+        oldestActiveConnection.invalidate();
+        if (log.isDebugEnabled()) {
+            log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+        }
+        return conn;
+    }
+
+    private void closeQuietly(PooledConnection conn) {
+        try {
+            conn.invalidate();
+
+            Connection realConn = conn.getRealConnection();
+            if (!realConn.getAutoCommit()) {
+                realConn.rollback();
+            }
+            realConn.close();
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Fair semaphore whose capacity follows {@link #setPoolMaximumActiveConnections(int)}.
+     */
+    private static class ActivePermits extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        ActivePermits(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+}
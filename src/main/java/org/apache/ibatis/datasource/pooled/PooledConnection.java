@@ -21,6 +21,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 /**
@@ -29,6 +30,7 @@ import java.sql.SQLException;
 class PooledConnection implements InvocationHandler {
 
     private static final String CLOSE = "close";
+    private static final String PREPARE_STATEMENT = "prepareStatement";
     private static final Class<?>[] IFACES = new Class<?>[]{Connection.class};
 
     private final int hashCode;
@@ -40,6 +42,7 @@ class PooledConnection implements InvocationHandler {
     private long lastUsedTimestamp;
     private int connectionTypeCode;
     private boolean valid;
+    private PreparedStatementCache statementCache;
 
     /**
      * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in
@@ -199,6 +202,24 @@ class PooledConnection implements InvocationHandler {
         return System.currentTimeMillis() - checkoutTimestamp;
     }
 
+    /**
+     * Getter for the idle prepared statements of the real connection
+     *
+     * @return the statement cache, or null if no statement has been cached yet
+     */
+    PreparedStatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Setter for the idle prepared statements of the real connection, used when it is wrapped again
+     *
+     * @param statementCache - the statement cache of the previous wrapper
+     */
+    void setStatementCache(PreparedStatementCache statementCache) {
+        this.statementCache = statementCache;
+    }
+
     @Override
     public int hashCode() {
         return hashCode;
@@ -242,6 +263,9 @@ class PooledConnection implements InvocationHandler {
                 // throw an SQLException instead of a Runtime
                 checkConnection();
             }
+            if (PREPARE_STATEMENT.equals(methodName) && dataSource.getPoolPreparedStatementCacheSize() > 0) {
+                return prepareStatement(method, args);
+            }
             return method.invoke(realConnection, args);
         } catch (Throwable t) {
             throw ExceptionUtil.unwrapThrowable(t);
@@ -249,6 +273,18 @@ class PooledConnection implements InvocationHandler {
 
     }
 
+    private PreparedStatement prepareStatement(Method method, Object[] args) throws Exception {
+        if (statementCache == null) {
+            statementCache = new PreparedStatementCache(dataSource.getPoolPreparedStatementCacheSize());
+        }
+        PreparedStatementCache.Key key = new PreparedStatementCache.Key(args);
+        PreparedStatement statement = statementCache.take(key);
+        if (statement == null || statement.isClosed()) {
+            statement = (PreparedStatement) method.invoke(realConnection, args);
+        }
+        return new PooledPreparedStatement(statement, key, statementCache, this).getProxyStatement();
+    }
+
     private void checkConnection() throws SQLException {
         if (!valid) {
             throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
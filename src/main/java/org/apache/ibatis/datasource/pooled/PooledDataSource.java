@@ -18,6 +18,9 @@ package org.apache.ibatis.datasource.pooled;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.metrics.Metric;
+import org.apache.ibatis.metrics.MetricsCollector;
+import org.apache.ibatis.metrics.NoOpMetricsCollector;
 
 import javax.sql.DataSource;
 import java.io.PrintWriter;
@@ -28,6 +31,7 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -52,8 +56,10 @@ public class PooledDataSource implements DataSource {
     protected String poolPingQuery = "NO PING QUERY SET";
     protected boolean poolPingEnabled;
     protected int poolPingConnectionsNotUsedFor;
+    protected int poolPreparedStatementCacheSize;
+    protected MetricsCollector metricsCollector = NoOpMetricsCollector.INSTANCE;
 
-    private int expectedConnectionTypeCode;
+    private volatile int expectedConnectionTypeCode;
 
     public PooledDataSource() {
         dataSource = new UnpooledDataSource();
@@ -267,6 +273,19 @@ public class PooledDataSource implements DataSource {
         forceCloseAll();
     }
 
+    public MetricsCollector getMetricsCollector() {
+        return metricsCollector;
+    }
+
+    /**
+     * The collector that receives the time threads wait for a connection
+     *
+     * @param metricsCollector The collector, or null to disable
+     */
+    public void setMetricsCollector(MetricsCollector metricsCollector) {
+        this.metricsCollector = metricsCollector == null ? NoOpMetricsCollector.INSTANCE : metricsCollector;
+    }
+
     public String getPoolPingQuery() {
         return poolPingQuery;
     }
@@ -310,6 +329,21 @@ public class PooledDataSource implements DataSource {
         forceCloseAll();
     }
 
+    public int getPoolPreparedStatementCacheSize() {
+        return poolPreparedStatementCacheSize;
+    }
+
+    /**
+     * The number of idle prepared statements kept per connection, so that
+     * sessions that borrow the connection later do not prepare them again.
+     *
+     * @param poolPreparedStatementCacheSize the number of statements, 0 disables the cache
+     */
+    public void setPoolPreparedStatementCacheSize(int poolPreparedStatementCacheSize) {
+        this.poolPreparedStatementCacheSize = poolPreparedStatementCacheSize;
+        forceCloseAll();
+    }
+
     /*
      * Closes all active and idle connections in the pool
      */
@@ -358,12 +392,34 @@ public class PooledDataSource implements DataSource {
         return ("" + url + username + password).hashCode();
     }
 
+    /**
+     * @return the type code of connections opened with the given credentials
+     */
+    protected int getConnectionTypeCode(String username, String password) {
+        return assembleConnectionTypeCode(dataSource.getUrl(), username, password);
+    }
+
+    /**
+     * @return true if the connection has been opened with the credentials the pool has been configured with when it
+     * was last emptied, only such connections may become idle
+     */
+    protected boolean isExpectedConnectionType(PooledConnection conn) {
+        return conn.getConnectionTypeCode() == expectedConnectionTypeCode;
+    }
+
+    /**
+     * Opens a connection to the database that is not pooled yet.
+     */
+    protected Connection openConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
     protected void pushConnection(PooledConnection conn) throws SQLException {
 
         synchronized (state) {
             state.activeConnections.remove(conn);
             if (conn.isValid()) {
-                if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+                if (state.idleConnections.size() < poolMaximumIdleConnections && isExpectedConnectionType(conn)) {
                     state.accumulatedCheckoutTime += conn.getCheckoutTime();
                     if (!conn.getRealConnection().getAutoCommit()) {
                         conn.getRealConnection().rollback();
@@ -372,6 +428,7 @@ public class PooledDataSource implements DataSource {
                     state.idleConnections.add(newConn);
                     newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
                     newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+                    newConn.setStatementCache(conn.getStatementCache());
                     conn.invalidate();
                     if (log.isDebugEnabled()) {
                         log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
@@ -415,7 +472,7 @@ public class PooledDataSource implements DataSource {
                     // Pool does not have available connection
                     if (state.activeConnections.size() < poolMaximumActiveConnections) {
                         // Can create new connection
-                        conn = new PooledConnection(dataSource.getConnection(), this);
+                        conn = new PooledConnection(openConnection(), this);
                         if (log.isDebugEnabled()) {
                             log.debug("Created connection " + conn.getRealHashCode() + ".");
                         }
@@ -447,6 +504,7 @@ public class PooledDataSource implements DataSource {
                             conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
                             conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
                             conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+                            conn.setStatementCache(oldestActiveConnection.getStatementCache());
                             oldestActiveConnection.invalidate();
                             if (log.isDebugEnabled()) {
                                 log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
@@ -463,7 +521,9 @@ public class PooledDataSource implements DataSource {
                                 }
                                 long wt = System.currentTimeMillis();
                                 state.wait(poolTimeToWait);
-                                state.accumulatedWaitTime += System.currentTimeMillis() - wt;
+                                long waited = System.currentTimeMillis() - wt;
+                                state.accumulatedWaitTime += waited;
+                                recordWaitTime(waited);
                             } catch (InterruptedException e) {
                                 break;
                             }
@@ -476,7 +536,7 @@ public class PooledDataSource implements DataSource {
                         if (!conn.getRealConnection().getAutoCommit()) {
                             conn.getRealConnection().rollback();
                         }
-                        conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+                        conn.setConnectionTypeCode(getConnectionTypeCode(username, password));
                         conn.setCheckoutTimestamp(System.currentTimeMillis());
                         conn.setLastUsedTimestamp(System.currentTimeMillis());
                         state.activeConnections.add(conn);
@@ -511,6 +571,12 @@ public class PooledDataSource implements DataSource {
         return conn;
     }
 
+    protected void recordWaitTime(long millis) {
+        if (metricsCollector.isEnabled()) {
+            metricsCollector.recordTime(Metric.CONNECTION_WAIT, null, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
     /**
      * Method to check to see if a connection is still usable
      *
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A prepared statement borrowed from a {@link PreparedStatementCache}.
+ * <p>
+ * Closing it clears its parameters and batch, restores the fetch size, fetch direction, row and field limits and
+ * query timeout it had when it was borrowed, and returns it to the cache. Statements whose other properties have been
+ * changed are closed for real.
+ */
+class PooledPreparedStatement implements InvocationHandler {
+
+    private static final String CLOSE = "close";
+    private static final Class<?>[] IFACES = new Class<?>[]{PreparedStatement.class};
+    private static final Map<String, Method> RESETTABLE_PROPERTY_GETTERS = new HashMap<>();
+
+    static {
+        try {
+            RESETTABLE_PROPERTY_GETTERS.put("setFetchSize", Statement.class.getMethod("getFetchSize"));
+            RESETTABLE_PROPERTY_GETTERS.put("setFetchDirection", Statement.class.getMethod("getFetchDirection"));
+            RESETTABLE_PROPERTY_GETTERS.put("setMaxRows", Statement.class.getMethod("getMaxRows"));
+            RESETTABLE_PROPERTY_GETTERS.put("setLargeMaxRows", Statement.class.getMethod("getLargeMaxRows"));
+            RESETTABLE_PROPERTY_GETTERS.put("setMaxFieldSize", Statement.class.getMethod("getMaxFieldSize"));
+            RESETTABLE_PROPERTY_GETTERS.put("setQueryTimeout", Statement.class.getMethod("getQueryTimeout"));
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final PreparedStatement realStatement;
+    private final PreparedStatement proxyStatement;
+    private final PreparedStatementCache.Key key;
+    private final PreparedStatementCache cache;
+    private final PooledConnection connection;
+    private Map<Method, Object> changedProperties;
+    private boolean batched;
+    private boolean reusable = true;
+    private boolean closed;
+
+    PooledPreparedStatement(PreparedStatement realStatement, PreparedStatementCache.Key key, PreparedStatementCache cache, PooledConnection connection) {
+        this.realStatement = realStatement;
+        this.key = key;
+        this.cache = cache;
+        this.connection = connection;
+        this.proxyStatement = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES, this);
+    }
+
+    PreparedStatement getProxyStatement() {
+        return proxyStatement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        if (CLOSE.equals(methodName)) {
+            close();
+            return null;
+        }
+        try {
+            if (Object.class.equals(method.getDeclaringClass())) {
+                return method.invoke(realStatement, args);
+            }
+            if ("isClosed".equals(methodName)) {
+                return closed || realStatement.isClosed();
+            }
+            if (closed) {
+                throw new SQLException("Error accessing PooledPreparedStatement. Statement is closed.");
+            }
+            if ("getConnection".equals(methodName)) {
+                return connection.getProxyConnection();
+            }
+            if (args != null && args.length == 1 && methodName.startsWith("set")) {
+                rememberProperty(method);
+            } else if ("addBatch".equals(methodName)) {
+                batched = true;
+            } else if ("closeOnCompletion".equals(methodName)) {
+                reusable = false;
+            }
+            return method.invoke(realStatement, args);
+        } catch (Throwable t) {
+            throw ExceptionUtil.unwrapThrowable(t);
+        }
+    }
+
+    private void rememberProperty(Method setter) throws Exception {
+        Method getter = RESETTABLE_PROPERTY_GETTERS.get(setter.getName());
+        if (getter == null) {
+            reusable = false;
+            return;
+        }
+        if (changedProperties == null) {
+            changedProperties = new IdentityHashMap<>();
+        }
+        if (!changedProperties.containsKey(setter)) {
+            changedProperties.put(setter, getter.invoke(realStatement));
+        }
+    }
+
+    private void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (reusable && !realStatement.isClosed()) {
+            try {
+                if (changedProperties != null) {
+                    for (Map.Entry<Method, Object> property : changedProperties.entrySet()) {
+                        property.getKey().invoke(realStatement, property.getValue());
+                    }
+                }
+                if (batched) {
+                    realStatement.clearBatch();
+                }
+                realStatement.clearParameters();
+                realStatement.clearWarnings();
+                if (cache.offer(key, realStatement)) {
+                    return;
+                }
+            } catch (Exception e) {
+                // not reusable, close it below
+            }
+        }
+        realStatement.close();
+    }
+
+}
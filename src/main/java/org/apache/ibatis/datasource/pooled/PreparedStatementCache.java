@@ -0,0 +1,115 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The idle prepared statements of one physical connection, evicting the least recently used one when it is full.
+ * <p>
+ * It is handed from one {@link PooledConnection} to the next that wraps the same physical connection, so statements
+ * survive across the sessions that borrow it.
+ */
+class PreparedStatementCache {
+
+    private final Map<Key, PreparedStatement> idleStatements;
+
+    PreparedStatementCache(int maxSize) {
+        this.idleStatements = new LinkedHashMap<Key, PreparedStatement>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Removes an idle statement prepared with the given arguments.
+     *
+     * @return the statement, or null if there is none
+     */
+    synchronized PreparedStatement take(Key key) {
+        return idleStatements.remove(key);
+    }
+
+    /**
+     * Keeps a statement that is no longer used.
+     *
+     * @return false if an equal statement is already idle, the caller then has to close this one
+     */
+    synchronized boolean offer(Key key, PreparedStatement statement) {
+        if (idleStatements.containsKey(key)) {
+            return false;
+        }
+        idleStatements.put(key, statement);
+        return true;
+    }
+
+    synchronized int size() {
+        return idleStatements.size();
+    }
+
+    synchronized void clear() {
+        for (PreparedStatement statement : idleStatements.values()) {
+            closeQuietly(statement);
+        }
+        idleStatements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * The arguments of a {@code prepareStatement} call: the SQL, optionally followed by the result set type,
+     * concurrency and holdability, the auto-generated keys flag or the key columns.
+     */
+    static final class Key {
+
+        private final Object[] args;
+        private final int hashCode;
+
+        Key(Object[] args) {
+            this.args = args;
+            this.hashCode = Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && hashCode == ((Key) obj).hashCode && Arrays.deepEquals(args, ((Key) obj).args);
+        }
+    }
+
+}
@@ -23,6 +23,8 @@ import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.logging.jdbc.ConnectionLogger;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.metrics.Metric;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
@@ -35,6 +37,7 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -110,9 +113,28 @@ public abstract class BaseExecutor implements Executor {
             throw new ExecutorException("Executor was closed.");
         }
         clearLocalCache();
+        if (ms.getRowsPerInsert() > 0) {
+            Collection<?> rows = MultiRowInsert.getRows(parameter);
+            if (rows != null) {
+                return doMultiRowInsert(ms, rows);
+            }
+        }
         return doUpdate(ms, parameter);
     }
 
+    private int doMultiRowInsert(MappedStatement ms, Collection<?> rows) throws SQLException {
+        int updateCount = 0;
+        for (MultiRowInsert.Chunk chunk : MultiRowInsert.split(ms, rows)) {
+            int chunkUpdateCount = doUpdate(ms, chunk);
+            if (chunkUpdateCount == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+                updateCount = chunkUpdateCount;
+            } else {
+                updateCount += chunkUpdateCount;
+            }
+        }
+        return updateCount;
+    }
+
     @Override
     public List<BatchResult> flushStatements() throws SQLException {
         return flushStatements(false);
@@ -128,10 +150,26 @@ public abstract class BaseExecutor implements Executor {
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
         BoundSql boundSql = ms.getBoundSql(parameter);
-        CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
+        CacheKey key = isLocalCacheUnused(ms) ? CacheKey.NULL_CACHE_KEY : createCacheKey(ms, parameter, rowBounds, boundSql);
         return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
     }
 
+    /**
+     * With the STATEMENT scope the local cache is empty whenever a top level query starts, and it is only read by
+     * nested queries. A statement that cannot run nested queries therefore does not need a cache key.
+     */
+    private boolean isLocalCacheUnused(MappedStatement ms) {
+        if (queryStack != 0 || configuration.getLocalCacheScope() != LocalCacheScope.STATEMENT) {
+            return false;
+        }
+        for (ResultMap resultMap : ms.getResultMaps()) {
+            if (resultMap.hasNestedQueries() || resultMap.hasNestedResultMaps() || resultMap.getDiscriminator() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
@@ -145,7 +183,7 @@ public abstract class BaseExecutor implements Executor {
         List<E> list;
         try {
             queryStack++;
-            list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+            list = resultHandler == null && key != CacheKey.NULL_CACHE_KEY ? (List<E>) localCache.getObject(key) : null;
             if (list != null) {
                 handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
             } else {
@@ -192,12 +230,13 @@ public abstract class BaseExecutor implements Executor {
         if (closed) {
             throw new ExecutorException("Executor was closed.");
         }
-        CacheKey cacheKey = new CacheKey();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        // id, offset, limit, sql, parameters and environment
+        CacheKey cacheKey = new CacheKey(parameterMappings.size() + 5);
         cacheKey.update(ms.getId());
         cacheKey.update(rowBounds.getOffset());
         cacheKey.update(rowBounds.getLimit());
         cacheKey.update(boundSql.getSql());
-        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
         TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
         // mimic DefaultParameterHandler logic
         for (ParameterMapping parameterMapping : parameterMappings) {
@@ -314,10 +353,13 @@ public abstract class BaseExecutor implements Executor {
     }
 
     private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+        if (key == CacheKey.NULL_CACHE_KEY) {
+            return measuredQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+        }
         List<E> list;
         localCache.putObject(key, EXECUTION_PLACEHOLDER);
         try {
-            list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+            list = measuredQuery(ms, parameter, rowBounds, resultHandler, boundSql);
         } finally {
             localCache.removeObject(key);
         }
@@ -328,6 +370,19 @@ public abstract class BaseExecutor implements Executor {
         return list;
     }
 
+    private <E> List<E> measuredQuery(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        MetricsCollector metrics = configuration.getMetricsCollector();
+        if (!metrics.isEnabled()) {
+            return doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        long start = System.nanoTime();
+        try {
+            return doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+        } finally {
+            metrics.recordTime(Metric.DATABASE_QUERY, ms.getId(), System.nanoTime() - start);
+        }
+    }
+
     protected Connection getConnection(Log statementLog) throws SQLException {
         Connection connection = transaction.getConnection();
         if (statementLog.isDebugEnabled()) {
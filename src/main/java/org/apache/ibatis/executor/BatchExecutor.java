@@ -22,10 +22,14 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
@@ -36,6 +40,14 @@ import java.util.Collections;
 import java.util.List;
 
 /**
+ * Executes updates as JDBC batches.
+ * <p>
+ * The batches are executed by {@link #flushStatements()}, or automatically as soon as the number or the estimated
+ * size of the batched parameter objects reaches {@link Configuration#getBatchFlushSize()} or
+ * {@link Configuration#getBatchFlushBytes()}. The results of automatic flushes are only passed to the
+ * {@link #setBatchResultHandler(BatchResultHandler) batch result handler} of the session; they are not retained, so
+ * {@link #flushStatements()} only returns the results of the batches it executes itself.
+ *
  * @author Jeff Butler
  */
 public class BatchExecutor extends BaseExecutor {
@@ -46,11 +58,19 @@ public class BatchExecutor extends BaseExecutor {
     private final List<BatchResult> batchResultList = new ArrayList<>();
     private String currentSql;
     private MappedStatement currentStatement;
+    private BatchResultHandler batchResultHandler;
+    private int batchedCount;
+    private long batchedBytes;
 
     public BatchExecutor(Configuration configuration, Transaction transaction) {
         super(configuration, transaction);
     }
 
+    @Override
+    public void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+        this.batchResultHandler = batchResultHandler;
+    }
+
     @Override
     public int doUpdate(MappedStatement ms, Object parameterObject) throws SQLException {
         final Configuration configuration = ms.getConfiguration();
@@ -75,9 +95,60 @@ public class BatchExecutor extends BaseExecutor {
             batchResultList.add(new BatchResult(ms, sql, parameterObject));
         }
         handler.batch(stmt);
+        flushIfThresholdReached(boundSql, parameterObject);
         return BATCH_UPDATE_RETURN_VALUE;
     }
 
+    private void flushIfThresholdReached(BoundSql boundSql, Object parameterObject) throws SQLException {
+        final int flushSize = configuration.getBatchFlushSize();
+        final long flushBytes = configuration.getBatchFlushBytes();
+        batchedCount++;
+        if (flushBytes > 0) {
+            batchedBytes += estimateSize(boundSql, parameterObject);
+        }
+        if ((flushSize > 0 && batchedCount >= flushSize) || (flushBytes > 0 && batchedBytes >= flushBytes)) {
+            doFlushStatements(false);
+        }
+    }
+
+    /**
+     * Estimates the memory held by the driver for the bound values of a batched parameter object.
+     */
+    private long estimateSize(BoundSql boundSql, Object parameterObject) {
+        final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+        MetaObject metaObject = null;
+        long size = 0;
+        for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+            if (parameterMapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            final String propertyName = parameterMapping.getProperty();
+            final Object value;
+            if (boundSql.hasAdditionalParameter(propertyName)) {
+                value = boundSql.getAdditionalParameter(propertyName);
+            } else if (parameterObject == null) {
+                value = null;
+            } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+                value = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                value = metaObject.getValue(propertyName);
+            }
+            if (value instanceof CharSequence) {
+                size += 2L * ((CharSequence) value).length();
+            } else if (value instanceof byte[]) {
+                size += ((byte[]) value).length;
+            } else if (value instanceof char[]) {
+                size += 2L * ((char[]) value).length;
+            } else {
+                size += 8;
+            }
+        }
+        return size;
+    }
+
     @Override
     public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
             throws SQLException {
@@ -107,13 +178,28 @@ public class BatchExecutor extends BaseExecutor {
         return handler.queryCursor(stmt);
     }
 
+    /**
+     * The driver returns the generated keys of all rows of the multi-row inserts in the batch.
+     */
+    private List<Object> flattenChunks(List<Object> parameterObjects) {
+        List<Object> rows = new ArrayList<>();
+        for (Object parameterObject : parameterObjects) {
+            if (parameterObject instanceof MultiRowInsert.Chunk) {
+                rows.addAll((MultiRowInsert.Chunk) parameterObject);
+            } else {
+                rows.add(parameterObject);
+            }
+        }
+        return rows;
+    }
+
     @Override
     public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
         try {
-            List<BatchResult> results = new ArrayList<>();
             if (isRollback) {
                 return Collections.emptyList();
             }
+            List<BatchResult> results = new ArrayList<>();
             for (int i = 0, n = statementList.size(); i < n; i++) {
                 Statement stmt = statementList.get(i);
                 applyTransactionTimeout(stmt);
@@ -125,7 +211,7 @@ public class BatchExecutor extends BaseExecutor {
                     KeyGenerator keyGenerator = ms.getKeyGenerator();
                     if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
                         Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-                        jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+                        jdbc3KeyGenerator.processBatch(ms, stmt, ms.getRowsPerInsert() > 0 ? flattenChunks(parameterObjects) : parameterObjects);
                     } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
                         for (Object parameter : parameterObjects) {
                             keyGenerator.processAfter(this, ms, stmt, parameter);
@@ -148,6 +234,9 @@ public class BatchExecutor extends BaseExecutor {
                     throw new BatchExecutorException(message.toString(), e, results, batchResult);
                 }
                 results.add(batchResult);
+                if (batchResultHandler != null) {
+                    batchResultHandler.handleBatchResult(batchResult);
+                }
             }
             return results;
         } finally {
@@ -157,6 +246,8 @@ public class BatchExecutor extends BaseExecutor {
             currentSql = null;
             statementList.clear();
             batchResultList.clear();
+            batchedCount = 0;
+            batchedBytes = 0;
         }
     }
 
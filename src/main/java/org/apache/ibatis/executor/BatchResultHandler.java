@@ -0,0 +1,32 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+/**
+ * Receives the result of each JDBC batch executed by the {@link BatchExecutor} of one session, including the batches
+ * that are flushed automatically when a flush threshold is reached.
+ * <p>
+ * The handler is called on the thread that uses the session, right after the batch has been executed and before the
+ * transaction is committed, so it does not need to be thread-safe unless it is shared by several sessions. A result
+ * is passed only once; the executor does not retain the results of automatic flushes.
+ *
+ * @see org.apache.ibatis.session.SqlSession#setBatchResultHandler(BatchResultHandler)
+ */
+public interface BatchResultHandler {
+
+    void handleBatchResult(BatchResult batchResult);
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.TaggedCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Reloads second level cache entries in the background by executing the statement that has cached them again.
+ * <p>
+ * A cache that refreshes ahead is {@link #register(String, int) registered} by its id. The {@link CachingExecutor}
+ * then remembers the statement, parameter and row bounds of every result it caches there, and a refresh executes
+ * them on the {@link Configuration#getAsyncExecutor() async executor} in a transaction of its own and puts the new
+ * result into the cache through an executor with the plugins of the configuration. At most one refresh per key runs
+ * at a time, and a key is skipped if the remembered parameter no longer produces it. The parameter objects are
+ * strongly referenced, for at most as many keys as the cache holds entries.
+ *
+ * @see org.apache.ibatis.cache.decorators.ExpiringCache
+ */
+public class CacheRefresher {
+
+    private static final Log log = LogFactory.getLog(CacheRefresher.class);
+
+    private final Configuration configuration;
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+
+    public CacheRefresher(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Starts remembering the queries cached in the cache with the given id.
+     *
+     * @param cacheId the id of the cache
+     * @param maxKeys the number of keys whose query, including its parameter object, is remembered; the least recently
+     *                cached or refreshed ones are forgotten first
+     * @return the callback that refreshes the entry of a key
+     */
+    public Consumer<Object> register(String cacheId, int maxKeys) {
+        Registration registration = new Registration(maxKeys);
+        registrations.put(cacheId, registration);
+        return key -> refresh(registration, key);
+    }
+
+    /**
+     * Remembers how a result has been loaded, if the cache refreshes ahead.
+     */
+    public void remember(Cache cache, CacheKey key, MappedStatement ms, Object parameter, RowBounds rowBounds) {
+        Registration registration = registrations.get(cache.getId());
+        if (registration != null) {
+            registration.put(key, new Query(ms, parameter, rowBounds));
+        }
+    }
+
+    private void refresh(Registration registration, Object key) {
+        Query query = registration.get(key);
+        if (query == null || !registration.refreshing.add(key)) {
+            return;
+        }
+        try {
+            configuration.getAsyncExecutor().execute(() -> {
+                try {
+                    reload(registration, key, query);
+                } catch (Exception e) {
+                    log.warn("Could not refresh the cache entry of " + query.ms.getId() + ". Cause: " + e);
+                } finally {
+                    registration.refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            registration.refreshing.remove(key);
+            log.warn("Could not schedule the refresh of a cache entry of " + query.ms.getId() + ". Cause: " + e);
+        }
+    }
+
+    private void reload(Registration registration, Object key, Query query) throws Exception {
+        Environment environment = configuration.getEnvironment();
+        Transaction tx = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+        // with the plugins, but without the caching executor, which would return the entry to refresh
+        Executor executor = configuration.newExecutor(tx, ExecutorType.SIMPLE, false);
+        try {
+            MappedStatement ms = query.ms;
+            BoundSql boundSql = ms.getBoundSql(query.parameter);
+            CacheKey currentKey = executor.createCacheKey(ms, query.parameter, query.rowBounds, boundSql);
+            if (!currentKey.equals(key)) {
+                // the parameter object has been changed since
+                registration.remove(key);
+                return;
+            }
+            List<Object> list = executor.query(ms, query.parameter, query.rowBounds, Executor.NO_RESULT_HANDLER, currentKey, boundSql);
+            Cache cache = ms.getCache();
+            Set<String> tags = ms.resolveCacheTags(query.parameter);
+            if (tags != null && cache instanceof TaggedCache) {
+                ((TaggedCache) cache).putObject(key, list, tags);
+            } else {
+                cache.putObject(key, list);
+            }
+        } finally {
+            executor.close(false);
+        }
+    }
+
+    private static final class Registration {
+
+        private final Map<Object, Query> queries;
+        private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+        Registration(int maxKeys) {
+            this.queries = new LinkedHashMap<Object, Query>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Query> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+
+        synchronized void put(Object key, Query query) {
+            queries.put(key, query);
+        }
+
+        synchronized Query get(Object key) {
+            return queries.get(key);
+        }
+
+        synchronized void remove(Object key) {
+            queries.remove(key);
+        }
+    }
+
+    private static final class Query {
+
+        private final MappedStatement ms;
+        private final Object parameter;
+        private final RowBounds rowBounds;
+
+        Query(MappedStatement ms, Object parameter, RowBounds rowBounds) {
+            this.ms = ms;
+            this.parameter = parameter;
+            this.rowBounds = rowBounds;
+        }
+    }
+
+}
@@ -20,6 +20,8 @@ import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.TransactionalCacheManager;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.metrics.Metric;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -27,6 +29,7 @@ import org.apache.ibatis.transaction.Transaction;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Clinton Begin
@@ -68,12 +71,17 @@ public class CachingExecutor implements Executor {
 
     @Override
     public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-        flushCacheIfRequired(ms);
+        flushCacheIfRequired(ms, parameterObject);
         return delegate.update(ms, parameterObject);
     }
 
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+        if (ms.getCache() == null || !ms.isUseCache() || resultHandler != null) {
+            // the key is not needed for the second level cache, let the delegate decide whether it needs one
+            flushCacheIfRequired(ms, parameterObject);
+            return delegate.query(ms, parameterObject, rowBounds, resultHandler);
+        }
         BoundSql boundSql = ms.getBoundSql(parameterObject);
         CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
         return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
@@ -81,7 +89,7 @@ public class CachingExecutor implements Executor {
 
     @Override
     public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
-        flushCacheIfRequired(ms);
+        flushCacheIfRequired(ms, parameter);
         return delegate.queryCursor(ms, parameter, rowBounds);
     }
 
@@ -90,14 +98,24 @@ public class CachingExecutor implements Executor {
             throws SQLException {
         Cache cache = ms.getCache();
         if (cache != null) {
-            flushCacheIfRequired(ms);
+            Set<String> tags = ms.resolveCacheTags(parameterObject);
+            flushCacheIfRequired(ms, cache, tags);
             if (ms.isUseCache() && resultHandler == null) {
                 ensureNoOutParams(ms, boundSql);
                 @SuppressWarnings("unchecked")
-                List<E> list = (List<E>) tcm.getObject(cache, key);
+                List<E> list = (List<E>) (tags == null ? tcm.getObject(cache, key) : tcm.getObject(cache, key, tags));
+                MetricsCollector metrics = ms.getConfiguration().getMetricsCollector();
+                if (metrics.isEnabled()) {
+                    metrics.increment(list == null ? Metric.SECOND_LEVEL_CACHE_MISS : Metric.SECOND_LEVEL_CACHE_HIT, ms.getId(), 1);
+                }
                 if (list == null) {
                     list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
-                    tcm.putObject(cache, key, list); // issue #578 and #116
+                    if (tags == null) {
+                        tcm.putObject(cache, key, list); // issue #578 and #116
+                    } else {
+                        tcm.putObject(cache, key, list, tags);
+                    }
+                    ms.getConfiguration().getCacheRefresher().remember(cache, key, ms, parameterObject, rowBounds);
                 }
                 return list;
             }
@@ -110,6 +128,11 @@ public class CachingExecutor implements Executor {
         return delegate.flushStatements();
     }
 
+    @Override
+    public void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+        delegate.setBatchResultHandler(batchResultHandler);
+    }
+
     @Override
     public void commit(boolean required) throws SQLException {
         delegate.commit(required);
@@ -157,10 +180,20 @@ public class CachingExecutor implements Executor {
         delegate.clearLocalCache();
     }
 
-    private void flushCacheIfRequired(MappedStatement ms) {
+    private void flushCacheIfRequired(MappedStatement ms, Object parameterObject) {
         Cache cache = ms.getCache();
         if (cache != null && ms.isFlushCacheRequired()) {
-            tcm.clear(cache);
+            flushCacheIfRequired(ms, cache, ms.resolveCacheTags(parameterObject));
+        }
+    }
+
+    private void flushCacheIfRequired(MappedStatement ms, Cache cache, Set<String> tags) {
+        if (ms.isFlushCacheRequired()) {
+            if (tags == null) {
+                tcm.clear(cache);
+            } else {
+                tcm.invalidate(cache, tags);
+            }
         }
     }
 
@@ -44,6 +44,16 @@ public interface Executor {
 
     List<BatchResult> flushStatements() throws SQLException;
 
+    /**
+     * Sets the handler that receives the result of every batch this executor executes. Executors that do not batch
+     * updates ignore it.
+     *
+     * @param batchResultHandler the handler, or null
+     */
+    default void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+        // NOP
+    }
+
     void commit(boolean required) throws SQLException;
 
     void rollback(boolean required) throws SQLException;
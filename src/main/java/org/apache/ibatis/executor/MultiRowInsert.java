@@ -0,0 +1,245 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Executes an insert statement with a {@link MappedStatement#getRowsPerInsert() rows per insert} for a collection of
+ * rows, as multi-row {@code INSERT ... VALUES (...), (...)} statements.
+ * <p>
+ * The statement is written for a single row. Each row is bound to it on its own, and consecutive rows that result in
+ * the same SQL are combined by repeating its {@code VALUES} tuple. Full chunks have {@code rowsPerInsert} rows and the
+ * remaining rows are split into chunks whose sizes are powers of two, so that only a few distinct statements are ever
+ * prepared. A {@link Chunk} is a list of its rows, so that {@link Jdbc3KeyGenerator} assigns the generated keys to
+ * them, and carries the combined statement, which the statement handler executes instead of binding the chunk to the
+ * mapped statement.
+ */
+public final class MultiRowInsert {
+
+    private static final String ROW_PARAMETER_PREFIX = "__row";
+
+    private MultiRowInsert() {
+        // Prevent Instantiation of Static Class
+    }
+
+    /**
+     * @param parameter the parameter of an insert
+     * @return the rows to insert, or null if the parameter is not a collection or an array
+     */
+    public static Collection<?> getRows(Object parameter) {
+        if (parameter instanceof Collection) {
+            return (Collection<?>) parameter;
+        }
+        if (parameter instanceof Object[]) {
+            return Arrays.asList((Object[]) parameter);
+        }
+        if (parameter instanceof ParamMap || parameter instanceof StrictMap) {
+            // a sole collection parameter, possibly under several names
+            Object sole = null;
+            for (Object value : ((Map<?, ?>) parameter).values()) {
+                if (sole != null && sole != value) {
+                    return null;
+                }
+                sole = value;
+            }
+            return sole instanceof Map ? null : getRows(sole);
+        }
+        return null;
+    }
+
+    /**
+     * Splits the rows into the chunks to execute.
+     */
+    public static List<Chunk> split(MappedStatement ms, Collection<?> rows) {
+        if (!(ms.getKeyGenerator() instanceof NoKeyGenerator || ms.getKeyGenerator() instanceof Jdbc3KeyGenerator)) {
+            throw new ExecutorException("Statement " + ms.getId() + " inserts several rows at once and can only use generated keys.");
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        List<Object> pendingRows = new ArrayList<>();
+        List<BoundSql> pendingBoundSqls = new ArrayList<>();
+        for (Object row : rows) {
+            BoundSql boundSql = ms.getBoundSql(row);
+            if (!pendingBoundSqls.isEmpty() && !pendingBoundSqls.get(0).getSql().equals(boundSql.getSql())) {
+                addChunks(ms, chunks, pendingRows, pendingBoundSqls);
+            }
+            pendingRows.add(row);
+            pendingBoundSqls.add(boundSql);
+            if (pendingRows.size() == ms.getRowsPerInsert()) {
+                addChunks(ms, chunks, pendingRows, pendingBoundSqls);
+            }
+        }
+        addChunks(ms, chunks, pendingRows, pendingBoundSqls);
+        return chunks;
+    }
+
+    private static void addChunks(MappedStatement ms, List<Chunk> chunks, List<Object> rows, List<BoundSql> boundSqls) {
+        int from = 0;
+        int remaining = rows.size();
+        while (remaining > 0) {
+            int size = remaining == ms.getRowsPerInsert() ? remaining : Integer.highestOneBit(remaining);
+            chunks.add(new Chunk(ms, new ArrayList<>(rows.subList(from, from + size)), boundSqls.subList(from, from + size)));
+            from += size;
+            remaining -= size;
+        }
+        rows.clear();
+        boundSqls.clear();
+    }
+
+    /**
+     * Rows inserted by one statement.
+     */
+    public static final class Chunk extends AbstractList<Object> {
+
+        private final List<Object> rows;
+        private final BoundSql boundSql;
+
+        Chunk(MappedStatement ms, List<Object> rows, List<BoundSql> boundSqls) {
+            this.rows = rows;
+            this.boundSql = combine(ms, boundSqls);
+        }
+
+        /**
+         * @return the statement for all rows, with the values of the rows as additional parameters
+         */
+        public BoundSql getBoundSql() {
+            return boundSql;
+        }
+
+        @Override
+        public Object get(int index) {
+            return rows.get(index);
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+
+        private BoundSql combine(MappedStatement ms, List<BoundSql> boundSqls) {
+            Configuration configuration = ms.getConfiguration();
+            String sql = boundSqls.get(0).getSql();
+            int[] tuple = findValuesTuple(ms, sql);
+            StringBuilder combinedSql = new StringBuilder(sql.length() + (tuple[1] - tuple[0] + 2) * (rows.size() - 1));
+            combinedSql.append(sql, 0, tuple[1]);
+            for (int i = 1; i < rows.size(); i++) {
+                combinedSql.append(", ").append(sql, tuple[0], tuple[1]);
+            }
+            combinedSql.append(sql, tuple[1], sql.length());
+
+            List<ParameterMapping> parameterMappings = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                BoundSql rowBoundSql = boundSqls.get(i);
+                List<ParameterMapping> rowMappings = rowBoundSql.getParameterMappings();
+                for (int j = 0; j < rowMappings.size(); j++) {
+                    ParameterMapping mapping = rowMappings.get(j);
+                    if (mapping.getMode() != ParameterMode.IN) {
+                        throw new ExecutorException("Statement " + ms.getId() + " inserts several rows at once and cannot have OUT parameters.");
+                    }
+                    parameterMappings.add(new ParameterMapping.Builder(configuration, ROW_PARAMETER_PREFIX + i + "_" + j, mapping.getTypeHandler())
+                            .javaType(mapping.getJavaType())
+                            .jdbcType(mapping.getJdbcType())
+                            .jdbcTypeName(mapping.getJdbcTypeName())
+                            .numericScale(mapping.getNumericScale())
+                            .build());
+                    values.add(getValue(configuration, rowBoundSql, rows.get(i), mapping.getProperty()));
+                }
+            }
+            BoundSql combined = new BoundSql(configuration, combinedSql.toString(), parameterMappings, this);
+            for (int k = 0; k < values.size(); k++) {
+                combined.setAdditionalParameter(parameterMappings.get(k).getProperty(), values.get(k));
+            }
+            return combined;
+        }
+
+        /**
+         * Same as {@link org.apache.ibatis.scripting.defaults.DefaultParameterHandler}.
+         */
+        private static Object getValue(Configuration configuration, BoundSql boundSql, Object row, String propertyName) {
+            TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+            if (boundSql.hasAdditionalParameter(propertyName)) {
+                return boundSql.getAdditionalParameter(propertyName);
+            } else if (row == null) {
+                return null;
+            } else if (typeHandlerRegistry.hasTypeHandler(row.getClass())) {
+                return row;
+            } else {
+                MetaObject metaObject = configuration.newMetaObject(row);
+                return metaObject.getValue(propertyName);
+            }
+        }
+
+        /**
+         * @return the start and end of the parenthesized tuple after the {@code VALUES} keyword
+         */
+        private static int[] findValuesTuple(MappedStatement ms, String sql) {
+            String lowerSql = sql.toLowerCase(Locale.ENGLISH);
+            int start = -1;
+            int end = -1;
+            int depth = 0;
+            boolean quoted = false;
+            boolean afterValues = false;
+            for (int i = 0; i < sql.length() && end < 0; i++) {
+                char c = sql.charAt(i);
+                if (c == '\'') {
+                    quoted = !quoted;
+                } else if (quoted) {
+                    continue;
+                } else if (c == '?' && (start < 0 || depth == 0)) {
+                    break;
+                } else if (start < 0 && !afterValues && lowerSql.startsWith("values", i)
+                        && (i == 0 || !Character.isJavaIdentifierPart(sql.charAt(i - 1)))) {
+                    afterValues = true;
+                    i += "values".length() - 1;
+                } else if (afterValues && start < 0 && c == '(') {
+                    start = i;
+                    depth = 1;
+                } else if (afterValues && start < 0 && !Character.isWhitespace(c)) {
+                    afterValues = false;
+                } else if (start >= 0 && c == '(') {
+                    depth++;
+                } else if (start >= 0 && c == ')' && --depth == 0) {
+                    end = i + 1;
+                }
+            }
+            if (end < 0 || sql.indexOf('?', end) >= 0) {
+                throw new ExecutorException("Statement " + ms.getId() + " inserts several rows at once and must be an "
+                        + "INSERT ... VALUES (...) statement whose parameters are all in the VALUES tuple.");
+            }
+            return new int[]{start, end};
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A {@link ResultLoader} that belongs to a {@link LazyLoadBatch}. Loading one loader of the batch loads the results
+ * of the other pending loaders with the same query.
+ */
+public class BatchResultLoader extends ResultLoader {
+
+    private final LazyLoadBatch batch;
+
+    public BatchResultLoader(Configuration config, Executor executor, MappedStatement mappedStatement, Object parameterObject,
+                             Class<?> targetType, CacheKey cacheKey, BoundSql boundSql, LazyLoadBatch batch) {
+        super(config, executor, mappedStatement, parameterObject, targetType, cacheKey, boundSql);
+        this.batch = batch;
+        batch.add(this);
+    }
+
+    @Override
+    public Object loadResult() throws SQLException {
+        if (!loaded) {
+            batch.load(this);
+        }
+        return resultObject;
+    }
+
+    Object getParameterObject() {
+        return parameterObject;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    void setResult(List<Object> list) {
+        resultObject = resultExtractor.extractObjectFromList(list, targetType);
+        loaded = true;
+    }
+
+    <E> List<E> selectBatch(MappedStatement batchStatement, Object parameter) throws SQLException {
+        return selectList(batchStatement, parameter, null, null);
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The lazy loaders of a nested query that are loaded together.
+ * <p>
+ * When one of the loaders is loaded, the keys of up to {@link Configuration#getLazyLoadBatchSize()} pending loaders are
+ * passed to the batch query as a list named {@code list} (and {@code collection}), e.g. for
+ * {@code where blog_id in <foreach collection="list" ...>}. Each returned object is assigned to the loaders whose key
+ * equals the value of its batch key property.
+ */
+public class LazyLoadBatch {
+
+    private final Configuration configuration;
+    private final MappedStatement batchStatement;
+    private final String batchKey;
+    private final Set<BatchResultLoader> pending = new LinkedHashSet<>();
+
+    public LazyLoadBatch(Configuration configuration, MappedStatement batchStatement, String batchKey) {
+        this.configuration = configuration;
+        this.batchStatement = batchStatement;
+        this.batchKey = batchKey;
+    }
+
+    synchronized void add(BatchResultLoader loader) {
+        pending.add(loader);
+    }
+
+    synchronized void load(BatchResultLoader trigger) throws SQLException {
+        if (trigger.isLoaded()) {
+            return;
+        }
+        final List<BatchResultLoader> loaders = new ArrayList<>();
+        loaders.add(trigger);
+        pending.remove(trigger);
+        final int batchSize = Math.max(1, configuration.getLazyLoadBatchSize());
+        for (Iterator<BatchResultLoader> it = pending.iterator(); it.hasNext() && loaders.size() < batchSize; ) {
+            loaders.add(it.next());
+            it.remove();
+        }
+
+        final Map<Object, Object> keys = new LinkedHashMap<>();
+        for (BatchResultLoader loader : loaders) {
+            keys.putIfAbsent(normalizeKey(loader.getParameterObject()), loader.getParameterObject());
+        }
+        final List<Object> keyList = new ArrayList<>(keys.values());
+        final StrictMap<Object> parameter = new StrictMap<>();
+        parameter.put("collection", keyList);
+        parameter.put("list", keyList);
+
+        final List<Object> results;
+        try {
+            results = trigger.selectBatch(batchStatement, parameter);
+        } catch (SQLException | RuntimeException e) {
+            // the loaders stay pending so that another access can retry
+            for (BatchResultLoader loader : loaders) {
+                if (loader != trigger) {
+                    pending.add(loader);
+                }
+            }
+            throw e;
+        }
+
+        final Map<Object, List<Object>> resultsByKey = new HashMap<>();
+        for (Object result : results) {
+            if (result != null) {
+                MetaObject metaObject = configuration.newMetaObject(result);
+                resultsByKey.computeIfAbsent(normalizeKey(metaObject.getValue(batchKey)), k -> new ArrayList<>()).add(result);
+            }
+        }
+        for (BatchResultLoader loader : loaders) {
+            List<Object> list = resultsByKey.get(normalizeKey(loader.getParameterObject()));
+            loader.setResult(list == null ? new ArrayList<>() : new ArrayList<>(list));
+        }
+    }
+
+    /**
+     * The key read from the parent row and the key property of the child may be of different integral types.
+     */
+    private static Object normalizeKey(Object key) {
+        if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte) {
+            return ((Number) key).longValue();
+        }
+        return key;
+    }
+
+}
@@ -72,12 +72,31 @@ public class ResultLoader {
     }
 
     private <E> List<E> selectList() throws SQLException {
+        return selectList(mappedStatement, parameterObject, cacheKey, boundSql);
+    }
+
+    /**
+     * Runs the given statement on the executor of this loader, or on a new one if that is not usable from the
+     * current thread.
+     *
+     * @param ms the statement
+     * @param parameter the parameter object
+     * @param key the cache key, or null to create it
+     * @param sql the bound SQL, or null to create it
+     * @return the results
+     * @throws SQLException if the query fails
+     */
+    protected <E> List<E> selectList(MappedStatement ms, Object parameter, CacheKey key, BoundSql sql) throws SQLException {
         Executor localExecutor = executor;
         if (Thread.currentThread().getId() != this.creatorThreadId || localExecutor.isClosed()) {
             localExecutor = newExecutor();
         }
         try {
-            return localExecutor.<E>query(mappedStatement, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
+            if (sql == null) {
+                sql = ms.getBoundSql(parameter);
+                key = localExecutor.createCacheKey(ms, parameter, RowBounds.DEFAULT, sql);
+            }
+            return localExecutor.<E>query(ms, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, key, sql);
         } finally {
             if (localExecutor != executor) {
                 localExecutor.close(false);
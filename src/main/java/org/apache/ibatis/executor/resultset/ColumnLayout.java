@@ -0,0 +1,90 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The column names, JDBC types and class names of a result set, and the type handlers resolved for its columns.
+ * <p>
+ * Layouts are equal if their columns are, so that {@link ColumnLayoutCache} can share the handlers resolved by one
+ * query with the following ones. Handlers are kept per property type in an array indexed by column position.
+ */
+final class ColumnLayout {
+
+    private final List<String> columnNames;
+    private final List<JdbcType> jdbcTypes;
+    private final List<String> classNames;
+    private final int hashCode;
+    private final ConcurrentMap<Class<?>, TypeHandler<?>[]> typeHandlers = new ConcurrentHashMap<>();
+
+    ColumnLayout(List<String> columnNames, List<JdbcType> jdbcTypes, List<String> classNames) {
+        this.columnNames = Collections.unmodifiableList(columnNames);
+        this.jdbcTypes = Collections.unmodifiableList(jdbcTypes);
+        this.classNames = Collections.unmodifiableList(classNames);
+        this.hashCode = 31 * (31 * columnNames.hashCode() + jdbcTypes.hashCode()) + classNames.hashCode();
+    }
+
+    List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    List<JdbcType> getJdbcTypes() {
+        return jdbcTypes;
+    }
+
+    List<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * @return the handlers resolved so far for reading the columns into a property of the given type, by column index
+     */
+    TypeHandler<?>[] getTypeHandlers(Class<?> propertyType) {
+        // the type is null for columns read without a known target type
+        final Class<?> key = propertyType == null ? Object.class : propertyType;
+        TypeHandler<?>[] handlers = typeHandlers.get(key);
+        if (handlers == null) {
+            handlers = typeHandlers.computeIfAbsent(key, k -> new TypeHandler<?>[columnNames.size()]);
+        }
+        return handlers;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ColumnLayout)) {
+            return false;
+        }
+        ColumnLayout that = (ColumnLayout) o;
+        return hashCode == that.hashCode && columnNames.equals(that.columnNames) && jdbcTypes.equals(that.jdbcTypes)
+                && classNames.equals(that.classNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+}
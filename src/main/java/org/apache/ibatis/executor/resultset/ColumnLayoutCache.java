@@ -0,0 +1,109 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Keeps one {@link ColumnLayout} per distinct result set layout, so that the type handlers resolved for its columns
+ * are looked up in the {@link org.apache.ibatis.type.TypeHandlerRegistry} once instead of once per query.
+ * <p>
+ * At most {@link #MAX_LAYOUTS} layouts are kept, the least recently used one is dropped to make room for a new one.
+ * All layouts are dropped when a type handler is registered, so that their handlers are resolved again.
+ * <p>
+ * With {@link org.apache.ibatis.session.Configuration#isResultSetMetadataCacheEnabled()} the last layout of each result
+ * set of a statement is kept as well, so that a result set with the same column labels skips reading the JDBC types and
+ * class names of its columns.
+ */
+public class ColumnLayoutCache {
+
+    static final int MAX_LAYOUTS = 1024;
+
+    private final TypeHandlerRegistry typeHandlerRegistry;
+    private final Map<ColumnLayout, ColumnLayout> layouts = new LinkedHashMap<ColumnLayout, ColumnLayout>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ColumnLayout, ColumnLayout> eldest) {
+            return size() > MAX_LAYOUTS;
+        }
+    };
+    // the last layout of each result set of a statement, by statement id and result set index
+    private final Map<String, ColumnLayout[]> statementLayouts = new ConcurrentHashMap<>();
+    // the modification count of the registry the cached handlers have been resolved with
+    private volatile int typeHandlerModificationCount;
+
+    public ColumnLayoutCache(TypeHandlerRegistry typeHandlerRegistry) {
+        this.typeHandlerRegistry = typeHandlerRegistry;
+        this.typeHandlerModificationCount = typeHandlerRegistry.getModificationCount();
+    }
+
+    /**
+     * @return the cached layout equal to the given one, or the given one
+     */
+    ColumnLayout intern(ColumnLayout layout) {
+        discardIfTypeHandlersChanged();
+        synchronized (layouts) {
+            ColumnLayout cached = layouts.putIfAbsent(layout, layout);
+            return cached != null ? cached : layout;
+        }
+    }
+
+    /**
+     * @return the layout last seen for the result set of the statement, or null
+     */
+    ColumnLayout getStatementLayout(String statementId, int resultSetIndex) {
+        discardIfTypeHandlersChanged();
+        ColumnLayout[] statementLayout = statementLayouts.get(statementId);
+        return statementLayout != null && resultSetIndex < statementLayout.length ? statementLayout[resultSetIndex] : null;
+    }
+
+    void putStatementLayout(String statementId, int resultSetIndex, ColumnLayout layout) {
+        statementLayouts.compute(statementId, (id, statementLayout) -> {
+            ColumnLayout[] updated = statementLayout == null ? new ColumnLayout[resultSetIndex + 1]
+                    : Arrays.copyOf(statementLayout, Math.max(statementLayout.length, resultSetIndex + 1));
+            updated[resultSetIndex] = layout;
+            return updated;
+        });
+    }
+
+    private void discardIfTypeHandlersChanged() {
+        final int modificationCount = typeHandlerRegistry.getModificationCount();
+        if (modificationCount != typeHandlerModificationCount) {
+            typeHandlerModificationCount = modificationCount;
+            clear();
+        }
+    }
+
+    public int size() {
+        synchronized (layouts) {
+            return layouts.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (layouts) {
+            layouts.clear();
+        }
+        statementLayouts.clear();
+    }
+
+}
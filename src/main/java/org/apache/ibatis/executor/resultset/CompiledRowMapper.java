@@ -0,0 +1,43 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set onto a bean without going through {@link org.apache.ibatis.reflection.MetaObject}.
+ * <p>
+ * Implementations are generated by {@link RowMapperCompiler} for one result map and one column layout.
+ */
+public interface CompiledRowMapper {
+
+    /**
+     * Creates a new instance of the result type by calling its public no-arg constructor.
+     */
+    Object createResultObject();
+
+    /**
+     * Reads the mapped columns of the current row and calls the corresponding setters of the result object.
+     *
+     * @param rs                 the result set positioned on the row to map
+     * @param resultObject       the object to populate
+     * @param callSettersOnNulls whether setters of non-primitive properties are called with null values
+     * @return true if at least one column was not null
+     */
+    boolean applyMappings(ResultSet rs, Object resultObject, boolean callSettersOnNulls) throws SQLException;
+
+}
@@ -23,6 +23,8 @@ import org.apache.ibatis.cursor.defaults.DefaultCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.loader.BatchResultLoader;
+import org.apache.ibatis.executor.loader.LazyLoadBatch;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -30,10 +32,14 @@ import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.metrics.Metric;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
 import org.apache.ibatis.session.*;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -75,9 +81,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
     // Cached Automappings
     private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
+    private final Map<String, CompiledRowMapper> compiledRowMappersCache = new HashMap<>();
+    // Cached primitive property mappings, by position of the property mapping
+    private final Map<String, PrimitivePropertyMapping[]> primitiveMappingsCache = new HashMap<>();
+    private final Map<String, LazyLoadBatch> lazyLoadBatches = new HashMap<>();
     private Object previousRowValue;
     // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
     private boolean useConstructorMappings;
+    // rows read by handleResultSets, reported to the metrics collector
+    private long rowCount;
+    // result sets of the statement wrapped so far, identifies their remembered column layouts
+    private int resultSetIndex;
 
     public DefaultResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler, ResultHandler<?> resultHandler, BoundSql boundSql,
                                    RowBounds rowBounds) {
@@ -174,6 +188,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             }
         }
 
+        MetricsCollector metrics = configuration.getMetricsCollector();
+        if (metrics.isEnabled()) {
+            metrics.increment(Metric.RESULT_ROWS, mappedStatement.getId(), rowCount);
+        }
         return collapseSingleResultList(multipleResults);
     }
 
@@ -209,7 +227,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 }
             }
         }
-        return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+        return rs != null ? newResultSetWrapper(rs) : null;
     }
 
     private ResultSetWrapper getNextResultSet(Statement stmt) {
@@ -222,7 +240,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                     if (rs == null) {
                         return getNextResultSet(stmt);
                     } else {
-                        return new ResultSetWrapper(rs, configuration);
+                        return newResultSetWrapper(rs);
                     }
                 }
             }
@@ -232,6 +250,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return null;
     }
 
+    private ResultSetWrapper newResultSetWrapper(ResultSet rs) throws SQLException {
+        return new ResultSetWrapper(rs, configuration, mappedStatement, resultSetIndex++);
+    }
+
     private void closeResultSet(ResultSet rs) {
         try {
             if (rs != null) {
@@ -244,6 +266,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     private void cleanUpAfterHandlingResultSet() {
         nestedResultObjects.clear();
+        if (configuration.isColumnIndexMappingEnabled()) {
+            // the column indexes of the automatic mappings only hold for the result set they were created for
+            autoMappingsCache.clear();
+        }
     }
 
     private void validateResultMapsCount(ResultSetWrapper rsw, int resultMapCount) {
@@ -311,9 +337,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
         ResultSet resultSet = rsw.getResultSet();
         skipRows(resultSet, rowBounds);
+        final CompiledRowMapper compiledRowMapper = getCompiledRowMapper(rsw, resultMap);
         while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
-            ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-            Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
+            rowCount++;
+            final Object rowValue;
+            if (compiledRowMapper != null) {
+                rowValue = getCompiledRowValue(rsw, resultMap, compiledRowMapper);
+            } else {
+                ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+                rowValue = getRowValue(rsw, discriminatedResultMap, null);
+            }
             storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
         }
     }
@@ -366,6 +399,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return rowValue;
     }
 
+    private Object getCompiledRowValue(ResultSetWrapper rsw, ResultMap resultMap, CompiledRowMapper compiledRowMapper) throws SQLException {
+        final Object rowValue = objectFactory.getClass() == DefaultObjectFactory.class
+                ? compiledRowMapper.createResultObject() : objectFactory.create(resultMap.getType());
+        final boolean foundValues = compiledRowMapper.applyMappings(rsw.getResultSet(), rowValue, configuration.isCallSettersOnNulls());
+        return foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
+    }
+
     private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
         if (resultMap.getAutoMapping() != null) {
             return resultMap.getAutoMapping();
@@ -384,19 +424,33 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
             throws SQLException {
-        final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+        // column indexes are resolved once per result set, the label lookups of the driver are skipped
+        final int[] columnIndexes = configuration.isColumnIndexMappingEnabled() ? rsw.getPropertyColumnIndexes(resultMap, columnPrefix) : null;
+        final List<String> mappedColumnNames = columnIndexes == null ? rsw.getMappedColumnNames(resultMap, columnPrefix) : null;
         boolean foundValues = false;
         final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-        for (ResultMapping propertyMapping : propertyMappings) {
+        final PrimitivePropertyMapping[] primitiveMappings = getPrimitivePropertyMappings(resultMap, metaObject, columnPrefix);
+        final Object resultObject = metaObject.getOriginalObject();
+        for (int i = 0; i < propertyMappings.size(); i++) {
+            final ResultMapping propertyMapping = propertyMappings.get(i);
             String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
             if (propertyMapping.getNestedResultMapId() != null) {
                 // the user added a column attribute to a nested result map, ignore it
                 column = null;
             }
-            if (propertyMapping.isCompositeResult()
-                    || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
-                    || propertyMapping.getResultSet() != null) {
-                Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+            final int columnIndex = columnIndexes == null ? 0 : columnIndexes[i];
+            final boolean mapped = columnIndexes == null
+                    ? column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)) : columnIndex > 0;
+            if (propertyMapping.isCompositeResult() || mapped || propertyMapping.getResultSet() != null) {
+                final PrimitivePropertyMapping primitiveMapping = primitiveMappings[i];
+                if (primitiveMapping != null && primitiveMapping.appliesTo(resultObject)) {
+                    // primitive properties are read and set without boxing, a null column leaves them untouched
+                    if (primitiveMapping.apply(rsw.getResultSet(), column, columnIndex, resultObject)) {
+                        foundValues = true;
+                    }
+                    continue;
+                }
+                Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix, columnIndex);
                 // issue #541 make property optional
                 final String property = propertyMapping.getProperty();
                 if (property == null) {
@@ -417,8 +471,27 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return foundValues;
     }
 
-    private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
-            throws SQLException {
+    private PrimitivePropertyMapping[] getPrimitivePropertyMappings(ResultMap resultMap, MetaObject metaObject, String columnPrefix) {
+        final String mapKey = resultMap.getId() + ":" + columnPrefix;
+        PrimitivePropertyMapping[] primitiveMappings = primitiveMappingsCache.get(mapKey);
+        if (primitiveMappings == null) {
+            final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+            primitiveMappings = new PrimitivePropertyMapping[propertyMappings.size()];
+            for (int i = 0; i < primitiveMappings.length; i++) {
+                final ResultMapping propertyMapping = propertyMappings.get(i);
+                if (propertyMapping.getNestedQueryId() == null && propertyMapping.getNestedResultMapId() == null
+                        && propertyMapping.getResultSet() == null && !propertyMapping.isCompositeResult()) {
+                    primitiveMappings[i] = PrimitivePropertyMapping.of(metaObject, propertyMapping.getProperty(),
+                            propertyMapping.getTypeHandler(), reflectorFactory);
+                }
+            }
+            primitiveMappingsCache.put(mapKey, primitiveMappings);
+        }
+        return primitiveMappings;
+    }
+
+    private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix,
+                                           int columnIndex) throws SQLException {
         if (propertyMapping.getNestedQueryId() != null) {
             return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
         } else if (propertyMapping.getResultSet() != null) {
@@ -426,6 +499,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             return DEFERRED;
         } else {
             final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
+            if (columnIndex > 0) {
+                return typeHandler.getResult(rs, columnIndex);
+            }
             final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
             return typeHandler.getResult(rs, column);
         }
@@ -460,7 +536,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                     final Class<?> propertyType = metaObject.getSetterType(property);
                     if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
                         final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-                        autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+                        final int columnIndex = configuration.isColumnIndexMappingEnabled() ? rsw.getColumnIndex(columnName) : 0;
+                        final PrimitivePropertyMapping primitiveMapping = propertyType.isPrimitive()
+                                ? PrimitivePropertyMapping.of(metaObject, property, typeHandler, reflectorFactory) : null;
+                        autoMapping.add(new UnMappedColumnAutoMapping(columnName, columnIndex, property, typeHandler, propertyType.isPrimitive(), primitiveMapping));
                     } else {
                         configuration.getAutoMappingUnknownColumnBehavior()
                                 .doAction(mappedStatement, columnName, property, propertyType);
@@ -475,12 +554,75 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return autoMapping;
     }
 
+    //
+    // COMPILED ROW MAPPERS
+    //
+
+    private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+        if (!configuration.isCompiledRowMappersEnabled()) {
+            return null;
+        }
+        final String mapKey = resultMap.getId();
+        if (compiledRowMappersCache.containsKey(mapKey)) {
+            return compiledRowMappersCache.get(mapKey);
+        }
+        CompiledRowMapper compiledRowMapper = null;
+        if (canCompileRowMapper(rsw, resultMap)) {
+            final List<RowMapperCompiler.ColumnMapping> mappings = new ArrayList<>();
+            if (shouldApplyAutomaticMappings(resultMap, false)) {
+                final MetaObject metaObject = configuration.newMetaObject(objectFactory.create(resultMap.getType()));
+                for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, metaObject, null)) {
+                    mappings.add(new RowMapperCompiler.ColumnMapping(mapping.column, mapping.property, mapping.typeHandler));
+                }
+            }
+            final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, null);
+            for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+                final String column = propertyMapping.getColumn();
+                // issue #541 make property optional
+                if (propertyMapping.getProperty() != null && column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+                    mappings.add(new RowMapperCompiler.ColumnMapping(column, propertyMapping.getProperty(), propertyMapping.getTypeHandler()));
+                }
+            }
+            compiledRowMapper = configuration.getRowMapperCompiler().getRowMapper(resultMap.getType(), mappings, reflectorFactory);
+        }
+        compiledRowMappersCache.put(mapKey, compiledRowMapper);
+        return compiledRowMapper;
+    }
+
+    private boolean canCompileRowMapper(ResultSetWrapper rsw, ResultMap resultMap) {
+        // discriminators, nested mappings, constructor mappings and custom wrappers keep the reflective path
+        final Class<?> resultType = resultMap.getType();
+        if (resultMap.getDiscriminator() != null || resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()
+                || !resultMap.getConstructorResultMappings().isEmpty()
+                || configuration.getObjectWrapperFactory().getClass() != DefaultObjectWrapperFactory.class
+                || Map.class.isAssignableFrom(resultType) || objectFactory.isCollection(resultType)
+                || !MetaClass.forClass(resultType, reflectorFactory).hasDefaultConstructor()
+                || hasTypeHandlerForResultObject(rsw, resultType)) {
+            return false;
+        }
+        for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+            if (propertyMapping.getResultSet() != null || propertyMapping.isCompositeResult()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private boolean applyAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
         List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
         boolean foundValues = false;
         if (!autoMapping.isEmpty()) {
+            final Object resultObject = metaObject.getOriginalObject();
             for (UnMappedColumnAutoMapping mapping : autoMapping) {
-                final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+                if (mapping.primitiveMapping != null && mapping.primitiveMapping.appliesTo(resultObject)) {
+                    if (mapping.primitiveMapping.apply(rsw.getResultSet(), mapping.column, mapping.columnIndex, resultObject)) {
+                        foundValues = true;
+                    }
+                    continue;
+                }
+                final Object value = mapping.columnIndex > 0
+                        ? mapping.typeHandler.getResult(rsw.getResultSet(), mapping.columnIndex)
+                        : mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
                 if (value != null) {
                     foundValues = true;
                 }
@@ -597,7 +739,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                     value = getRowValue(rsw, resultMap, constructorMapping.getColumnPrefix());
                 } else {
                     final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-                    value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+                    value = getColumnValue(rsw, typeHandler, prependPrefix(column, columnPrefix));
                 }
             } catch (ResultMapException | SQLException e) {
                 throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -631,7 +773,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             Class<?> parameterType = constructor.getParameterTypes()[i];
             String columnName = rsw.getColumnNames().get(i);
             TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-            Object value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(columnName, columnPrefix));
+            Object value = getColumnValue(rsw, typeHandler, prependPrefix(columnName, columnPrefix));
             constructorArgTypes.add(parameterType);
             constructorArgs.add(value);
             foundValues = value != null || foundValues;
@@ -672,6 +814,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             columnName = rsw.getColumnNames().get(0);
         }
         final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
+        return getColumnValue(rsw, typeHandler, columnName);
+    }
+
+    private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String columnName) throws SQLException {
+        if (configuration.isColumnIndexMappingEnabled()) {
+            final int columnIndex = rsw.getColumnIndex(columnName);
+            if (columnIndex > 0) {
+                return typeHandler.getResult(rsw.getResultSet(), columnIndex);
+            }
+        }
         return typeHandler.getResult(rsw.getResultSet(), columnName);
     }
 
@@ -707,7 +859,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 executor.deferLoad(nestedQuery, metaResultObject, property, key, targetType);
                 value = DEFERRED;
             } else {
-                final ResultLoader resultLoader = new ResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql);
+                final ResultLoader resultLoader;
+                if (propertyMapping.isLazy() && propertyMapping.getBatchQueryId() != null) {
+                    resultLoader = new BatchResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql,
+                            getLazyLoadBatch(propertyMapping));
+                } else {
+                    resultLoader = new ResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql);
+                }
                 if (propertyMapping.isLazy()) {
                     lazyLoader.addLoader(property, metaResultObject, resultLoader);
                     value = DEFERRED;
@@ -719,6 +877,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return value;
     }
 
+    private LazyLoadBatch getLazyLoadBatch(ResultMapping propertyMapping) {
+        final String batchQueryId = propertyMapping.getBatchQueryId();
+        return lazyLoadBatches.computeIfAbsent(batchQueryId + ":" + propertyMapping.getBatchKey(),
+                k -> new LazyLoadBatch(configuration, configuration.getMappedStatement(batchQueryId), propertyMapping.getBatchKey()));
+    }
+
     //
     // NESTED QUERY
     //
@@ -811,6 +975,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         skipRows(resultSet, rowBounds);
         Object rowValue = previousRowValue;
         while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+            rowCount++;
             final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
             final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
             Object partialObject = nestedResultObjects.get(rowKey);
@@ -1109,15 +1274,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     private static class UnMappedColumnAutoMapping {
         private final String column;
+        // the JDBC index of the column, 0 to read it by its label
+        private final int columnIndex;
         private final String property;
         private final TypeHandler<?> typeHandler;
         private final boolean primitive;
+        // sets primitive bean properties without boxing, null if the property or its handler does not allow it
+        private final PrimitivePropertyMapping primitiveMapping;
 
-        public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+        public UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive,
+                                         PrimitivePropertyMapping primitiveMapping) {
             this.column = column;
+            this.columnIndex = columnIndex;
             this.property = property;
             this.typeHandler = typeHandler;
             this.primitive = primitive;
+            this.primitiveMapping = primitiveMapping;
         }
     }
 
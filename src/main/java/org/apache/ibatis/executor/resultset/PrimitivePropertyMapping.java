@@ -0,0 +1,129 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.lang.UsesJava8;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.invoke.MethodHandle;
+import java.sql.ResultSet;
+
+/**
+ * Maps a column onto a primitive bean property without boxing: the column is read with a
+ * {@link PrimitiveTypeHandler} and the value is passed to a {@link Reflector#getPrimitiveSetter(String) method handle}
+ * of the setter.
+ */
+final class PrimitivePropertyMapping {
+
+    private final Class<?> resultType;
+    private final String property;
+    private final PrimitiveTypeHandler<?> typeHandler;
+    private final MethodHandle setter;
+
+    private PrimitivePropertyMapping(Class<?> resultType, String property, PrimitiveTypeHandler<?> typeHandler, MethodHandle setter) {
+        this.resultType = resultType;
+        this.property = property;
+        this.typeHandler = typeHandler;
+        this.setter = setter;
+    }
+
+    /**
+     * @return the mapping, or null if the property of the result object is not a primitive bean property or the type
+     * handler does not read primitives
+     */
+    static PrimitivePropertyMapping of(MetaObject metaObject, String property, TypeHandler<?> typeHandler, ReflectorFactory reflectorFactory) {
+        if (property == null || property.indexOf('.') >= 0 || property.indexOf('[') >= 0
+                || metaObject.getObjectWrapper().getClass() != BeanWrapper.class) {
+            return null;
+        }
+        final Class<?> resultType = metaObject.getOriginalObject().getClass();
+        final Reflector reflector = reflectorFactory.findForClass(resultType);
+        final MethodHandle setter = reflector.getPrimitiveSetter(property);
+        if (setter == null) {
+            return null;
+        }
+        final PrimitiveTypeHandler<?> primitiveTypeHandler = PrimitiveTypeHandler.forType(typeHandler, reflector.getSetterType(property));
+        return primitiveTypeHandler == null ? null : new PrimitivePropertyMapping(resultType, property, primitiveTypeHandler, setter);
+    }
+
+    /**
+     * @return whether the mapping has been created for the class of the result object
+     */
+    boolean appliesTo(Object resultObject) {
+        return resultObject.getClass() == resultType;
+    }
+
+    /**
+     * Reads the column and sets the property unless the column is SQL NULL.
+     *
+     * @param columnIndex the index of the column, or 0 to read it by its name
+     * @return true if the column was not null
+     */
+    @UsesJava8
+    boolean apply(ResultSet rs, String column, int columnIndex, Object resultObject) {
+        boolean reading = true;
+        try {
+            if (typeHandler instanceof PrimitiveTypeHandler.OfInt) {
+                final PrimitiveTypeHandler.OfInt handler = (PrimitiveTypeHandler.OfInt) typeHandler;
+                final int value = columnIndex > 0 ? handler.getInt(rs, columnIndex) : handler.getInt(rs, column);
+                if (handler.wasNull(rs)) {
+                    return false;
+                }
+                reading = false;
+                setter.invokeExact(resultObject, value);
+            } else if (typeHandler instanceof PrimitiveTypeHandler.OfLong) {
+                final PrimitiveTypeHandler.OfLong handler = (PrimitiveTypeHandler.OfLong) typeHandler;
+                final long value = columnIndex > 0 ? handler.getLong(rs, columnIndex) : handler.getLong(rs, column);
+                if (handler.wasNull(rs)) {
+                    return false;
+                }
+                reading = false;
+                setter.invokeExact(resultObject, value);
+            } else if (typeHandler instanceof PrimitiveTypeHandler.OfDouble) {
+                final PrimitiveTypeHandler.OfDouble handler = (PrimitiveTypeHandler.OfDouble) typeHandler;
+                final double value = columnIndex > 0 ? handler.getDouble(rs, columnIndex) : handler.getDouble(rs, column);
+                if (handler.wasNull(rs)) {
+                    return false;
+                }
+                reading = false;
+                setter.invokeExact(resultObject, value);
+            } else {
+                final PrimitiveTypeHandler.OfBoolean handler = (PrimitiveTypeHandler.OfBoolean) typeHandler;
+                final boolean value = columnIndex > 0 ? handler.getBoolean(rs, columnIndex) : handler.getBoolean(rs, column);
+                if (handler.wasNull(rs)) {
+                    return false;
+                }
+                reading = false;
+                setter.invokeExact(resultObject, value);
+            }
+            return true;
+        } catch (Throwable t) {
+            if (reading) {
+                final String columnName = columnIndex > 0 ? "#" + columnIndex : "'" + column + "'";
+                throw new ResultMapException("Error attempting to get column " + columnName + " from result set.  Cause: " + t, t);
+            }
+            throw new ReflectionException("Could not set property '" + property + "' of '" + resultType + "' Cause: " + t.toString(), t);
+        }
+    }
+
+}
@@ -16,7 +16,9 @@
 package org.apache.ibatis.executor.resultset;
 
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.*;
 
@@ -32,24 +34,55 @@ public class ResultSetWrapper {
 
     private final ResultSet resultSet;
     private final TypeHandlerRegistry typeHandlerRegistry;
-    private final List<String> columnNames = new ArrayList<>();
-    private final List<String> classNames = new ArrayList<>();
-    private final List<JdbcType> jdbcTypes = new ArrayList<>();
-    private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
+    private final ColumnLayout layout;
+    private final List<String> columnNames;
+    private final List<String> classNames;
+    private final List<JdbcType> jdbcTypes;
     private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
     private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+    private final Map<String, Integer> columnIndexMap = new HashMap<>();
+    private final Map<String, int[]> propertyColumnIndexesMap = new HashMap<>();
 
     public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
+        this(rs, configuration, null, 0);
+    }
+
+    /**
+     * @param mappedStatement the statement that has returned the result set, its last layout is reused if the
+     *                        result set metadata cache is enabled and the column labels have not changed
+     * @param resultSetIndex  the index of the result set among the ones returned by the statement
+     */
+    public ResultSetWrapper(ResultSet rs, Configuration configuration, MappedStatement mappedStatement, int resultSetIndex) throws SQLException {
         super();
         this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
         this.resultSet = rs;
+        final ColumnLayoutCache layoutCache = configuration.getColumnLayoutCache();
+        final String statementId = mappedStatement != null && configuration.isResultSetMetadataCacheEnabled() ? mappedStatement.getId() : null;
         final ResultSetMetaData metaData = rs.getMetaData();
         final int columnCount = metaData.getColumnCount();
+        final List<String> columnNames = new ArrayList<>(columnCount);
         for (int i = 1; i <= columnCount; i++) {
             columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
-            jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
-            classNames.add(metaData.getColumnClassName(i));
         }
+        final ColumnLayout previous = statementId == null ? null : layoutCache.getStatementLayout(statementId, resultSetIndex);
+        if (previous != null && previous.getColumnNames().equals(columnNames)) {
+            this.layout = previous;
+        } else {
+            final List<JdbcType> jdbcTypes = new ArrayList<>(columnCount);
+            final List<String> classNames = new ArrayList<>(columnCount);
+            for (int i = 1; i <= columnCount; i++) {
+                jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
+                classNames.add(metaData.getColumnClassName(i));
+            }
+            // handlers resolved for the same layout by earlier queries are reused
+            this.layout = layoutCache.intern(new ColumnLayout(columnNames, jdbcTypes, classNames));
+            if (statementId != null) {
+                layoutCache.putStatementLayout(statementId, resultSetIndex, layout);
+            }
+        }
+        this.columnNames = layout.getColumnNames();
+        this.jdbcTypes = layout.getJdbcTypes();
+        this.classNames = layout.getClassNames();
     }
 
     public ResultSet getResultSet() {
@@ -61,7 +94,7 @@ public class ResultSetWrapper {
     }
 
     public List<String> getClassNames() {
-        return Collections.unmodifiableList(classNames);
+        return classNames;
     }
 
     public List<JdbcType> getJdbcTypes() {
@@ -77,6 +110,53 @@ public class ResultSetWrapper {
         return null;
     }
 
+    /**
+     * Gets the index of a column like {@link ResultSet#findColumn(String)} does, without asking the driver.
+     *
+     * @param columnName the label of the column, case insensitive
+     * @return the JDBC index (starting at 1) of the first column with the label, or 0 if there is none
+     */
+    public int getColumnIndex(String columnName) {
+        Integer columnIndex = columnIndexMap.get(columnName);
+        if (columnIndex == null) {
+            columnIndex = 0;
+            for (int i = 0; i < columnNames.size(); i++) {
+                if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+                    columnIndex = i + 1;
+                    break;
+                }
+            }
+            columnIndexMap.put(columnName, columnIndex);
+        }
+        return columnIndex;
+    }
+
+    /**
+     * Gets the column indexes of the property mappings of a result map.
+     *
+     * @return the JDBC index of the column of each {@link ResultMap#getPropertyResultMappings() property mapping}, or 0
+     * for mappings without a column in this result set
+     */
+    public int[] getPropertyColumnIndexes(ResultMap resultMap, String columnPrefix) {
+        final String mapKey = getMapKey(resultMap, columnPrefix);
+        int[] columnIndexes = propertyColumnIndexesMap.get(mapKey);
+        if (columnIndexes == null) {
+            final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+            columnIndexes = new int[propertyMappings.size()];
+            for (int i = 0; i < columnIndexes.length; i++) {
+                final ResultMapping propertyMapping = propertyMappings.get(i);
+                final String column = propertyMapping.getColumn();
+                // a column attribute of a nested result map is ignored
+                if (column != null && column.length() > 0 && propertyMapping.getNestedResultMapId() == null) {
+                    final boolean prefixed = columnPrefix != null && columnPrefix.length() > 0;
+                    columnIndexes[i] = getColumnIndex(prefixed ? columnPrefix + column : column);
+                }
+            }
+            propertyColumnIndexesMap.put(mapKey, columnIndexes);
+        }
+        return columnIndexes;
+    }
+
     /**
      * Gets the type handler to use when reading the result set.
      * Tries to get from the TypeHandlerRegistry by searching for the property type.
@@ -87,38 +167,53 @@ public class ResultSetWrapper {
      * @return
      */
     public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
-        TypeHandler<?> handler = null;
-        Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
-        if (columnHandlers == null) {
-            columnHandlers = new HashMap<>();
-            typeHandlerMap.put(columnName, columnHandlers);
-        } else {
-            handler = columnHandlers.get(propertyType);
+        final int index = indexOf(columnName);
+        if (index < 0) {
+            return resolveTypeHandler(propertyType, columnName, null);
         }
+        final TypeHandler<?>[] columnHandlers = layout.getTypeHandlers(propertyType);
+        TypeHandler<?> handler = columnHandlers[index];
         if (handler == null) {
-            JdbcType jdbcType = getJdbcType(columnName);
-            handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
-            // Replicate logic of UnknownTypeHandler#resolveTypeHandler
-            // See issue #59 comment 10
-            if (handler == null || handler instanceof UnknownTypeHandler) {
-                final int index = columnNames.indexOf(columnName);
-                final Class<?> javaType = resolveClass(classNames.get(index));
-                if (javaType != null && jdbcType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
-                } else if (javaType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(javaType);
-                } else if (jdbcType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(jdbcType);
-                }
-            }
-            if (handler == null || handler instanceof UnknownTypeHandler) {
-                handler = new ObjectTypeHandler();
+            handler = resolveTypeHandler(propertyType, columnName, classNames.get(index));
+            columnHandlers[index] = handler;
+        }
+        return handler;
+    }
+
+    private TypeHandler<?> resolveTypeHandler(Class<?> propertyType, String columnName, String className) {
+        JdbcType jdbcType = getJdbcType(columnName);
+        TypeHandler<?> handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
+        // Replicate logic of UnknownTypeHandler#resolveTypeHandler
+        // See issue #59 comment 10
+        if (handler == null || handler instanceof UnknownTypeHandler) {
+            final Class<?> javaType = resolveClass(className);
+            if (javaType != null && jdbcType != null) {
+                handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+            } else if (javaType != null) {
+                handler = typeHandlerRegistry.getTypeHandler(javaType);
+            } else if (jdbcType != null) {
+                handler = typeHandlerRegistry.getTypeHandler(jdbcType);
             }
-            columnHandlers.put(propertyType, handler);
+        }
+        if (handler == null || handler instanceof UnknownTypeHandler) {
+            handler = new ObjectTypeHandler();
         }
         return handler;
     }
 
+    private int indexOf(String columnName) {
+        final int index = columnNames.indexOf(columnName);
+        if (index >= 0) {
+            return index;
+        }
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private Class<?> resolveClass(String className) {
         try {
             // #699 className could be null
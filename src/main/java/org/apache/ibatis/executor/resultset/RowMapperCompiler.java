@@ -0,0 +1,296 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.type.BigDecimalTypeHandler;
+import org.apache.ibatis.type.BooleanTypeHandler;
+import org.apache.ibatis.type.ByteTypeHandler;
+import org.apache.ibatis.type.DoubleTypeHandler;
+import org.apache.ibatis.type.FloatTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.ShortTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates {@link CompiledRowMapper}s with javassist and keeps them per result type and column layout.
+ * <p>
+ * A generated mapper calls the setters of the result type directly. Columns read by one of the built-in handlers for
+ * primitives, wrappers, {@link String} and {@link BigDecimal} are read with the matching typed {@link ResultSet}
+ * getter, all other columns go through their {@link TypeHandler}. If a mapping cannot be expressed this way (e.g. a
+ * property without a public setter), no mapper is generated and the caller keeps using reflection.
+ */
+public class RowMapperCompiler {
+
+    private static final Log log = LogFactory.getLog(RowMapperCompiler.class);
+
+    private static final Map<Class<?>, TypedGetter> TYPED_GETTERS = new HashMap<>();
+
+    static {
+        TYPED_GETTERS.put(BooleanTypeHandler.class, new TypedGetter("getBoolean", boolean.class, Boolean.class));
+        TYPED_GETTERS.put(ByteTypeHandler.class, new TypedGetter("getByte", byte.class, Byte.class));
+        TYPED_GETTERS.put(ShortTypeHandler.class, new TypedGetter("getShort", short.class, Short.class));
+        TYPED_GETTERS.put(IntegerTypeHandler.class, new TypedGetter("getInt", int.class, Integer.class));
+        TYPED_GETTERS.put(LongTypeHandler.class, new TypedGetter("getLong", long.class, Long.class));
+        TYPED_GETTERS.put(FloatTypeHandler.class, new TypedGetter("getFloat", float.class, Float.class));
+        TYPED_GETTERS.put(DoubleTypeHandler.class, new TypedGetter("getDouble", double.class, Double.class));
+        TYPED_GETTERS.put(StringTypeHandler.class, new TypedGetter("getString", null, String.class));
+        TYPED_GETTERS.put(BigDecimalTypeHandler.class, new TypedGetter("getBigDecimal", null, BigDecimal.class));
+    }
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    // empty for mappings that cannot be compiled, so that they are not tried again
+    private final Map<CacheKey, Optional<CompiledRowMapper>> rowMappers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the row mapper for the given result type and column mappings, generating it on first use.
+     *
+     * @return the row mapper, or null if the mappings cannot be compiled
+     */
+    CompiledRowMapper getRowMapper(Class<?> resultType, List<ColumnMapping> mappings, ReflectorFactory reflectorFactory) {
+        final CacheKey key = new CacheKey();
+        key.update(resultType);
+        for (ColumnMapping mapping : mappings) {
+            key.update(mapping.column);
+            key.update(mapping.property);
+            key.update(mapping.typeHandler);
+        }
+        return rowMappers.computeIfAbsent(key, k -> compile(resultType, mappings, reflectorFactory)).orElse(null);
+    }
+
+    private Optional<CompiledRowMapper> compile(Class<?> resultType, List<ColumnMapping> mappings, ReflectorFactory reflectorFactory) {
+        if (!Modifier.isPublic(resultType.getModifiers()) || Modifier.isAbstract(resultType.getModifiers())
+                || !hasPublicDefaultConstructor(resultType)) {
+            return notCompilable(resultType, "it has no public no-arg constructor");
+        }
+        final Reflector reflector = reflectorFactory.findForClass(resultType);
+        final Method[] setters = new Method[mappings.size()];
+        for (int i = 0; i < setters.length; i++) {
+            setters[i] = findSetter(resultType, reflector, mappings.get(i).property);
+            if (setters[i] == null) {
+                return notCompilable(resultType, "property '" + mappings.get(i).property + "' has no public setter");
+            }
+        }
+        final String className = resultType.getName() + "$$CompiledRowMapper$$" + counter.incrementAndGet();
+        try {
+            final ClassLoader parent = resultType.getClassLoader() != null ? resultType.getClassLoader() : CompiledRowMapper.class.getClassLoader();
+            final ClassPool pool = new ClassPool(null);
+            pool.appendClassPath(new LoaderClassPath(parent));
+            pool.appendClassPath(new ClassClassPath(CompiledRowMapper.class));
+            pool.appendSystemPath();
+            final CtClass ctClass = pool.makeClass(className);
+            ctClass.addInterface(pool.get(CompiledRowMapper.class.getName()));
+            ctClass.addField(CtField.make("private final java.lang.String[] columns;", ctClass));
+            ctClass.addField(CtField.make("private final " + TypeHandler.class.getName() + "[] typeHandlers;", ctClass));
+            ctClass.addConstructor(CtNewConstructor.make(
+                    new CtClass[]{pool.get(typeName(String[].class)), pool.get(typeName(TypeHandler[].class))}, new CtClass[0],
+                    "{ this.columns = $1; this.typeHandlers = $2; }", ctClass));
+            ctClass.addMethod(CtNewMethod.make("public java.lang.Object createResultObject() { return new " + typeName(resultType) + "(); }", ctClass));
+            ctClass.addMethod(CtNewMethod.make(applyMappingsSource(resultType, mappings, setters), ctClass));
+            final byte[] bytecode = ctClass.toBytecode();
+            ctClass.detach();
+
+            final Class<?> rowMapperClass = new RowMapperClassLoader(parent).define(className, bytecode);
+            final String[] columns = new String[mappings.size()];
+            final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[mappings.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = mappings.get(i).column;
+                typeHandlers[i] = mappings.get(i).typeHandler;
+            }
+            final CompiledRowMapper rowMapper = (CompiledRowMapper) rowMapperClass
+                    .getConstructor(String[].class, TypeHandler[].class).newInstance(columns, typeHandlers);
+            if (log.isDebugEnabled()) {
+                log.debug("Compiled row mapper " + className + " for columns " + Arrays.toString(columns));
+            }
+            return Optional.of(rowMapper);
+        } catch (Exception | LinkageError e) {
+            return notCompilable(resultType, e.toString());
+        }
+    }
+
+    private String applyMappingsSource(Class<?> resultType, List<ColumnMapping> mappings, Method[] setters) {
+        final String targetType = typeName(resultType);
+        final StringBuilder source = new StringBuilder();
+        source.append("public boolean applyMappings(java.sql.ResultSet rs, java.lang.Object resultObject, boolean callSettersOnNulls)")
+                .append(" throws java.sql.SQLException {\n");
+        source.append(targetType).append(" target = (").append(targetType).append(") resultObject;\n");
+        source.append("boolean foundValues = false;\n");
+        for (int i = 0; i < setters.length; i++) {
+            final Method setter = setters[i];
+            final Class<?> propertyType = setter.getParameterTypes()[0];
+            final TypedGetter getter = TYPED_GETTERS.get(mappings.get(i).typeHandler.getClass());
+            final String value = "value" + i;
+            final String setNull = propertyType.isPrimitive() ? ""
+                    : "if (callSettersOnNulls) { target." + setter.getName() + "((" + typeName(propertyType) + ") null); }";
+            if (getter != null && getter.primitiveType != null
+                    && (propertyType == getter.primitiveType || propertyType == getter.wrapperType)) {
+                // same semantics as the built-in handler: a zero that was NULL in the database is null
+                final String primitive = getter.primitiveType.getName();
+                final String argument = propertyType.isPrimitive() ? value : getter.wrapperType.getName() + ".valueOf(" + value + ")";
+                source.append(primitive).append(' ').append(value).append(" = rs.").append(getter.method).append("(columns[").append(i).append("]);\n");
+                source.append("if (rs.wasNull()) { ").append(setNull).append(" }\n");
+                source.append("else { target.").append(setter.getName()).append('(').append(argument).append("); foundValues = true; }\n");
+            } else {
+                final String read = getter != null && getter.primitiveType == null && propertyType == getter.wrapperType
+                        ? "rs." + getter.method + "(columns[" + i + "])"
+                        : "typeHandlers[" + i + "].getResult(rs, columns[" + i + "])";
+                final String argument = propertyType.isPrimitive()
+                        ? "((" + wrapperName(propertyType) + ") " + value + ")." + propertyType.getName() + "Value()"
+                        : "(" + typeName(propertyType) + ") " + value;
+                source.append("java.lang.Object ").append(value).append(" = ").append(read).append(";\n");
+                source.append("if (").append(value).append(" != null) { target.").append(setter.getName()).append('(').append(argument)
+                        .append("); foundValues = true; }\n");
+                source.append("else { ").append(setNull).append(" }\n");
+            }
+        }
+        source.append("return foundValues;\n}");
+        return source.toString();
+    }
+
+    private static Method findSetter(Class<?> type, Reflector reflector, String property) {
+        if (property == null || !reflector.hasSetter(property)) {
+            return null;
+        }
+        final Class<?> setterType = reflector.getSetterType(property);
+        if (!isPublic(setterType)) {
+            return null;
+        }
+        final String capitalized = property.substring(0, 1).toUpperCase(Locale.ENGLISH) + property.substring(1);
+        for (String name : new String[]{"set" + capitalized, "set" + property}) {
+            try {
+                final Method method = type.getMethod(name, setterType);
+                if (!Modifier.isStatic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next candidate
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPublic(Class<?> type) {
+        return type.isArray() ? isPublic(type.getComponentType()) : type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+    }
+
+    private static boolean hasPublicDefaultConstructor(Class<?> type) {
+        try {
+            type.getConstructor();
+            return !type.isMemberClass() || Modifier.isStatic(type.getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static String typeName(Class<?> type) {
+        return type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    private static String wrapperName(Class<?> primitiveType) {
+        for (TypedGetter getter : TYPED_GETTERS.values()) {
+            if (getter.primitiveType == primitiveType) {
+                return getter.wrapperType.getName();
+            }
+        }
+        return Character.class.getName();
+    }
+
+    private static Optional<CompiledRowMapper> notCompilable(Class<?> resultType, String reason) {
+        if (log.isDebugEnabled()) {
+            log.debug("Could not compile a row mapper for " + resultType.getName() + " because " + reason + ". Using reflection instead.");
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * A column of the result set and the property it is mapped to.
+     */
+    static final class ColumnMapping {
+
+        private final String column;
+        private final String property;
+        private final TypeHandler<?> typeHandler;
+
+        ColumnMapping(String column, String property, TypeHandler<?> typeHandler) {
+            this.column = column;
+            this.property = property;
+            this.typeHandler = typeHandler;
+        }
+    }
+
+    private static final class TypedGetter {
+
+        private final String method;
+        private final Class<?> primitiveType;
+        private final Class<?> wrapperType;
+
+        TypedGetter(String method, Class<?> primitiveType, Class<?> wrapperType) {
+            this.method = method;
+            this.primitiveType = primitiveType;
+            this.wrapperType = wrapperType;
+        }
+    }
+
+    /**
+     * Defines each generated class in its own loader, a child of the result type's loader, so that nothing is defined in
+     * the loader of the result type itself. Types of MyBatis that are not visible from the result type's loader are
+     * loaded from the loader of MyBatis. The compiler keeps its mappers, and with them their classes and the result
+     * types, for as long as its {@link org.apache.ibatis.session.Configuration} is reachable.
+     */
+    private static final class RowMapperClassLoader extends ClassLoader {
+
+        RowMapperClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            return CompiledRowMapper.class.getClassLoader().loadClass(name);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+}
@@ -18,6 +18,7 @@ package org.apache.ibatis.executor.statement;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.MultiRowInsert;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
@@ -61,7 +62,12 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
         if (boundSql == null) { // issue #435, get the key before calculating the statement
             generateKeys(parameterObject);
-            boundSql = mappedStatement.getBoundSql(parameterObject);
+            if (parameterObject instanceof MultiRowInsert.Chunk) {
+                // the rows of a multi-row insert are bound to the statement one by one when they are split
+                boundSql = ((MultiRowInsert.Chunk) parameterObject).getBoundSql();
+            } else {
+                boundSql = mappedStatement.getBoundSql(parameterObject);
+            }
         }
 
         this.boundSql = boundSql;
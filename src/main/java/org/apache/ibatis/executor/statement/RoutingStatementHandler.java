@@ -21,6 +21,8 @@ import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.metrics.Metric;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
@@ -35,8 +37,12 @@ import java.util.List;
 public class RoutingStatementHandler implements StatementHandler {
 
     private final StatementHandler delegate;
+    private final MetricsCollector metrics;
+    private final String statementId;
 
     public RoutingStatementHandler(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+        this.metrics = ms.getConfiguration().getMetricsCollector();
+        this.statementId = ms.getId();
 
         switch (ms.getStatementType()) {
             case STATEMENT:
@@ -56,12 +62,29 @@ public class RoutingStatementHandler implements StatementHandler {
 
     @Override
     public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
-        return delegate.prepare(connection, transactionTimeout);
+        if (!metrics.isEnabled()) {
+            return delegate.prepare(connection, transactionTimeout);
+        }
+        long start = System.nanoTime();
+        try {
+            return delegate.prepare(connection, transactionTimeout);
+        } finally {
+            metrics.recordTime(Metric.STATEMENT_PREPARE, statementId, System.nanoTime() - start);
+        }
     }
 
     @Override
     public void parameterize(Statement statement) throws SQLException {
-        delegate.parameterize(statement);
+        if (!metrics.isEnabled()) {
+            delegate.parameterize(statement);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.parameterize(statement);
+        } finally {
+            metrics.recordTime(Metric.STATEMENT_PARAMETERIZE, statementId, System.nanoTime() - start);
+        }
     }
 
     @Override
@@ -76,7 +99,15 @@ public class RoutingStatementHandler implements StatementHandler {
 
     @Override
     public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
-        return delegate.<E>query(statement, resultHandler);
+        if (!metrics.isEnabled()) {
+            return delegate.<E>query(statement, resultHandler);
+        }
+        long start = System.nanoTime();
+        try {
+            return delegate.<E>query(statement, resultHandler);
+        } finally {
+            metrics.recordTime(Metric.STATEMENT_QUERY, statementId, System.nanoTime() - start);
+        }
     }
 
     @Override
@@ -18,8 +18,14 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.cache.InvalidationTransport;
 import org.apache.ibatis.cache.decorators.*;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
+import org.apache.ibatis.executor.CacheRefresher;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -39,8 +45,19 @@ public class CacheBuilder {
     private Integer size;
     private Long clearInterval;
     private boolean readWrite;
+    private Class<? extends CacheSerializer> serializer;
     private Properties properties;
     private boolean blocking;
+    private boolean coalescing;
+    private Long coalescingTimeout;
+    private Long maxAge;
+    private Long staleWhileRevalidate;
+    private Long timeToLive;
+    private Long timeToIdle;
+    private Long refreshAhead;
+    private CacheRefresher refresher;
+    private boolean tagInvalidation;
+    private InvalidationTransport invalidationTransport;
 
     public CacheBuilder(String id) {
         this.id = id;
@@ -74,11 +91,93 @@ public class CacheBuilder {
         return this;
     }
 
+    /**
+     * Sets the serializer of a read/write cache. Defaults to {@link JavaCacheSerializer}.
+     */
+    public CacheBuilder serializer(Class<? extends CacheSerializer> serializer) {
+        this.serializer = serializer;
+        return this;
+    }
+
     public CacheBuilder blocking(boolean blocking) {
         this.blocking = blocking;
         return this;
     }
 
+    /**
+     * Uses a {@link CoalescingCache} instead of a {@link BlockingCache}.
+     */
+    public CacheBuilder coalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+        return this;
+    }
+
+    /**
+     * Milliseconds a coalesced miss waits for the in-flight load before loading on its own.
+     */
+    public CacheBuilder coalescingTimeout(Long coalescingTimeout) {
+        this.coalescingTimeout = coalescingTimeout;
+        return this;
+    }
+
+    /**
+     * Milliseconds after which a coalesced entry is stale.
+     */
+    public CacheBuilder maxAge(Long maxAge) {
+        this.maxAge = maxAge;
+        return this;
+    }
+
+    /**
+     * Milliseconds after {@link #maxAge(Long)} during which a stale entry is served while it is reloaded.
+     */
+    public CacheBuilder staleWhileRevalidate(Long staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        return this;
+    }
+
+    /**
+     * Milliseconds after which an entry expires, see {@link ExpiringCache}.
+     */
+    public CacheBuilder timeToLive(Long timeToLive) {
+        this.timeToLive = timeToLive;
+        return this;
+    }
+
+    /**
+     * Milliseconds after the last read after which an entry expires, see {@link ExpiringCache}.
+     */
+    public CacheBuilder timeToIdle(Long timeToIdle) {
+        this.timeToIdle = timeToIdle;
+        return this;
+    }
+
+    /**
+     * Milliseconds before the {@link #timeToLive(Long)} of an entry from which a read reloads it in the background
+     * with the given refresher.
+     */
+    public CacheBuilder refreshAhead(Long refreshAhead, CacheRefresher refresher) {
+        this.refreshAhead = refreshAhead;
+        this.refresher = refresher;
+        return this;
+    }
+
+    /**
+     * Adds a {@link TagIndexCache} so that statements with cache tags invalidate only the entries they affect.
+     */
+    public CacheBuilder tagInvalidation(boolean tagInvalidation) {
+        this.tagInvalidation = tagInvalidation;
+        return this;
+    }
+
+    /**
+     * Adds a {@link BroadcastingCache} that keeps the caches with the same id on other nodes consistent.
+     */
+    public CacheBuilder invalidationTransport(InvalidationTransport invalidationTransport) {
+        this.invalidationTransport = invalidationTransport;
+        return this;
+    }
+
     public CacheBuilder properties(Properties properties) {
         this.properties = properties;
         return this;
@@ -94,9 +193,26 @@ public class CacheBuilder {
                 cache = newCacheDecoratorInstance(decorator, cache);
                 setCacheProperties(cache);
             }
-            cache = setStandardDecorators(cache);
-        } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-            cache = new LoggingCache(cache);
+            cache = setStandardDecorators(cache, true, readWrite);
+        } else if (TinyLfuCache.class.equals(cache.getClass())) {
+            // bounded and thread-safe on its own
+            cache = setStandardDecorators(cache, false, readWrite);
+        } else if (OffHeapCache.class.equals(cache.getClass())) {
+            // bounded, thread-safe and copying on its own
+            if (serializer != null) {
+                ((OffHeapCache) cache).setSerializer(newSerializerInstance());
+            }
+            cache = setStandardDecorators(cache, false, false);
+        } else {
+            if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
+                cache = new LoggingCache(cache);
+            }
+            if (tagInvalidation) {
+                cache = newTagIndexCache(cache);
+            }
+            if (invalidationTransport != null) {
+                cache = BroadcastingCache.subscribe(cache, invalidationTransport);
+            }
         }
         return cache;
     }
@@ -110,7 +226,7 @@ public class CacheBuilder {
         }
     }
 
-    private Cache setStandardDecorators(Cache cache) {
+    private Cache setStandardDecorators(Cache cache, boolean synchronize, boolean serialize) {
         try {
             MetaObject metaCache = SystemMetaObject.forObject(cache);
             if (size != null && metaCache.hasSetter("size")) {
@@ -120,12 +236,26 @@ public class CacheBuilder {
                 cache = new ScheduledCache(cache);
                 ((ScheduledCache) cache).setClearInterval(clearInterval);
             }
-            if (readWrite) {
-                cache = new SerializedCache(cache);
+            if (timeToLive != null || timeToIdle != null) {
+                cache = newExpiringCache(cache);
+            }
+            if (serialize) {
+                cache = new SerializedCache(cache, newSerializerInstance());
             }
             cache = new LoggingCache(cache);
-            cache = new SynchronizedCache(cache);
-            if (blocking) {
+            if (synchronize) {
+                cache = new SynchronizedCache(cache);
+            }
+            if (tagInvalidation) {
+                // below the blocking decorator, whose removeObject only releases locks
+                cache = newTagIndexCache(cache);
+            }
+            if (invalidationTransport != null) {
+                cache = BroadcastingCache.subscribe(cache, invalidationTransport);
+            }
+            if (coalescing) {
+                cache = newCoalescingCache(cache);
+            } else if (blocking) {
                 cache = new BlockingCache(cache);
             }
             return cache;
@@ -134,9 +264,60 @@ public class CacheBuilder {
         }
     }
 
+    private Cache newExpiringCache(Cache cache) {
+        ExpiringCache expiringCache = new ExpiringCache(cache);
+        if (timeToLive != null) {
+            expiringCache.setTimeToLive(timeToLive);
+        }
+        if (timeToIdle != null) {
+            expiringCache.setTimeToIdle(timeToIdle);
+        }
+        if (timeToLive != null && refreshAhead != null && refresher != null) {
+            expiringCache.setRefreshAhead(refreshAhead);
+            // no more parameter objects than the cache holds entries, as many as the default eviction otherwise
+            expiringCache.setRefresher(refresher.register(id, size == null ? 1024 : size));
+        }
+        return expiringCache;
+    }
+
+    private Cache newCoalescingCache(Cache cache) {
+        CoalescingCache coalescingCache = new CoalescingCache(cache);
+        if (coalescingTimeout != null) {
+            coalescingCache.setTimeout(coalescingTimeout);
+        }
+        if (maxAge != null) {
+            coalescingCache.setMaxAge(maxAge);
+            if (staleWhileRevalidate != null) {
+                coalescingCache.setStaleWhileRevalidate(staleWhileRevalidate);
+            }
+        }
+        return coalescingCache;
+    }
+
+    private Cache newTagIndexCache(Cache cache) {
+        return new TagIndexCache(cache, maxKeys());
+    }
+
+    private int maxKeys() {
+        // leave room for keys that the cache has already evicted on its own
+        return size == null ? TagIndexCache.DEFAULT_MAX_KEYS : (int) Math.min(Integer.MAX_VALUE, 2L * size);
+    }
+
     private void setCacheProperties(Cache cache) {
+        setProperties(cache);
+        if (InitializingObject.class.isAssignableFrom(cache.getClass())) {
+            try {
+                ((InitializingObject) cache).initialize();
+            } catch (Exception e) {
+                throw new CacheException("Failed cache initialization for '" +
+                        cache.getId() + "' on '" + cache.getClass().getName() + "'", e);
+            }
+        }
+    }
+
+    private void setProperties(Object target) {
         if (properties != null) {
-            MetaObject metaCache = SystemMetaObject.forObject(cache);
+            MetaObject metaCache = SystemMetaObject.forObject(target);
             for (Map.Entry<Object, Object> entry : properties.entrySet()) {
                 String name = (String) entry.getKey();
                 String value = (String) entry.getValue();
@@ -171,14 +352,20 @@ public class CacheBuilder {
                 }
             }
         }
-        if (InitializingObject.class.isAssignableFrom(cache.getClass())) {
-            try {
-                ((InitializingObject) cache).initialize();
-            } catch (Exception e) {
-                throw new CacheException("Failed cache initialization for '" +
-                        cache.getId() + "' on '" + cache.getClass().getName() + "'", e);
-            }
+    }
+
+    private CacheSerializer newSerializerInstance() {
+        if (serializer == null) {
+            return new JavaCacheSerializer();
+        }
+        CacheSerializer instance;
+        try {
+            instance = serializer.getConstructor().newInstance();
+        } catch (Exception e) {
+            throw new CacheException("Could not instantiate cache serializer (" + serializer + "). Cause: " + e, e);
         }
+        setProperties(instance);
+        return instance;
     }
 
     private Cache newBaseCacheInstance(Class<? extends Cache> cacheClass, String id) {
@@ -21,12 +21,15 @@ import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Clinton Begin
@@ -56,6 +59,8 @@ public final class MappedStatement {
     private Log statementLog;
     private LanguageDriver lang;
     private String[] resultSets;
+    private String[] cacheTags;
+    private int rowsPerInsert;
 
     MappedStatement() {
         // constructor disabled
@@ -167,6 +172,58 @@ public final class MappedStatement {
         return resultSets;
     }
 
+    /**
+     * The tags of the second level cache entries this statement reads (selects) or invalidates (writes that flush
+     * the cache). Tags may contain {@code #{property}} placeholders that are replaced by parameter values.
+     *
+     * @return the tags, or null if the statement reads or invalidates the whole cache
+     */
+    public String[] getCacheTags() {
+        return cacheTags;
+    }
+
+    /**
+     * The number of rows an insert with a collection parameter inserts per statement.
+     *
+     * @return the number of rows, or 0 if the statement is executed once for the whole parameter
+     * @see org.apache.ibatis.executor.MultiRowInsert
+     */
+    public int getRowsPerInsert() {
+        return rowsPerInsert;
+    }
+
+    /**
+     * @param parameterObject the parameter of an execution of this statement
+     * @return the {@link #getCacheTags() cache tags} with their placeholders replaced, or null if there are none
+     */
+    public Set<String> resolveCacheTags(Object parameterObject) {
+        if (cacheTags == null) {
+            return null;
+        }
+        Set<String> tags = new HashSet<>();
+        GenericTokenParser parser = null;
+        for (String tag : cacheTags) {
+            if (tag.contains("#{")) {
+                if (parser == null) {
+                    parser = new GenericTokenParser("#{", "}", property -> String.valueOf(getTagValue(parameterObject, property)));
+                }
+                tag = parser.parse(tag);
+            }
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    private Object getTagValue(Object parameterObject, String property) {
+        if (parameterObject == null) {
+            return null;
+        }
+        if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+            return parameterObject;
+        }
+        return configuration.newMetaObject(parameterObject).getValue(property.trim());
+    }
+
     public BoundSql getBoundSql(Object parameterObject) {
         BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
         List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
@@ -308,6 +365,25 @@ public final class MappedStatement {
             return this;
         }
 
+        /**
+         * @param cacheTags comma separated {@link MappedStatement#getCacheTags() cache tags}
+         */
+        public Builder cacheTags(String cacheTags) {
+            String[] tags = delimitedStringToArray(cacheTags);
+            if (tags != null) {
+                for (int i = 0; i < tags.length; i++) {
+                    tags[i] = tags[i].trim();
+                }
+            }
+            mappedStatement.cacheTags = tags;
+            return this;
+        }
+
+        public Builder rowsPerInsert(int rowsPerInsert) {
+            mappedStatement.rowsPerInsert = rowsPerInsert;
+            return this;
+        }
+
         public MappedStatement build() {
             assert mappedStatement.configuration != null;
             assert mappedStatement.id != null;
@@ -45,6 +45,8 @@ public class ResultMapping {
     private String resultSet;
     private String foreignColumn;
     private boolean lazy;
+    private String batchQueryId;
+    private String batchKey;
 
     ResultMapping() {
     }
@@ -117,6 +119,25 @@ public class ResultMapping {
         this.lazy = lazy;
     }
 
+    /**
+     * Returns the statement that loads the results of the nested query for several keys at once.
+     *
+     * @return the statement id, or null if the nested query is not loaded in batches
+     */
+    public String getBatchQueryId() {
+        return batchQueryId;
+    }
+
+    /**
+     * Returns the property of the objects returned by the {@link #getBatchQueryId() batch query} that holds the key
+     * the nested query was called with.
+     *
+     * @return the property name
+     */
+    public String getBatchKey() {
+        return batchKey;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -164,6 +185,8 @@ public class ResultMapping {
         sb.append(", resultSet='").append(resultSet).append('\'');
         sb.append(", foreignColumn='").append(foreignColumn).append('\'');
         sb.append(", lazy=").append(lazy);
+        sb.append(", batchQueryId='").append(batchQueryId).append('\'');
+        sb.append(", batchKey='").append(batchKey).append('\'');
         sb.append('}');
         return sb.toString();
     }
@@ -251,6 +274,16 @@ public class ResultMapping {
             return this;
         }
 
+        public Builder batchQueryId(String batchQueryId) {
+            resultMapping.batchQueryId = batchQueryId;
+            return this;
+        }
+
+        public Builder batchKey(String batchKey) {
+            resultMapping.batchKey = batchKey;
+            return this;
+        }
+
         public ResultMapping build() {
             // lock down collections
             resultMapping.flags = Collections.unmodifiableList(resultMapping.flags);
@@ -273,6 +306,14 @@ public class ResultMapping {
             if (resultMapping.nestedResultMapId == null && resultMapping.column == null && resultMapping.composites.isEmpty()) {
                 throw new IllegalStateException("Mapping is missing column attribute for property " + resultMapping.property);
             }
+            if (resultMapping.batchQueryId != null) {
+                if (resultMapping.nestedQueryId == null || resultMapping.batchKey == null) {
+                    throw new IllegalStateException("A batch select requires a nested select and a batchKey in property " + resultMapping.property);
+                }
+                if (!resultMapping.composites.isEmpty()) {
+                    throw new IllegalStateException("A batch select cannot be used with composite columns in property " + resultMapping.property);
+                }
+            }
             if (resultMapping.getResultSet() != null) {
                 int numColumns = 0;
                 if (resultMapping.column != null) {
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a {@link Histogram} per metric and statement in memory. Meant for tests and diagnostics.
+ */
+public class InMemoryMetricsCollector implements MetricsCollector {
+
+    private static final String UNTAGGED = "";
+
+    private final Map<Metric, ConcurrentMap<String, Histogram>> histograms = new EnumMap<>(Metric.class);
+
+    public InMemoryMetricsCollector() {
+        for (Metric metric : Metric.values()) {
+            histograms.put(metric, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordTime(Metric metric, String statementId, long nanos) {
+        histogram(metric, statementId).record(nanos);
+    }
+
+    @Override
+    public void increment(Metric metric, String statementId, long count) {
+        histogram(metric, statementId).record(count);
+    }
+
+    /**
+     * @param metric      the measurement
+     * @param statementId the id of the mapped statement, or null for untagged metrics
+     * @return the histogram of the values recorded so far, or null if nothing has been recorded
+     */
+    public Histogram getHistogram(Metric metric, String statementId) {
+        return histograms.get(metric).get(statementId == null ? UNTAGGED : statementId);
+    }
+
+    /**
+     * @return the number of recorded values, e.g. the number of timed calls or of increments
+     */
+    public long getCount(Metric metric, String statementId) {
+        Histogram histogram = getHistogram(metric, statementId);
+        return histogram == null ? 0 : histogram.getCount();
+    }
+
+    /**
+     * @return the sum of the recorded values, e.g. the total time or the counter value
+     */
+    public long getTotal(Metric metric, String statementId) {
+        Histogram histogram = getHistogram(metric, statementId);
+        return histogram == null ? 0 : histogram.getTotal();
+    }
+
+    public void reset() {
+        for (Map<String, Histogram> map : histograms.values()) {
+            map.clear();
+        }
+    }
+
+    private Histogram histogram(Metric metric, String statementId) {
+        return histograms.get(metric).computeIfAbsent(statementId == null ? UNTAGGED : statementId, id -> new Histogram());
+    }
+
+    /**
+     * A histogram with power of two buckets, so percentiles are accurate within a factor of two.
+     */
+    public static class Histogram {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final AtomicLongArray buckets = new AtomicLongArray(65);
+
+        void record(long value) {
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+            buckets.incrementAndGet(value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value));
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotal() {
+            return total.sum();
+        }
+
+        public long getMax() {
+            return getCount() == 0 ? 0 : max.get();
+        }
+
+        public double getMean() {
+            long n = getCount();
+            return n == 0 ? 0 : (double) getTotal() / n;
+        }
+
+        /**
+         * @param percentile a value between 0 and 100
+         * @return an upper bound of the values below the given percentile
+         */
+        public long getPercentile(double percentile) {
+            long n = getCount();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100 * n);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) {
+                    return i == 0 ? 0 : Math.min(getMax(), i == 64 ? Long.MAX_VALUE : (1L << i) - 1);
+                }
+            }
+            return getMax();
+        }
+    }
+
+}
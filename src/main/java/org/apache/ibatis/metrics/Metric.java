@@ -0,0 +1,63 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * The measurements reported to a {@link MetricsCollector}.
+ */
+public enum Metric {
+
+    /**
+     * A query answered by the second level cache. Counter, tagged by statement.
+     */
+    SECOND_LEVEL_CACHE_HIT,
+
+    /**
+     * A query the second level cache had no entry for. Counter, tagged by statement.
+     */
+    SECOND_LEVEL_CACHE_MISS,
+
+    /**
+     * A query that went to the database, including result mapping. Time, tagged by statement.
+     */
+    DATABASE_QUERY,
+
+    /**
+     * The creation of a JDBC statement. Time, tagged by statement.
+     */
+    STATEMENT_PREPARE,
+
+    /**
+     * The binding of the parameters of a JDBC statement. Time, tagged by statement.
+     */
+    STATEMENT_PARAMETERIZE,
+
+    /**
+     * The execution of a JDBC query and the mapping of its results. Time, tagged by statement.
+     */
+    STATEMENT_QUERY,
+
+    /**
+     * The rows read from the result sets of a query, reported once per query. Counter, tagged by statement.
+     */
+    RESULT_ROWS,
+
+    /**
+     * The time a thread waited for a pooled connection. Time, not tagged.
+     */
+    CONNECTION_WAIT
+
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * SPI that receives timings and counters from the executors, statement handlers, result set handlers and pooled
+ * data sources.
+ * <p>
+ * Callers only take a measurement if {@link #isEnabled()} returns true, so a disabled collector adds no clock reads
+ * to the hot path. Implementations are called concurrently and must be thread-safe.
+ *
+ * @see org.apache.ibatis.session.Configuration#setMetricsCollector(MetricsCollector)
+ */
+public interface MetricsCollector {
+
+    boolean isEnabled();
+
+    /**
+     * @param metric      the measurement
+     * @param statementId the id of the mapped statement, or null if the metric is not tagged by statement
+     * @param nanos       the elapsed time in nanoseconds
+     */
+    void recordTime(Metric metric, String statementId, long nanos);
+
+    /**
+     * @param metric      the measurement
+     * @param statementId the id of the mapped statement, or null if the metric is not tagged by statement
+     * @param count       the amount to add
+     */
+    void increment(Metric metric, String statementId, long count);
+
+}
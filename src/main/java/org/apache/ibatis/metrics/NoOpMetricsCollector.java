@@ -0,0 +1,43 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * The default collector, which is disabled and ignores everything.
+ */
+public final class NoOpMetricsCollector implements MetricsCollector {
+
+    public static final NoOpMetricsCollector INSTANCE = new NoOpMetricsCollector();
+
+    private NoOpMetricsCollector() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void recordTime(Metric metric, String statementId, long nanos) {
+        // disabled
+    }
+
+    @Override
+    public void increment(Metric metric, String statementId, long count) {
+        // disabled
+    }
+
+}
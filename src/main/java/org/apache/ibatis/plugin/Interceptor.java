@@ -24,7 +24,13 @@ public interface Interceptor {
 
     Object intercept(Invocation invocation) throws Throwable;
 
-    Object plugin(Object target);
+    /**
+     * Wraps the target for this interceptor. Interceptors that keep this default are compiled together by the
+     * {@link InterceptorChain} instead of being asked one by one.
+     */
+    default Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
 
     void setProperties(Properties properties);
 
@@ -18,6 +18,8 @@ package org.apache.ibatis.plugin;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Clinton Begin
@@ -25,16 +27,31 @@ import java.util.List;
 public class InterceptorChain {
 
     private final List<Interceptor> interceptors = new ArrayList<>();
+    // per target class, the compiled pipeline while no interceptor overrides Interceptor#plugin, otherwise the empty
+    // pipeline the interceptors extend
+    private final Map<Class<?>, Plugin.Pipeline> pipelines = new ConcurrentHashMap<>();
+    private boolean compilable = true;
 
     public Object pluginAll(Object target) {
-        for (Interceptor interceptor : interceptors) {
-            target = interceptor.plugin(target);
+        if (compilable) {
+            return Plugin.wrap(target, pipelines.computeIfAbsent(target.getClass(), type -> Plugin.Pipeline.compile(type, interceptors)));
         }
-        return target;
+        return Plugin.wrapAll(target, interceptors,
+                pipelines.computeIfAbsent(target.getClass(), type -> Plugin.Pipeline.compile(type, Collections.emptyList())));
     }
 
     public void addInterceptor(Interceptor interceptor) {
         interceptors.add(interceptor);
+        pipelines.clear();
+        compilable = compilable && usesDefaultPlugin(interceptor);
+    }
+
+    private static boolean usesDefaultPlugin(Interceptor interceptor) {
+        try {
+            return interceptor.getClass().getMethod("plugin", Object.class).getDeclaringClass() == Interceptor.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
     }
 
     public List<Interceptor> getInterceptors() {
@@ -18,39 +18,103 @@ package org.apache.ibatis.plugin;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
+ * Proxies a target for the interceptors that intercept it.
+ * <p>
+ * Wrapping a plugin proxy again does not nest proxies: the interceptors of the proxy and the new one are flattened
+ * into a {@link Pipeline} that knows for each method the interceptors to call, so a call takes a single proxy hop no
+ * matter how many plugins are configured. {@link Invocation#proceed()} calls the next interceptor of the method and
+ * {@link Invocation#getTarget()} returns what the interceptor would have been wrapped around when nested.
+ * <p>
+ * A pipeline remembers the pipelines it has been extended to, so wrapping a target with the same interceptors again
+ * only looks them up. While {@link InterceptorChain} calls interceptors that override {@link Interceptor#plugin(Object)},
+ * it provides the empty pipeline of the target class to start from.
+ *
  * @author Clinton Begin
  */
 public class Plugin implements InvocationHandler {
 
+    // the empty pipeline of the target class of the InterceptorChain that is calling Interceptor#plugin
+    private static final ThreadLocal<Pipeline> ROOT = new ThreadLocal<>();
+
     private final Object target;
-    private final Interceptor interceptor;
-    private final Map<Class<?>, Set<Method>> signatureMap;
+    private final Pipeline pipeline;
 
-    private Plugin(Object target, Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap) {
+    private Plugin(Object target, Pipeline pipeline) {
         this.target = target;
-        this.interceptor = interceptor;
-        this.signatureMap = signatureMap;
+        this.pipeline = pipeline;
     }
 
     public static Object wrap(Object target, Interceptor interceptor) {
-        Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
-        Class<?> type = target.getClass();
-        Class<?>[] interfaces = getAllInterfaces(type, signatureMap);
-        if (interfaces.length > 0) {
-            return Proxy.newProxyInstance(
-                    type.getClassLoader(),
-                    interfaces,
-                    new Plugin(target, interceptor, signatureMap));
-        }
-        return target;
+        Plugin plugin = getPlugin(target);
+        if (plugin != null) {
+            Pipeline pipeline = plugin.pipeline.then(interceptor);
+            return pipeline == plugin.pipeline ? target : pipeline.newProxy(plugin.target);
+        }
+        Pipeline root = ROOT.get();
+        if (root != null && root.type == target.getClass()) {
+            return wrap(target, root.then(interceptor));
+        }
+        return wrap(target, Pipeline.compile(target.getClass(), Collections.singletonList(interceptor)));
+    }
+
+    /**
+     * Calls {@link Interceptor#plugin(Object)} of all interceptors, starting from the given empty pipeline of the
+     * target class whenever they wrap the target with this class.
+     */
+    static Object wrapAll(Object target, List<Interceptor> interceptors, Pipeline root) {
+        Pipeline previous = ROOT.get();
+        ROOT.set(root);
+        try {
+            for (Interceptor interceptor : interceptors) {
+                target = interceptor.plugin(target);
+            }
+            return target;
+        } finally {
+            if (previous == null) {
+                ROOT.remove();
+            } else {
+                ROOT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Wraps the target in a single proxy for all interceptors of a pipeline compiled for its class.
+     */
+    static Object wrap(Object target, Pipeline pipeline) {
+        Plugin plugin = getPlugin(target);
+        if (plugin != null) {
+            for (Interceptor interceptor : pipeline.interceptors) {
+                target = wrap(target, interceptor);
+            }
+            return target;
+        }
+        return pipeline.isEmpty() ? target : pipeline.newProxy(target);
+    }
+
+    private static Plugin getPlugin(Object target) {
+        if (target != null && Proxy.isProxyClass(target.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(target);
+            if (handler instanceof Plugin) {
+                return (Plugin) handler;
+            }
+        }
+        return null;
     }
 
     private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
@@ -89,9 +153,9 @@ public class Plugin implements InvocationHandler {
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         try {
-            Set<Method> methods = signatureMap.get(method.getDeclaringClass());
-            if (methods != null && methods.contains(method)) {
-                return interceptor.intercept(new Invocation(target, method, args));
+            int[] stages = pipeline.stagesByMethod.get(method);
+            if (stages != null) {
+                return pipeline.interceptors[stages[0]].intercept(new PipelineInvocation(this, stages, 0, method, args));
             }
             return method.invoke(target, args);
         } catch (Exception e) {
@@ -99,4 +163,166 @@ public class Plugin implements InvocationHandler {
         }
     }
 
+    /**
+     * The interceptors of a target class, in the order they have been wrapped around it, and for each intercepted
+     * method the indexes of its interceptors, outermost first.
+     */
+    static final class Pipeline {
+
+        private final Class<?> type;
+        private final Interceptor[] interceptors;
+        private final List<Map<Class<?>, Set<Method>>> signatureMaps;
+        private final Class<?>[] interfaces;
+        private final Map<Method, int[]> stagesByMethod = new HashMap<>();
+        // the pipelines of the first n interceptors, built when an interceptor asks for its target
+        private final Pipeline[] prefixes;
+        // the results of then(), copied on write as a pipeline is extended by a few interceptors only
+        private volatile Map<Interceptor, Pipeline> successors = Collections.emptyMap();
+
+        private Pipeline(Class<?> type, List<Interceptor> interceptors, List<Map<Class<?>, Set<Method>>> signatureMaps) {
+            this.type = type;
+            this.interceptors = interceptors.toArray(new Interceptor[interceptors.size()]);
+            this.signatureMaps = signatureMaps;
+            this.prefixes = new Pipeline[this.interceptors.length];
+            Set<Class<?>> allInterfaces = new LinkedHashSet<>();
+            for (Map<Class<?>, Set<Method>> signatureMap : signatureMaps) {
+                Collections.addAll(allInterfaces, getAllInterfaces(type, signatureMap));
+            }
+            this.interfaces = allInterfaces.toArray(new Class<?>[allInterfaces.size()]);
+            for (Class<?> anInterface : interfaces) {
+                for (Method method : anInterface.getMethods()) {
+                    int[] stages = stagesOf(method);
+                    if (stages.length > 0) {
+                        stagesByMethod.put(method, stages);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Compiles the interceptors that intercept the given class, the ones that do not are left out.
+         */
+        static Pipeline compile(Class<?> type, List<Interceptor> interceptors) {
+            List<Interceptor> stages = new ArrayList<>();
+            List<Map<Class<?>, Set<Method>>> signatureMaps = new ArrayList<>();
+            for (Interceptor interceptor : interceptors) {
+                Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
+                if (getAllInterfaces(type, signatureMap).length > 0) {
+                    stages.add(interceptor);
+                    signatureMaps.add(signatureMap);
+                }
+            }
+            return new Pipeline(type, stages, signatureMaps);
+        }
+
+        boolean isEmpty() {
+            return interceptors.length == 0;
+        }
+
+        /**
+         * @return this pipeline with the interceptor wrapped around it, or this pipeline if it does not intercept the
+         * target class
+         */
+        Pipeline then(Interceptor interceptor) {
+            Pipeline successor = successors.get(interceptor);
+            if (successor != null) {
+                return successor;
+            }
+            successor = extend(interceptor);
+            synchronized (this) {
+                Pipeline existing = successors.get(interceptor);
+                if (existing != null) {
+                    return existing;
+                }
+                Map<Interceptor, Pipeline> extended = new IdentityHashMap<>(successors);
+                extended.put(interceptor, successor);
+                successors = extended;
+            }
+            return successor;
+        }
+
+        private Pipeline extend(Interceptor interceptor) {
+            Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
+            if (getAllInterfaces(type, signatureMap).length == 0) {
+                return this;
+            }
+            List<Interceptor> stages = new ArrayList<>(interceptors.length + 1);
+            Collections.addAll(stages, interceptors);
+            stages.add(interceptor);
+            List<Map<Class<?>, Set<Method>>> extendedSignatureMaps = new ArrayList<>(signatureMaps);
+            extendedSignatureMaps.add(signatureMap);
+            return new Pipeline(type, stages, extendedSignatureMaps);
+        }
+
+        Object newProxy(Object target) {
+            return Proxy.newProxyInstance(type.getClassLoader(), interfaces, new Plugin(target, this));
+        }
+
+        /**
+         * @return the target as the interceptor at the given index would have seen it when nested
+         */
+        Object targetOf(int stage, Object target) {
+            if (stage == 0) {
+                return target;
+            }
+            Pipeline prefix = prefixes[stage];
+            if (prefix == null) {
+                prefix = new Pipeline(type, new ArrayList<>(Arrays.asList(interceptors).subList(0, stage)),
+                        signatureMaps.subList(0, stage));
+                prefixes[stage] = prefix;
+            }
+            return prefix.newProxy(target);
+        }
+
+        private int[] stagesOf(Method method) {
+            int[] stages = new int[interceptors.length];
+            int count = 0;
+            for (int i = interceptors.length - 1; i >= 0; i--) {
+                Set<Method> methods = signatureMaps.get(i).get(method.getDeclaringClass());
+                if (methods != null && methods.contains(method)) {
+                    stages[count++] = i;
+                }
+            }
+            return Arrays.copyOf(stages, count);
+        }
+    }
+
+    private static final class PipelineInvocation extends Invocation {
+
+        private final Plugin plugin;
+        private final int[] stages;
+        private final int position;
+        private Object stageTarget;
+
+        PipelineInvocation(Plugin plugin, int[] stages, int position, Method method, Object[] args) {
+            super(plugin.target, method, args);
+            this.plugin = plugin;
+            this.stages = stages;
+            this.position = position;
+        }
+
+        @Override
+        public Object getTarget() {
+            if (stageTarget == null) {
+                stageTarget = plugin.pipeline.targetOf(stages[position], plugin.target);
+            }
+            return stageTarget;
+        }
+
+        @Override
+        public Object proceed() throws InvocationTargetException, IllegalAccessException {
+            int next = position + 1;
+            if (next == stages.length) {
+                return super.proceed();
+            }
+            try {
+                return plugin.pipeline.interceptors[stages[next]].intercept(
+                        new PipelineInvocation(plugin, stages, next, getMethod(), getArgs()));
+            } catch (Throwable t) {
+                // as if the next interceptor had been called through its own proxy
+                throw new InvocationTargetException(ExceptionUtil.unwrapThrowable(t));
+            }
+        }
+    }
+
 }
@@ -21,9 +21,13 @@ import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 这个类的主要作用是通过反射去获取类的信息,比如类对应的class类型,类的可读属性,类的可写属性,类的构造方法,类的get方法,类的set方法,类的set方法的参数类型,类的get方法的返回值类型等等
@@ -80,6 +84,11 @@ public class Reflector {
      * 不区分大小写的属性集合
      */
     private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
+    /**
+     * 基本类型属性的 setting / getting 方法对应的 MethodHandle 的缓存，见 {@link #getPrimitiveSetter(String)}
+     */
+    private final Map<String, Optional<MethodHandle>> primitiveSetters = new ConcurrentHashMap<>();
+    private final Map<String, Optional<MethodHandle>> primitiveGetters = new ConcurrentHashMap<>();
 
     /**
      * 构造方法,每个 Reflector 对象对应一个类,Reflector 对象会缓存反射操作需要的类的元信息,例如构造方法,属性名,setting/getting 方法等
@@ -510,6 +519,58 @@ public class Reflector {
         return method;
     }
 
+    /**
+     * Gets a method handle of the setter of a primitive property, typed {@code (Object, primitive)void} so that it
+     * can be called with {@code invokeExact} without boxing the value.
+     *
+     * @param propertyName - the name of the property
+     * @return the handle, or null if the property is not set by a method with a primitive parameter
+     */
+    public MethodHandle getPrimitiveSetter(String propertyName) {
+        return primitiveSetters.computeIfAbsent(propertyName, name -> {
+            Invoker invoker = setMethods.get(name);
+            if (!(invoker instanceof MethodInvoker) || !invoker.getType().isPrimitive()) {
+                return Optional.empty();
+            }
+            return unreflect(((MethodInvoker) invoker).getMethod())
+                    .map(handle -> handle.asType(MethodType.methodType(void.class, Object.class, invoker.getType())));
+        }).orElse(null);
+    }
+
+    /**
+     * Gets a method handle of the getter of a primitive property, typed {@code (Object)primitive} so that it can be
+     * called with {@code invokeExact} without boxing the value.
+     *
+     * @param propertyName - the name of the property
+     * @return the handle, or null if the property is not read by a method with a primitive return type
+     */
+    public MethodHandle getPrimitiveGetter(String propertyName) {
+        return primitiveGetters.computeIfAbsent(propertyName, name -> {
+            Invoker invoker = getMethods.get(name);
+            if (!(invoker instanceof MethodInvoker) || !invoker.getType().isPrimitive()) {
+                return Optional.empty();
+            }
+            return unreflect(((MethodInvoker) invoker).getMethod())
+                    .map(handle -> handle.asType(MethodType.methodType(invoker.getType(), Object.class)));
+        }).orElse(null);
+    }
+
+    private static Optional<MethodHandle> unreflect(Method method) {
+        try {
+            return Optional.of(MethodHandles.publicLookup().unreflect(method));
+        } catch (IllegalAccessException e) {
+            if (!canControlMemberAccessible()) {
+                return Optional.empty();
+            }
+        }
+        try {
+            method.setAccessible(true);
+            return Optional.of(MethodHandles.lookup().unreflect(method));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Gets the type for a property setter
      *
@@ -17,17 +17,25 @@ package org.apache.ibatis.scripting.defaults;
 
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.lang.UsesJava8;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
 import org.apache.ibatis.type.TypeException;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
@@ -76,6 +84,9 @@ public class DefaultParameterHandler implements ParameterHandler {
                         value = parameterObject;
                     } else {
                         MetaObject metaObject = configuration.newMetaObject(parameterObject);
+                        if (setPrimitiveParameter(ps, i + 1, metaObject, parameterMapping)) {
+                            continue;
+                        }
                         value = metaObject.getValue(propertyName);
                     }
                     TypeHandler typeHandler = parameterMapping.getTypeHandler();
@@ -95,4 +106,50 @@ public class DefaultParameterHandler implements ParameterHandler {
         }
     }
 
+    /**
+     * Sets a primitive bean property without boxing it, if its type handler can set primitives.
+     *
+     * @return false if the parameter has to be set through its type handler
+     */
+    @UsesJava8
+    private boolean setPrimitiveParameter(PreparedStatement ps, int i, MetaObject metaObject, ParameterMapping parameterMapping) {
+        final String propertyName = parameterMapping.getProperty();
+        if (propertyName.indexOf('.') >= 0 || propertyName.indexOf('[') >= 0
+                || metaObject.getObjectWrapper().getClass() != BeanWrapper.class) {
+            return false;
+        }
+        final Reflector reflector = configuration.getReflectorFactory().findForClass(parameterObject.getClass());
+        final MethodHandle getter = reflector.getPrimitiveGetter(propertyName);
+        if (getter == null) {
+            return false;
+        }
+        final Class<?> propertyType = reflector.getGetterType(propertyName);
+        TypeHandler<?> mappedTypeHandler = parameterMapping.getTypeHandler();
+        if (mappedTypeHandler.getClass() == UnknownTypeHandler.class) {
+            // same handler as the UnknownTypeHandler would pick for the boxed value
+            mappedTypeHandler = typeHandlerRegistry.getTypeHandler(MethodType.methodType(propertyType).wrap().returnType(),
+                    parameterMapping.getJdbcType());
+        }
+        final PrimitiveTypeHandler<?> typeHandler = PrimitiveTypeHandler.forType(mappedTypeHandler, propertyType);
+        if (typeHandler == null) {
+            return false;
+        }
+        try {
+            if (typeHandler instanceof PrimitiveTypeHandler.OfInt) {
+                ((PrimitiveTypeHandler.OfInt) typeHandler).setInt(ps, i, (int) getter.invokeExact(parameterObject));
+            } else if (typeHandler instanceof PrimitiveTypeHandler.OfLong) {
+                ((PrimitiveTypeHandler.OfLong) typeHandler).setLong(ps, i, (long) getter.invokeExact(parameterObject));
+            } else if (typeHandler instanceof PrimitiveTypeHandler.OfDouble) {
+                ((PrimitiveTypeHandler.OfDouble) typeHandler).setDouble(ps, i, (double) getter.invokeExact(parameterObject));
+            } else {
+                ((PrimitiveTypeHandler.OfBoolean) typeHandler).setBoolean(ps, i, (boolean) getter.invokeExact(parameterObject));
+            }
+        } catch (SQLException e) {
+            throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
+        } catch (Throwable t) {
+            throw new ReflectionException("Could not get property '" + propertyName + "' from " + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+        }
+        return true;
+    }
+
 }
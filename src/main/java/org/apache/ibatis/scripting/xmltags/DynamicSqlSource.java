@@ -16,10 +16,15 @@
 package org.apache.ibatis.scripting.xmltags;
 
 import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -39,14 +44,70 @@ public class DynamicSqlSource implements SqlSource {
     public BoundSql getBoundSql(Object parameterObject) {
         DynamicContext context = new DynamicContext(configuration, parameterObject);
         rootSqlNode.apply(context);
-        SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
         Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-        SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
-        BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+        BoundSql boundSql = getParsedBoundSql(context, parameterObject, parameterType);
         for (Map.Entry<String, Object> entry : context.getBindings().entrySet()) {
             boundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
         }
         return boundSql;
     }
 
+    /*
+     * The rendered SQL contains the branches that fired and one placeholder per <foreach> item, so together with the
+     * parameter type it identifies the result of parsing its #{} placeholders. The only other input are the types of
+     * the bindings referenced by the placeholders, which are checked before a parsed SQL is reused.
+     */
+    private BoundSql getParsedBoundSql(DynamicContext context, Object parameterObject, Class<?> parameterType) {
+        final String sql = context.getSql();
+        if (configuration.getParsedSqlCacheSize() <= 0) {
+            SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+            return sqlSourceParser.parse(sql, parameterType, context.getBindings()).getBoundSql(parameterObject);
+        }
+        final Cache parsedSqlCache = configuration.getParsedSqlCache();
+        final CacheKey key = new CacheKey();
+        key.update(sql);
+        key.update(parameterType);
+        final MetaObject metaBindings = configuration.newMetaObject(context.getBindings());
+        ParsedSql parsedSql = (ParsedSql) parsedSqlCache.getObject(key);
+        if (parsedSql != null && parsedSql.matches(metaBindings)) {
+            return parsedSql.sqlSource.getBoundSql(parameterObject);
+        }
+        SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+        SqlSource sqlSource = sqlSourceParser.parse(sql, parameterType, context.getBindings());
+        BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+        parsedSqlCache.putObject(key, new ParsedSql(sqlSource, boundSql.getParameterMappings(), metaBindings));
+        return boundSql;
+    }
+
+    private static class ParsedSql {
+
+        private final SqlSource sqlSource;
+        private final String[] properties;
+        private final Class<?>[] bindingTypes;
+
+        ParsedSql(SqlSource sqlSource, List<ParameterMapping> parameterMappings, MetaObject metaBindings) {
+            this.sqlSource = sqlSource;
+            this.properties = new String[parameterMappings.size()];
+            this.bindingTypes = new Class<?>[parameterMappings.size()];
+            for (int i = 0; i < properties.length; i++) {
+                properties[i] = parameterMappings.get(i).getProperty();
+                bindingTypes[i] = bindingType(metaBindings, properties[i]);
+            }
+        }
+
+        boolean matches(MetaObject metaBindings) {
+            for (int i = 0; i < properties.length; i++) {
+                if (bindingTypes[i] != bindingType(metaBindings, properties[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // same lookup as SqlSourceBuilder, issue #448
+        private static Class<?> bindingType(MetaObject metaBindings, String property) {
+            return metaBindings.hasGetter(property) ? metaBindings.getGetterType(property) : null;
+        }
+    }
+
 }
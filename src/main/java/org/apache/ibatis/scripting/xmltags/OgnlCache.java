@@ -1,5 +1,5 @@
 /**
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  * <p>
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,15 @@ package org.apache.ibatis.scripting.xmltags;
 import ognl.Ognl;
 import ognl.OgnlException;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Caches OGNL parsed expressions.
+ * <p>
+ * Simple expressions such as {@code name != null and name != ''} are evaluated by a {@link PrecompiledExpression},
+ * all others by OGNL. The number of cached expressions is bounded.
  *
  * @author Eduardo Macarron
  *
@@ -33,7 +36,12 @@ public final class OgnlCache {
 
     private static final OgnlMemberAccess MEMBER_ACCESS = new OgnlMemberAccess();
     private static final OgnlClassResolver CLASS_RESOLVER = new OgnlClassResolver();
-    private static final Map<String, Object> expressionCache = new ConcurrentHashMap<>();
+    private static final int MAX_CACHED_EXPRESSIONS = 4096;
+    private static final TinyLfuCache expressionCache = new TinyLfuCache("OgnlExpressionCache");
+
+    static {
+        expressionCache.setSize(MAX_CACHED_EXPRESSIONS);
+    }
 
     private OgnlCache() {
         // Prevent Instantiation of Static Class
@@ -41,20 +49,48 @@ public final class OgnlCache {
 
     public static Object getValue(String expression, Object root) {
         try {
+            CachedExpression cached = getCachedExpression(expression);
+            if (cached.precompiled != null) {
+                Object value = cached.precompiled.getValue(root);
+                if (value != PrecompiledExpression.UNRESOLVED) {
+                    return value;
+                }
+            }
             Map context = Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
-            return Ognl.getValue(parseExpression(expression), context, root);
+            return Ognl.getValue(cached.getNode(), context, root);
         } catch (OgnlException e) {
             throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e, e);
         }
     }
 
-    private static Object parseExpression(String expression) throws OgnlException {
-        Object node = expressionCache.get(expression);
-        if (node == null) {
-            node = Ognl.parseExpression(expression);
-            expressionCache.put(expression, node);
+    private static CachedExpression getCachedExpression(String expression) {
+        CachedExpression cached = (CachedExpression) expressionCache.getObject(expression);
+        if (cached == null) {
+            cached = new CachedExpression(expression);
+            expressionCache.putObject(expression, cached);
+        }
+        return cached;
+    }
+
+    private static final class CachedExpression {
+
+        private final String expression;
+        private final PrecompiledExpression precompiled;
+        private volatile Object node;
+
+        CachedExpression(String expression) {
+            this.expression = expression;
+            this.precompiled = PrecompiledExpression.compile(expression);
+        }
+
+        Object getNode() throws OgnlException {
+            Object result = node;
+            if (result == null) {
+                result = Ognl.parseExpression(expression);
+                node = result;
+            }
+            return result;
         }
-        return node;
     }
 
 }
@@ -0,0 +1,629 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluates the OGNL expressions most commonly used in dynamic SQL without the OGNL interpreter.
+ * <p>
+ * Supported are property paths ({@code name}, {@code author.name}), the {@code size()}, {@code isEmpty()} and
+ * {@code length()} methods, {@code null}, boolean, integer and string literals, comparisons and the logical
+ * operators, e.g. {@code name != null and name != ''} or {@code ids.size() > 0}. The semantics are those of OGNL. If a
+ * value is met whose OGNL semantics are not reproduced here (e.g. comparing a number with a string), evaluation
+ * returns {@link #UNRESOLVED} and the caller must evaluate the expression with OGNL.
+ *
+ * @see OgnlCache
+ */
+final class PrecompiledExpression {
+
+    static final Object UNRESOLVED = new Object();
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "and", "or", "not", "eq", "neq", "lt", "gt", "lte", "gte", "null", "true", "false",
+            "in", "instanceof", "new", "bor", "xor", "band", "shl", "shr", "ushr"));
+
+    private static final Set<String> SPECIAL_MAP_PROPERTIES = new HashSet<>(Arrays.asList(
+            "size", "keys", "keySet", "values", "isEmpty"));
+
+    private static final DynamicContext.ContextAccessor CONTEXT_ACCESSOR = new DynamicContext.ContextAccessor();
+
+    private final Node root;
+
+    private PrecompiledExpression(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles the given expression.
+     *
+     * @param expression an OGNL expression
+     * @return the compiled expression, or null if the expression is not supported
+     */
+    static PrecompiledExpression compile(String expression) {
+        final List<String> tokens = tokenize(expression);
+        if (tokens == null) {
+            return null;
+        }
+        final Parser parser = new Parser(tokens);
+        final Node node = parser.parseOr();
+        return node != null && parser.atEnd() ? new PrecompiledExpression(node) : null;
+    }
+
+    /**
+     * Evaluates this expression.
+     *
+     * @param root the OGNL root object
+     * @return the value, or {@link #UNRESOLVED} if the expression must be evaluated with OGNL
+     */
+    Object getValue(Object root) {
+        try {
+            return this.root.getValue(root);
+        } catch (RuntimeException e) {
+            // let OGNL decide about the value or report the error
+            return UNRESOLVED;
+        }
+    }
+
+    private static List<String> tokenize(String expression) {
+        final List<String> tokens = new ArrayList<>();
+        final int length = expression.length();
+        int i = 0;
+        while (i < length) {
+            final char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(expression.charAt(end))) {
+                    end++;
+                }
+                tokens.add(expression.substring(i, end));
+                i = end;
+            } else if (c >= '0' && c <= '9') {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(expression.charAt(end))) {
+                    end++;
+                }
+                final String number = expression.substring(i, end);
+                // no octal, hex, suffixed, decimal or long literals
+                if (number.length() > 9 || (number.length() > 1 && c == '0') || (end < length && expression.charAt(end) == '.')) {
+                    return null;
+                }
+                for (int j = 0; j < number.length(); j++) {
+                    if (number.charAt(j) < '0' || number.charAt(j) > '9') {
+                        return null;
+                    }
+                }
+                tokens.add(number);
+                i = end;
+            } else if (c == '\'' || c == '"') {
+                final int end = expression.indexOf(c, i + 1);
+                // no escapes and no character literals
+                if (end < 0 || expression.lastIndexOf('\\', end) > i || (c == '\'' && end - i == 2)) {
+                    return null;
+                }
+                tokens.add(expression.substring(i, end + 1));
+                i = end + 1;
+            } else {
+                final String operator = i + 1 < length ? expression.substring(i, i + 2) : null;
+                if ("==".equals(operator) || "!=".equals(operator) || "<=".equals(operator) || ">=".equals(operator)
+                        || "&&".equals(operator) || "||".equals(operator)) {
+                    tokens.add(operator);
+                    i += 2;
+                } else if ("<>!().".indexOf(c) >= 0) {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                } else {
+                    return null;
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Parser {
+
+        private final List<String> tokens;
+        private int position;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean atEnd() {
+            return position == tokens.size();
+        }
+
+        private String peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        private boolean accept(String... candidates) {
+            final String token = peek();
+            for (String candidate : candidates) {
+                if (candidate.equals(token)) {
+                    position++;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Node parseOr() {
+            Node left = parseAnd();
+            while (left != null && accept("||", "or")) {
+                final Node right = parseAnd();
+                left = right == null ? null : new OrNode(left, right);
+            }
+            return left;
+        }
+
+        private Node parseAnd() {
+            Node left = parseEquality();
+            while (left != null && accept("&&", "and")) {
+                final Node right = parseEquality();
+                left = right == null ? null : new AndNode(left, right);
+            }
+            return left;
+        }
+
+        private Node parseEquality() {
+            Node left = parseRelational();
+            while (left != null) {
+                final boolean negate;
+                if (accept("==", "eq")) {
+                    negate = false;
+                } else if (accept("!=", "neq")) {
+                    negate = true;
+                } else {
+                    break;
+                }
+                final Node right = parseRelational();
+                left = right == null ? null : new EqualNode(left, right, negate);
+            }
+            return left;
+        }
+
+        private Node parseRelational() {
+            Node left = parseUnary();
+            while (left != null) {
+                final Operator operator;
+                if (accept("<", "lt")) {
+                    operator = Operator.LESS;
+                } else if (accept(">", "gt")) {
+                    operator = Operator.GREATER;
+                } else if (accept("<=", "lte")) {
+                    operator = Operator.LESS_OR_EQUAL;
+                } else if (accept(">=", "gte")) {
+                    operator = Operator.GREATER_OR_EQUAL;
+                } else {
+                    break;
+                }
+                final Node right = parseUnary();
+                left = right == null ? null : new CompareNode(left, right, operator);
+            }
+            return left;
+        }
+
+        private Node parseUnary() {
+            if (accept("!", "not")) {
+                final Node operand = parseUnary();
+                return operand == null ? null : new NotNode(operand);
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            final String token = peek();
+            if (token == null) {
+                return null;
+            }
+            if (accept("(")) {
+                final Node node = parseOr();
+                return node != null && accept(")") ? node : null;
+            }
+            position++;
+            if ("null".equals(token)) {
+                return new LiteralNode(null);
+            } else if ("true".equals(token) || "false".equals(token)) {
+                return new LiteralNode(Boolean.valueOf(token));
+            } else if (token.charAt(0) == '\'' || token.charAt(0) == '"') {
+                return new LiteralNode(token.substring(1, token.length() - 1));
+            } else if (Character.isDigit(token.charAt(0))) {
+                return new LiteralNode(Integer.valueOf(token));
+            } else if (Character.isJavaIdentifierStart(token.charAt(0)) && !KEYWORDS.contains(token)) {
+                return parsePath(token);
+            }
+            return null;
+        }
+
+        private Node parsePath(String first) {
+            final List<String> names = new ArrayList<>();
+            names.add(first);
+            while (accept(".")) {
+                final String name = peek();
+                if (name == null || !Character.isJavaIdentifierStart(name.charAt(0)) || KEYWORDS.contains(name)) {
+                    return null;
+                }
+                position++;
+                if (accept("(")) {
+                    // a method call ends the path
+                    final Node target = new PathNode(names.toArray(new String[0]));
+                    return accept(")") && MethodNode.isSupported(name) ? new MethodNode(target, name) : null;
+                }
+                names.add(name);
+            }
+            return "(".equals(peek()) ? null : new PathNode(names.toArray(new String[0]));
+        }
+    }
+
+    private abstract static class Node {
+
+        abstract Object getValue(Object root);
+    }
+
+    /**
+     * Thrown when a value is met that is not handled by the precompiled expression.
+     */
+    private static final class UnresolvedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final UnresolvedException INSTANCE = new UnresolvedException();
+
+        private UnresolvedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class LiteralNode extends Node {
+
+        private final Object value;
+
+        LiteralNode(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object getValue(Object root) {
+            return value;
+        }
+    }
+
+    private static final class PathNode extends Node {
+
+        private final String[] names;
+        private final GetterCache[] getters;
+
+        PathNode(String[] names) {
+            this.names = names;
+            this.getters = new GetterCache[names.length];
+            for (int i = 0; i < names.length; i++) {
+                getters[i] = new GetterCache(names[i]);
+            }
+        }
+
+        @Override
+        Object getValue(Object root) {
+            Object value = root;
+            for (int i = 0; i < names.length; i++) {
+                if (value instanceof DynamicContext.ContextMap) {
+                    value = CONTEXT_ACCESSOR.getProperty(null, value, names[i]);
+                } else if (value instanceof Map) {
+                    if (SPECIAL_MAP_PROPERTIES.contains(names[i])) {
+                        throw UnresolvedException.INSTANCE;
+                    }
+                    value = ((Map<?, ?>) value).get(names[i]);
+                } else {
+                    value = getters[i].getValue(value);
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Remembers the getter of the last class a property was read from.
+     */
+    private static final class GetterCache {
+
+        private final String property;
+        private volatile Getter last;
+
+        GetterCache(String property) {
+            this.property = property;
+        }
+
+        Object getValue(Object target) {
+            if (target == null || target instanceof Collection || target instanceof Iterator
+                    || target instanceof Enumeration || target.getClass().isArray()) {
+                throw UnresolvedException.INSTANCE;
+            }
+            Getter getter = last;
+            if (getter == null || getter.type != target.getClass()) {
+                getter = new Getter(target.getClass(), findGetter(target.getClass(), property));
+                last = getter;
+            }
+            if (getter.method == null) {
+                throw UnresolvedException.INSTANCE;
+            }
+            try {
+                return getter.method.invoke(target);
+            } catch (ReflectiveOperationException e) {
+                throw UnresolvedException.INSTANCE;
+            }
+        }
+
+        private static Method findGetter(Class<?> type, String property) {
+            final String capitalized = capitalize(property);
+            Method getter = null;
+            for (Method method : type.getMethods()) {
+                if (method.getParameterTypes().length == 0 && !method.isBridge() && !Modifier.isStatic(method.getModifiers())
+                        && (method.getName().equals("get" + capitalized) || method.getName().equals("is" + capitalized))) {
+                    if (getter != null) {
+                        // ambiguous, OGNL picks one by its own rules
+                        return null;
+                    }
+                    getter = method;
+                }
+            }
+            if (getter != null && !Modifier.isPublic(getter.getDeclaringClass().getModifiers())) {
+                try {
+                    getter.setAccessible(true);
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }
+            return getter;
+        }
+
+        // same as OgnlRuntime.capitalizeBeanPropertyName(), e.g. eMail is read by geteMail()
+        private static String capitalize(String property) {
+            if (property.length() > 1 && Character.isLowerCase(property.charAt(0))
+                    && Character.isUpperCase(property.charAt(1))) {
+                return property;
+            }
+            return Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        }
+    }
+
+    private static final class Getter {
+
+        private final Class<?> type;
+        private final Method method;
+
+        Getter(Class<?> type, Method method) {
+            this.type = type;
+            this.method = method;
+        }
+    }
+
+    private static final class MethodNode extends Node {
+
+        private final Node target;
+        private final String method;
+
+        MethodNode(Node target, String method) {
+            this.target = target;
+            this.method = method;
+        }
+
+        static boolean isSupported(String method) {
+            return "size".equals(method) || "isEmpty".equals(method) || "length".equals(method);
+        }
+
+        @Override
+        Object getValue(Object root) {
+            final Object value = target.getValue(root);
+            if ("size".equals(method)) {
+                if (value instanceof Collection) {
+                    return ((Collection<?>) value).size();
+                } else if (value instanceof Map) {
+                    return ((Map<?, ?>) value).size();
+                }
+            } else if ("isEmpty".equals(method)) {
+                if (value instanceof Collection) {
+                    return ((Collection<?>) value).isEmpty();
+                } else if (value instanceof Map) {
+                    return ((Map<?, ?>) value).isEmpty();
+                } else if (value instanceof String) {
+                    return ((String) value).isEmpty();
+                }
+            } else if (value instanceof CharSequence) {
+                return ((CharSequence) value).length();
+            }
+            throw UnresolvedException.INSTANCE;
+        }
+    }
+
+    private static final class NotNode extends Node {
+
+        private final Node operand;
+
+        NotNode(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object getValue(Object root) {
+            return booleanValue(operand.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+        }
+    }
+
+    private static final class AndNode extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        AndNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object getValue(Object root) {
+            final Object value = left.getValue(root);
+            return booleanValue(value) ? right.getValue(root) : value;
+        }
+    }
+
+    private static final class OrNode extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        OrNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object getValue(Object root) {
+            final Object value = left.getValue(root);
+            return booleanValue(value) ? value : right.getValue(root);
+        }
+    }
+
+    private static final class EqualNode extends Node {
+
+        private final Node left;
+        private final Node right;
+        private final boolean negate;
+
+        EqualNode(Node left, Node right, boolean negate) {
+            this.left = left;
+            this.right = right;
+            this.negate = negate;
+        }
+
+        @Override
+        Object getValue(Object root) {
+            return equal(left.getValue(root), right.getValue(root)) != negate;
+        }
+
+        private static boolean equal(Object v1, Object v2) {
+            if (v1 == null || v2 == null) {
+                return v1 == v2;
+            }
+            if (v1 instanceof String && v2 instanceof String || v1 instanceof Boolean && v2 instanceof Boolean) {
+                return v1.equals(v2);
+            }
+            if (isIntegral(v1) && isIntegral(v2)) {
+                return ((Number) v1).longValue() == ((Number) v2).longValue();
+            }
+            if (isSupportedNumber(v1) && isSupportedNumber(v2)) {
+                final double d1 = ((Number) v1).doubleValue();
+                final double d2 = ((Number) v2).doubleValue();
+                if (Double.isNaN(d1) || Double.isNaN(d2)) {
+                    // OGNL compares boxed numbers with equals() first, which holds for NaN
+                    throw UnresolvedException.INSTANCE;
+                }
+                return d1 == d2;
+            }
+            throw UnresolvedException.INSTANCE;
+        }
+    }
+
+    private enum Operator {
+        LESS, GREATER, LESS_OR_EQUAL, GREATER_OR_EQUAL
+    }
+
+    private static final class CompareNode extends Node {
+
+        private final Node left;
+        private final Node right;
+        private final Operator operator;
+
+        CompareNode(Node left, Node right, Operator operator) {
+            this.left = left;
+            this.right = right;
+            this.operator = operator;
+        }
+
+        @Override
+        Object getValue(Object root) {
+            final int result = compare(left.getValue(root), right.getValue(root));
+            switch (operator) {
+                case LESS:
+                    return result < 0;
+                case GREATER:
+                    return result > 0;
+                case LESS_OR_EQUAL:
+                    // OGNL evaluates a <= b as !(a > b)
+                    return result <= 0;
+                default:
+                    return result >= 0;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static int compare(Object v1, Object v2) {
+            if (v1 instanceof String && v2 instanceof String) {
+                return ((String) v1).compareTo((String) v2);
+            }
+            if (isIntegral(v1) && isIntegral(v2)) {
+                return Long.compare(((Number) v1).longValue(), ((Number) v2).longValue());
+            }
+            if (isSupportedNumber(v1) && isSupportedNumber(v2)) {
+                final double d1 = ((Number) v1).doubleValue();
+                final double d2 = ((Number) v2).doubleValue();
+                return d1 == d2 ? 0 : (d1 < d2 ? -1 : 1);
+            }
+            throw UnresolvedException.INSTANCE;
+        }
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isSupportedNumber(Object value) {
+        return isIntegral(value) || value instanceof Double || value instanceof Float;
+    }
+
+    // same as OgnlOps.booleanValue()
+    private static boolean booleanValue(Object value) {
+        if (value == null) {
+            return false;
+        }
+        final Class<?> type = value.getClass();
+        if (type == Boolean.class) {
+            return (Boolean) value;
+        }
+        if (type == String.class) {
+            return Boolean.parseBoolean((String) value);
+        }
+        if (type == Character.class) {
+            return (Character) value != 0;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        return true;
+    }
+
+}
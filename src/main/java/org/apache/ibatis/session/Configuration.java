@@ -16,18 +16,27 @@
 package org.apache.ibatis.session;
 
 import org.apache.ibatis.binding.MapperRegistry;
+import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.InvalidationTransport;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
+import org.apache.ibatis.cache.serializer.CacheSerializerRegistry;
+import org.apache.ibatis.cache.transport.FileInvalidationTransport;
+import org.apache.ibatis.cache.transport.LoopbackInvalidationTransport;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.*;
@@ -36,8 +45,10 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ColumnLayoutCache;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.RowMapperCompiler;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -51,6 +62,8 @@ import org.apache.ibatis.logging.nologging.NoLoggingImpl;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.logging.stdout.StdOutImpl;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.metrics.MetricsCollector;
+import org.apache.ibatis.metrics.NoOpMetricsCollector;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
@@ -74,6 +87,10 @@ import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 /**
@@ -86,6 +103,7 @@ public class Configuration {
     protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
     protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
     protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
+    protected final CacheSerializerRegistry cacheSerializerRegistry = new CacheSerializerRegistry();
     protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
             .conflictMessageProducer((savedValue, targetValue) ->
                     ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
@@ -99,12 +117,17 @@ public class Configuration {
     protected final Collection<CacheRefResolver> incompleteCacheRefs = new LinkedList<>();
     protected final Collection<ResultMapResolver> incompleteResultMaps = new LinkedList<>();
     protected final Collection<MethodResolver> incompleteMethods = new LinkedList<>();
+    // result mappings whose batch select has not been looked up yet
+    protected final Collection<ResultMapping> uncheckedBatchSelects = new LinkedList<>();
     /*
      * A map holds cache-ref relationship. The key is the namespace that
      * references a cache bound to another namespace and the value is the
      * namespace which the actual cache is bound to.
      */
     protected final Map<String, String> cacheRefMap = new HashMap<>();
+    protected final RowMapperCompiler rowMapperCompiler = new RowMapperCompiler();
+    protected final ColumnLayoutCache columnLayoutCache = new ColumnLayoutCache(typeHandlerRegistry);
+    protected final TinyLfuCache parsedSqlCache = new TinyLfuCache("ParsedSqlCache");
     protected Environment environment;
     protected boolean safeRowBoundsEnabled;
     protected boolean safeResultHandlerEnabled = true;
@@ -117,6 +140,21 @@ public class Configuration {
     protected boolean callSettersOnNulls;
     protected boolean useActualParamName = true;
     protected boolean returnInstanceForEmptyRow;
+    protected boolean compiledRowMappersEnabled;
+    protected boolean resultSetMetadataCacheEnabled;
+    protected boolean columnIndexMappingEnabled;
+    protected int parsedSqlCacheSize = 1024;
+    protected int lazyLoadBatchSize = 100;
+    protected int batchFlushSize;
+    protected long batchFlushBytes;
+    protected MetricsCollector metricsCollector = NoOpMetricsCollector.INSTANCE;
+    protected InvalidationTransport cacheInvalidationTransport;
+    protected final CacheRefresher cacheRefresher = new CacheRefresher(this);
+    protected int asyncExecutorPoolSize = Runtime.getRuntime().availableProcessors();
+    protected int asyncExecutorQueueSize = 1024;
+    protected volatile java.util.concurrent.Executor asyncExecutor;
+    protected ThreadPoolExecutor defaultAsyncExecutor;
+    protected SqlSessionFactory asyncSqlSessionFactory;
     protected String logPrefix;
     protected Class<? extends Log> logImpl;
     protected Class<? extends VFS> vfsImpl;
@@ -154,14 +192,21 @@ public class Configuration {
 
         typeAliasRegistry.registerAlias("JNDI", JndiDataSourceFactory.class);
         typeAliasRegistry.registerAlias("POOLED", PooledDataSourceFactory.class);
+        typeAliasRegistry.registerAlias("CONCURRENT_POOLED", ConcurrentPooledDataSourceFactory.class);
         typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
 
         typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
+        typeAliasRegistry.registerAlias("TINY_LFU", TinyLfuCache.class);
+        typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
         typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
         typeAliasRegistry.registerAlias("LRU", LruCache.class);
         typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
         typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
 
+
+        typeAliasRegistry.registerAlias("LOOPBACK", LoopbackInvalidationTransport.class);
+        typeAliasRegistry.registerAlias("FILE", FileInvalidationTransport.class);
+
         typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
         typeAliasRegistry.registerAlias("XML", XMLLanguageDriver.class);
@@ -236,6 +281,242 @@ public class Configuration {
         this.returnInstanceForEmptyRow = returnEmptyInstance;
     }
 
+    public boolean isCompiledRowMappersEnabled() {
+        return compiledRowMappersEnabled;
+    }
+
+    public void setCompiledRowMappersEnabled(boolean compiledRowMappersEnabled) {
+        this.compiledRowMappersEnabled = compiledRowMappersEnabled;
+    }
+
+    public boolean isResultSetMetadataCacheEnabled() {
+        return resultSetMetadataCacheEnabled;
+    }
+
+    public void setResultSetMetadataCacheEnabled(boolean resultSetMetadataCacheEnabled) {
+        this.resultSetMetadataCacheEnabled = resultSetMetadataCacheEnabled;
+    }
+
+    public boolean isColumnIndexMappingEnabled() {
+        return columnIndexMappingEnabled;
+    }
+
+    public void setColumnIndexMappingEnabled(boolean columnIndexMappingEnabled) {
+        this.columnIndexMappingEnabled = columnIndexMappingEnabled;
+    }
+
+    public RowMapperCompiler getRowMapperCompiler() {
+        return rowMapperCompiler;
+    }
+
+    public ColumnLayoutCache getColumnLayoutCache() {
+        return columnLayoutCache;
+    }
+
+    public int getParsedSqlCacheSize() {
+        return parsedSqlCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of parsed dynamic SQL statements that are kept for reuse.
+     *
+     * @param parsedSqlCacheSize the maximum number of entries, 0 disables the cache
+     */
+    public void setParsedSqlCacheSize(int parsedSqlCacheSize) {
+        this.parsedSqlCacheSize = parsedSqlCacheSize;
+        if (parsedSqlCacheSize > 0) {
+            parsedSqlCache.setSize(parsedSqlCacheSize);
+        } else {
+            parsedSqlCache.clear();
+        }
+    }
+
+    public Cache getParsedSqlCache() {
+        return parsedSqlCache;
+    }
+
+    public int getLazyLoadBatchSize() {
+        return lazyLoadBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of lazy loaders of a nested select with a batch select that are loaded by one
+     * execution of the batch select.
+     *
+     * @param lazyLoadBatchSize the maximum number of keys passed to the batch select
+     */
+    public void setLazyLoadBatchSize(int lazyLoadBatchSize) {
+        this.lazyLoadBatchSize = lazyLoadBatchSize;
+    }
+
+    public int getBatchFlushSize() {
+        return batchFlushSize;
+    }
+
+    /**
+     * Sets the number of parameter objects after which a batch executor executes its pending batches
+     * without waiting for {@link SqlSession#flushStatements()}.
+     *
+     * @param batchFlushSize the number of batched parameter objects, or 0 to flush only on demand
+     */
+    public void setBatchFlushSize(int batchFlushSize) {
+        this.batchFlushSize = batchFlushSize;
+    }
+
+    public long getBatchFlushBytes() {
+        return batchFlushBytes;
+    }
+
+    /**
+     * Sets the estimated size of the bound parameter values after which a batch executor executes its pending
+     * batches without waiting for {@link SqlSession#flushStatements()}. Strings and character arrays count two
+     * bytes per character, byte arrays their length and all other values eight bytes.
+     *
+     * @param batchFlushBytes the estimated number of bytes, or 0 to flush only on demand
+     */
+    public void setBatchFlushBytes(long batchFlushBytes) {
+        this.batchFlushBytes = batchFlushBytes;
+    }
+
+    public MetricsCollector getMetricsCollector() {
+        return metricsCollector;
+    }
+
+    /**
+     * Sets the collector that receives cache hits and misses, query, prepare and parameter binding times and row
+     * counts per mapped statement, and the connection wait times of a {@link PooledDataSource} environment.
+     *
+     * @param metricsCollector the collector, or null to disable metrics
+     */
+    public void setMetricsCollector(MetricsCollector metricsCollector) {
+        this.metricsCollector = metricsCollector == null ? NoOpMetricsCollector.INSTANCE : metricsCollector;
+        applyMetricsCollector();
+    }
+
+    public InvalidationTransport getCacheInvalidationTransport() {
+        return cacheInvalidationTransport;
+    }
+
+    /**
+     * Sets the transport that propagates the evictions of second level caches to other nodes. Only affects caches
+     * that are built afterwards. The transport is closed by {@link #close()}.
+     *
+     * @param cacheInvalidationTransport the transport, or null to keep caches local
+     */
+    public void setCacheInvalidationTransport(InvalidationTransport cacheInvalidationTransport) {
+        this.cacheInvalidationTransport = cacheInvalidationTransport;
+    }
+
+    /**
+     * Returns the refresher that reloads the entries of caches with a {@code refreshAhead} in the background.
+     *
+     * @return the refresher
+     */
+    public CacheRefresher getCacheRefresher() {
+        return cacheRefresher;
+    }
+
+    private void applyMetricsCollector() {
+        if (environment != null && environment.getDataSource() instanceof PooledDataSource) {
+            ((PooledDataSource) environment.getDataSource()).setMetricsCollector(metricsCollector);
+        }
+    }
+
+    public int getAsyncExecutorPoolSize() {
+        return asyncExecutorPoolSize;
+    }
+
+    /**
+     * Sets the number of threads of the default pool that runs mapper methods returning a
+     * {@link java.util.concurrent.CompletableFuture}. Has no effect once that pool has been created or
+     * if an executor has been set with {@link #setAsyncExecutor(java.util.concurrent.Executor)}.
+     *
+     * @param asyncExecutorPoolSize the number of threads
+     */
+    public void setAsyncExecutorPoolSize(int asyncExecutorPoolSize) {
+        this.asyncExecutorPoolSize = asyncExecutorPoolSize;
+    }
+
+    public int getAsyncExecutorQueueSize() {
+        return asyncExecutorQueueSize;
+    }
+
+    /**
+     * Sets the number of tasks the default pool queues while all of its threads are busy. Further tasks are rejected
+     * with a {@link java.util.concurrent.RejectedExecutionException}. Has no effect once that pool has been created
+     * or if an executor has been set with {@link #setAsyncExecutor(java.util.concurrent.Executor)}.
+     *
+     * @param asyncExecutorQueueSize the number of tasks
+     */
+    public void setAsyncExecutorQueueSize(int asyncExecutorQueueSize) {
+        this.asyncExecutorQueueSize = asyncExecutorQueueSize;
+    }
+
+    /**
+     * Returns the executor that runs mapper methods returning a {@link java.util.concurrent.CompletableFuture}.
+     * Unless one has been set, a fixed pool of {@link #getAsyncExecutorPoolSize()} daemon threads with a queue of
+     * {@link #getAsyncExecutorQueueSize()} tasks is created on first use.
+     *
+     * @return the executor
+     */
+    public java.util.concurrent.Executor getAsyncExecutor() {
+        java.util.concurrent.Executor executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    final AtomicInteger threadNumber = new AtomicInteger();
+                    defaultAsyncExecutor = new ThreadPoolExecutor(asyncExecutorPoolSize, asyncExecutorPoolSize,
+                            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(asyncExecutorQueueSize), runnable -> {
+                                Thread thread = new Thread(runnable, "mybatis-async-" + threadNumber.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }, new ThreadPoolExecutor.AbortPolicy());
+                    executor = defaultAsyncExecutor;
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    public synchronized void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    public SqlSessionFactory getAsyncSqlSessionFactory() {
+        return asyncSqlSessionFactory;
+    }
+
+    /**
+     * Sets the factory that opens the session of each call of a mapper method returning a
+     * {@link java.util.concurrent.CompletableFuture}, with its default executor type, auto-commit and transaction
+     * factory. {@link SqlSessionFactoryBuilder} sets the factory it builds unless one has been set before.
+     *
+     * @param asyncSqlSessionFactory the factory
+     */
+    public void setAsyncSqlSessionFactory(SqlSessionFactory asyncSqlSessionFactory) {
+        this.asyncSqlSessionFactory = asyncSqlSessionFactory;
+    }
+
+    /**
+     * Releases the resources this configuration started in the background: shuts down the default
+     * {@link #getAsyncExecutor() async executor}, letting the calls it has accepted finish, and closes the
+     * {@link #getCacheInvalidationTransport() cache invalidation transport}. An executor set with
+     * {@link #setAsyncExecutor(java.util.concurrent.Executor)} is left to its owner. Call it when the application
+     * stops using the configuration and its {@link SqlSessionFactory}; neither may be used afterwards.
+     */
+    public void close() {
+        synchronized (this) {
+            if (defaultAsyncExecutor != null) {
+                defaultAsyncExecutor.shutdown();
+            }
+        }
+        if (cacheInvalidationTransport != null) {
+            cacheInvalidationTransport.close();
+        }
+    }
+
     public String getDatabaseId() {
         return databaseId;
     }
@@ -290,6 +571,9 @@ public class Configuration {
 
     public void setEnvironment(Environment environment) {
         this.environment = environment;
+        if (metricsCollector.isEnabled()) {
+            applyMetricsCollector();
+        }
     }
 
     public AutoMappingBehavior getAutoMappingBehavior() {
@@ -497,6 +781,10 @@ public class Configuration {
         return languageRegistry;
     }
 
+    public CacheSerializerRegistry getCacheSerializerRegistry() {
+        return cacheSerializerRegistry;
+    }
+
     public void setDefaultScriptingLanguage(Class<? extends LanguageDriver> driver) {
         if (driver == null) {
             driver = XMLLanguageDriver.class;
@@ -542,6 +830,18 @@ public class Configuration {
     }
 
     public Executor newExecutor(Transaction transaction, ExecutorType executorType) {
+        return newExecutor(transaction, executorType, cacheEnabled);
+    }
+
+    /**
+     * Creates an executor with the plugins of this configuration.
+     *
+     * @param transaction the transaction of the executor
+     * @param executorType the type of the executor, or null for the default type
+     * @param secondLevelCache false to bypass the second level caches, e.g. to reload their entries
+     * @return the executor
+     */
+    public Executor newExecutor(Transaction transaction, ExecutorType executorType, boolean secondLevelCache) {
         executorType = executorType == null ? defaultExecutorType : executorType;
         executorType = executorType == null ? ExecutorType.SIMPLE : executorType;
         Executor executor;
@@ -552,7 +852,7 @@ public class Configuration {
         } else {
             executor = new SimpleExecutor(this, transaction);
         }
-        if (cacheEnabled) {
+        if (secondLevelCache) {
             executor = new CachingExecutor(executor);
         }
         executor = (Executor) interceptorChain.pluginAll(executor);
@@ -687,6 +987,14 @@ public class Configuration {
         return incompleteMethods;
     }
 
+    /**
+     * Registers a result mapping whose batch select is checked to be a known select statement once all statements are
+     * built, as it may be declared by a mapper that has not been loaded yet.
+     */
+    public void addUncheckedBatchSelect(ResultMapping resultMapping) {
+        uncheckedBatchSelects.add(resultMapping);
+    }
+
     public MappedStatement getMappedStatement(String id) {
         return this.getMappedStatement(id, true);
     }
@@ -769,6 +1077,26 @@ public class Configuration {
                 });
             }
         }
+        if (!uncheckedBatchSelects.isEmpty()) {
+            synchronized (uncheckedBatchSelects) {
+                uncheckedBatchSelects.removeIf(x -> {
+                    checkBatchSelect(x);
+                    return true;
+                });
+            }
+        }
+    }
+
+    private void checkBatchSelect(ResultMapping resultMapping) {
+        final String batchQueryId = resultMapping.getBatchQueryId();
+        if (!mappedStatements.containsKey(batchQueryId)) {
+            throw new IncompleteElementException("Could not find batch select statement '" + batchQueryId
+                    + "' for property '" + resultMapping.getProperty() + "'");
+        }
+        if (mappedStatements.get(batchQueryId).getSqlCommandType() != SqlCommandType.SELECT) {
+            throw new BuilderException("The batch select statement '" + batchQueryId + "' for property '"
+                    + resultMapping.getProperty() + "' is not a select");
+        }
     }
 
     private void parsePendingResultMaps() {
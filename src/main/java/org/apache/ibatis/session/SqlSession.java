@@ -16,7 +16,10 @@
 package org.apache.ibatis.session;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.Flow;
+import org.apache.ibatis.cursor.defaults.CursorPublisher;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.BatchResultHandler;
 
 import java.io.Closeable;
 import java.sql.Connection;
@@ -143,6 +146,42 @@ public interface SqlSession extends Closeable {
      */
     <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+    /**
+     * A Publisher offers the same results as a Cursor, except that rows are only read while the subscriber has
+     * requested more items. The statement is executed when the subscriber requests items for the first time.
+     * @param <T> the returned publisher element type.
+     * @param statement Unique identifier matching the statement to use.
+     * @return Publisher of mapped objects
+     */
+    default <T> Flow.Publisher<T> selectPublisher(String statement) {
+        return selectPublisher(statement, null);
+    }
+
+    /**
+     * A Publisher offers the same results as a Cursor, except that rows are only read while the subscriber has
+     * requested more items. The statement is executed when the subscriber requests items for the first time.
+     * @param <T> the returned publisher element type.
+     * @param statement Unique identifier matching the statement to use.
+     * @param parameter A parameter object to pass to the statement.
+     * @return Publisher of mapped objects
+     */
+    default <T> Flow.Publisher<T> selectPublisher(String statement, Object parameter) {
+        return selectPublisher(statement, parameter, RowBounds.DEFAULT);
+    }
+
+    /**
+     * A Publisher offers the same results as a Cursor, except that rows are only read while the subscriber has
+     * requested more items. The statement is executed when the subscriber requests items for the first time.
+     * @param <T> the returned publisher element type.
+     * @param statement Unique identifier matching the statement to use.
+     * @param parameter A parameter object to pass to the statement.
+     * @param rowBounds  Bounds to limit object retrieval
+     * @return Publisher of mapped objects
+     */
+    default <T> Flow.Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+        return new CursorPublisher<>(() -> selectCursor(statement, parameter, rowBounds));
+    }
+
     /**
      * Retrieve a single row mapped from the statement key and parameter
      * using a {@code ResultHandler}.
@@ -250,6 +289,17 @@ public interface SqlSession extends Closeable {
      */
     List<BatchResult> flushStatements();
 
+    /**
+     * Sets the handler that receives the result of every batch executed by this session, including the batches that
+     * a {@link ExecutorType#BATCH} session executes automatically once {@link Configuration#getBatchFlushSize()} or
+     * {@link Configuration#getBatchFlushBytes()} is reached. The results of these automatic flushes are not retained
+     * and not returned by {@link #flushStatements()}.
+     * @param batchResultHandler the handler, or null to stop receiving results
+     */
+    default void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support batch result handlers");
+    }
+
     /**
      * Closes the session
      */
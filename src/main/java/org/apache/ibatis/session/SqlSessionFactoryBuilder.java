@@ -89,7 +89,11 @@ public class SqlSessionFactoryBuilder {
     }
 
     public SqlSessionFactory build(Configuration config) {
-        return new DefaultSqlSessionFactory(config);
+        SqlSessionFactory sqlSessionFactory = new DefaultSqlSessionFactory(config);
+        if (config.getAsyncSqlSessionFactory() == null) {
+            config.setAsyncSqlSessionFactory(sqlSessionFactory);
+        }
+        return sqlSessionFactory;
     }
 
 }
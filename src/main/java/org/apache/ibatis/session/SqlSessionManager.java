@@ -16,7 +16,9 @@
 package org.apache.ibatis.session;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.Flow;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.BatchResultHandler;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 import java.io.InputStream;
@@ -196,6 +198,21 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
         return sqlSessionProxy.selectCursor(statement, parameter, rowBounds);
     }
 
+    @Override
+    public <T> Flow.Publisher<T> selectPublisher(String statement) {
+        return sqlSessionProxy.selectPublisher(statement);
+    }
+
+    @Override
+    public <T> Flow.Publisher<T> selectPublisher(String statement, Object parameter) {
+        return sqlSessionProxy.selectPublisher(statement, parameter);
+    }
+
+    @Override
+    public <T> Flow.Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+        return sqlSessionProxy.selectPublisher(statement, parameter, rowBounds);
+    }
+
     @Override
     public <E> List<E> selectList(String statement) {
         return sqlSessionProxy.selectList(statement);
@@ -324,6 +341,15 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
         return sqlSession.flushStatements();
     }
 
+    @Override
+    public void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+        final SqlSession sqlSession = localSqlSession.get();
+        if (sqlSession == null) {
+            throw new SqlSessionException("Error:  Cannot set a batch result handler.  No managed session is started.");
+        }
+        sqlSession.setBatchResultHandler(batchResultHandler);
+    }
+
     @Override
     public void close() {
         final SqlSession sqlSession = localSqlSession.get();
@@ -20,6 +20,7 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.BatchResultHandler;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
@@ -254,6 +255,11 @@ public class DefaultSqlSession implements SqlSession {
         }
     }
 
+    @Override
+    public void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+        executor.setBatchResultHandler(batchResultHandler);
+    }
+
     @Override
     public void close() {
         try {
@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class DoubleTypeHandler extends BaseTypeHandler<Double> {
+public class DoubleTypeHandler extends BaseTypeHandler<Double> implements PrimitiveTypeHandler.OfDouble {
 
     @Override
     public void setNonNullParameter(PreparedStatement ps, int i, Double parameter, JdbcType jdbcType)
@@ -52,4 +52,18 @@ public class DoubleTypeHandler extends BaseTypeHandler<Double> {
         return result == 0 && cs.wasNull() ? null : result;
     }
 
+    @Override
+    public double getDouble(ResultSet rs, String columnName) throws SQLException {
+        return rs.getDouble(columnName);
+    }
+
+    @Override
+    public double getDouble(ResultSet rs, int columnIndex) throws SQLException {
+        return rs.getDouble(columnIndex);
+    }
+
+    @Override
+    public void setDouble(PreparedStatement ps, int i, double parameter) throws SQLException {
+        ps.setDouble(i, parameter);
+    }
 }
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A {@link TypeHandler} of a primitive wrapper type that can also read and write the primitive value itself, so that
+ * primitive properties are mapped without boxing.
+ * <p>
+ * The getters return the default value of the primitive for SQL NULL, callers tell both apart by calling
+ * {@link #wasNull(ResultSet)} right after reading.
+ *
+ * @param <T> the wrapper type
+ */
+public interface PrimitiveTypeHandler<T> extends TypeHandler<T> {
+
+    /**
+     * @return the primitive type, e.g. {@code int.class}
+     */
+    Class<?> getPrimitiveType();
+
+    /**
+     * @return whether the value read last from the result set was SQL NULL
+     */
+    default boolean wasNull(ResultSet rs) throws SQLException {
+        return rs.wasNull();
+    }
+
+    /**
+     * Gets the primitive handler of a type handler.
+     * <p>
+     * Only handlers whose own class implements this interface qualify. A subclass of e.g. {@link IntegerTypeHandler}
+     * may override how values are read and is therefore always called through {@link TypeHandler}.
+     *
+     * @return the handler, or null if it does not read and write the given primitive type itself
+     */
+    static PrimitiveTypeHandler<?> forType(TypeHandler<?> typeHandler, Class<?> primitiveType) {
+        if (typeHandler instanceof PrimitiveTypeHandler
+                && ((PrimitiveTypeHandler<?>) typeHandler).getPrimitiveType() == primitiveType) {
+            for (Class<?> anInterface : typeHandler.getClass().getInterfaces()) {
+                if (PrimitiveTypeHandler.class.isAssignableFrom(anInterface)) {
+                    return (PrimitiveTypeHandler<?>) typeHandler;
+                }
+            }
+        }
+        return null;
+    }
+
+    interface OfInt extends PrimitiveTypeHandler<Integer> {
+
+        int getInt(ResultSet rs, String columnName) throws SQLException;
+
+        int getInt(ResultSet rs, int columnIndex) throws SQLException;
+
+        void setInt(PreparedStatement ps, int i, int parameter) throws SQLException;
+
+        @Override
+        default Class<?> getPrimitiveType() {
+            return int.class;
+        }
+    }
+
+    interface OfLong extends PrimitiveTypeHandler<Long> {
+
+        long getLong(ResultSet rs, String columnName) throws SQLException;
+
+        long getLong(ResultSet rs, int columnIndex) throws SQLException;
+
+        void setLong(PreparedStatement ps, int i, long parameter) throws SQLException;
+
+        @Override
+        default Class<?> getPrimitiveType() {
+            return long.class;
+        }
+    }
+
+    interface OfDouble extends PrimitiveTypeHandler<Double> {
+
+        double getDouble(ResultSet rs, String columnName) throws SQLException;
+
+        double getDouble(ResultSet rs, int columnIndex) throws SQLException;
+
+        void setDouble(PreparedStatement ps, int i, double parameter) throws SQLException;
+
+        @Override
+        default Class<?> getPrimitiveType() {
+            return double.class;
+        }
+    }
+
+    interface OfBoolean extends PrimitiveTypeHandler<Boolean> {
+
+        boolean getBoolean(ResultSet rs, String columnName) throws SQLException;
+
+        boolean getBoolean(ResultSet rs, int columnIndex) throws SQLException;
+
+        void setBoolean(PreparedStatement ps, int i, boolean parameter) throws SQLException;
+
+        @Override
+        default Class<?> getPrimitiveType() {
+            return boolean.class;
+        }
+    }
+
+}
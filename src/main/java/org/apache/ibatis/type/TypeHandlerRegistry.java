@@ -44,6 +44,7 @@ public final class TypeHandlerRegistry {
     private final TypeHandler<Object> UNKNOWN_TYPE_HANDLER = new UnknownTypeHandler(this);
     private final Map<Class<?>, TypeHandler<?>> ALL_TYPE_HANDLERS_MAP = new HashMap<>();
     private Class<? extends TypeHandler> defaultEnumTypeHandler = EnumTypeHandler.class;
+    private volatile int modificationCount;
 
     public TypeHandlerRegistry() {
         register(Boolean.class, new BooleanTypeHandler());
@@ -154,6 +155,17 @@ public final class TypeHandlerRegistry {
      */
     public void setDefaultEnumTypeHandler(Class<? extends TypeHandler> typeHandler) {
         this.defaultEnumTypeHandler = typeHandler;
+        modificationCount++;
+    }
+
+    /**
+     * Gets a number that changes whenever a type handler is registered, so that handlers resolved earlier can be
+     * discarded.
+     *
+     * @return the modification count
+     */
+    public int getModificationCount() {
+        return modificationCount;
     }
 
     public boolean hasTypeHandler(Class<?> javaType) {
@@ -289,6 +301,7 @@ public final class TypeHandlerRegistry {
 
     public void register(JdbcType jdbcType, TypeHandler<?> handler) {
         JDBC_TYPE_HANDLER_MAP.put(jdbcType, handler);
+        modificationCount++;
     }
 
     //
@@ -362,6 +375,7 @@ public final class TypeHandlerRegistry {
             map.put(jdbcType, handler);
         }
         ALL_TYPE_HANDLERS_MAP.put(handler.getClass(), handler);
+        modificationCount++;
     }
 
     //
@@ -15,14 +15,21 @@
  */
 package org.apache.ibatis.builder;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.serializer.CompactCacheSerializer;
+import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.TypeHandler;
 import org.junit.jupiter.api.Assertions;
@@ -63,6 +70,23 @@ public class XmlMapperBuilderTest {
     }
   }
 
+  @Test
+  public void resolveSerializerNamesApartFromTypeAliases() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.getTypeAliasRegistry().registerAlias("Compact", Author.class);
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">"
+        + "<mapper namespace=\"compact\"><cache serializer=\"compact\"/></mapper>";
+    try (InputStream inputStream = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))) {
+      new XMLMapperBuilder(inputStream, configuration, "compact", configuration.getSqlFragments()).parse();
+    }
+    MetaObject cache = SystemMetaObject.forObject(configuration.getCache("compact"));
+    while (!(cache.getOriginalObject() instanceof SerializedCache)) {
+      cache = SystemMetaObject.forObject(cache.getValue("delegate"));
+    }
+    assertThat(cache.getValue("serializer")).isInstanceOf(CompactCacheSerializer.class);
+  }
+
   @Test
   public void parseExpression() {
     BaseBuilder builder = new BaseBuilder(new Configuration()){{}};
@@ -16,12 +16,16 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -399,6 +403,45 @@ public class DynamicSqlSourceTest extends BaseDataTest {
     Assertions.assertEquals("id=", sql);
   }
 
+  @Test
+  public void shouldReuseParsedSqlForSameShape() {
+    final Configuration configuration = new Configuration();
+    final DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID IN"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{id}")), "list", "index", "id", "(", ")", ",")));
+    BoundSql first = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(1, 2)));
+    BoundSql second = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(3, 4)));
+    BoundSql third = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(5, 6, 7)));
+    assertEquals(first.getSql(), second.getSql());
+    assertSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals(3, second.getAdditionalParameter("__frch_id_0"));
+    assertNotEquals(first.getSql(), third.getSql());
+    assertEquals(3, third.getParameterMappings().size());
+  }
+
+  @Test
+  public void shouldReparseSqlWhenBindingTypesChange() {
+    final Configuration configuration = new Configuration();
+    final DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID IN"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{id}")), "list", "index", "id", "(", ")", ",")));
+    BoundSql integers = source.getBoundSql(Collections.singletonMap("list", Collections.singletonList(1)));
+    BoundSql strings = source.getBoundSql(Collections.singletonMap("list", Collections.singletonList("1")));
+    assertEquals(Integer.class, integers.getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, strings.getParameterMappings().get(0).getJavaType());
+  }
+
+  @Test
+  public void shouldNotReuseParsedSqlWhenCacheIsDisabled() {
+    final Configuration configuration = new Configuration();
+    configuration.setParsedSqlCacheSize(0);
+    final DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}")));
+    BoundSql first = source.getBoundSql(new Bean("1"));
+    BoundSql second = source.getBoundSql(new Bean("1"));
+    assertNotSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals(0, configuration.getParsedSqlCache().getSize());
+  }
+
   public static class Bean {
     public String id;
     public Bean(String property) {
@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.apache.ibatis.cache.decorators.BroadcastingCache;
+import org.apache.ibatis.cache.decorators.TagIndexCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.transport.FileInvalidationTransport;
+import org.apache.ibatis.cache.transport.LoopbackInvalidationTransport;
+import org.junit.jupiter.api.Test;
+
+public class BroadcastingCacheTest {
+
+  @Test
+  public void shouldClearOtherNodes() {
+    LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+    Cache node1 = BroadcastingCache.subscribe(new PerpetualCache("users"), transport);
+    Cache node2 = BroadcastingCache.subscribe(new PerpetualCache("users"), transport);
+    Cache otherNamespace = BroadcastingCache.subscribe(new PerpetualCache("groups"), transport);
+    node1.putObject("a", "a");
+    node2.putObject("a", "a");
+    node2.putObject("b", "b");
+    otherNamespace.putObject("a", "a");
+
+    // releasing a key after a rollback is not an eviction
+    node2.removeObject("a");
+    assertEquals("a", node1.getObject("a"));
+    assertEquals("b", node2.getObject("b"));
+
+    node1.putObject("a", "a");
+    node1.clear();
+    assertNull(node2.getObject("b"));
+    assertEquals("a", otherNamespace.getObject("a"));
+  }
+
+  @Test
+  public void shouldInvalidateTagsOnOtherNodes() {
+    LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+    TaggedCache node1 = BroadcastingCache.subscribe(new TagIndexCache(new PerpetualCache("users")), transport);
+    TaggedCache node2 = BroadcastingCache.subscribe(new TagIndexCache(new PerpetualCache("users")), transport);
+    node2.putObject("a", "a", Collections.singleton("users"));
+    node2.putObject("b", "b", Collections.singleton("groups"));
+    node1.invalidate(Collections.singleton("users"));
+    assertNull(node2.getObject("a"));
+    assertEquals("b", node2.getObject("b"));
+  }
+
+  @Test
+  public void shouldExchangeMessagesThroughAFile() throws Exception {
+    File file = File.createTempFile("cache-invalidation", ".log");
+    file.deleteOnExit();
+    FileInvalidationTransport transport1 = new FileInvalidationTransport(file);
+    FileInvalidationTransport transport2 = new FileInvalidationTransport(file);
+    transport2.setPollInterval(10);
+    try {
+      Cache node1 = BroadcastingCache.subscribe(new PerpetualCache("users"), transport1);
+      Cache node2 = BroadcastingCache.subscribe(new PerpetualCache("users"), transport2);
+      node2.putObject(new CacheKey(new Object[] { "a", 1 }), "a");
+      node2.putObject("b", "b");
+      long length = file.length();
+      node1.removeObject("b");
+      assertEquals(length, file.length());
+      node1.clear();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (node2.getSize() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, node2.getSize());
+      assertTrue(file.length() > length);
+    } finally {
+      transport1.close();
+      transport2.close();
+    }
+  }
+
+  @Test
+  public void shouldBoundTheFile() throws Exception {
+    File file = File.createTempFile("cache-invalidation", ".log");
+    file.deleteOnExit();
+    FileInvalidationTransport transport1 = new FileInvalidationTransport(file);
+    transport1.setMaxFileSize(200);
+    FileInvalidationTransport transport2 = new FileInvalidationTransport(file);
+    transport2.setPollInterval(10);
+    try {
+      Cache node1 = BroadcastingCache.subscribe(new PerpetualCache("groups"), transport1);
+      Cache node2 = BroadcastingCache.subscribe(new PerpetualCache("users"), transport2);
+      for (int i = 0; i < 20; i++) {
+        node1.clear();
+        assertTrue(file.length() <= 200);
+      }
+      // a replaced file may have lost messages for any cache
+      node2.putObject("a", "a");
+      assertTrue(file.delete());
+      node1.clear();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (node2.getSize() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, node2.getSize());
+    } finally {
+      transport1.close();
+      transport2.close();
+    }
+  }
+
+}
@@ -25,6 +25,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.Date;
 
 public class CacheKeyTest {
@@ -103,6 +106,61 @@ public class CacheKeyTest {
     Assertions.assertEquals(cacheKey, serialize(cacheKey));
   }
 
+  @Test
+  public void shouldComputeSameHash64ForEqualKeys() {
+    CacheKey key1 = new CacheKey(new Object[] { "select", 1, null, new byte[] { 1, 2 }, 3L });
+    CacheKey key2 = new CacheKey(2);
+    key2.updateAll(new Object[] { "select", 1, null, new byte[] { 1, 2 }, 3L });
+    assertEquals(key1, key2);
+    assertEquals(key1.getHash64(), key2.getHash64());
+    assertNotEquals(key1.getHash64(), new CacheKey(new Object[] { "select", 1, null, new byte[] { 1, 3 }, 3L }).getHash64());
+    assertNotEquals(key1.getHash64(), new CacheKey(new Object[] { 1, "select", null, new byte[] { 1, 2 }, 3L }).getHash64());
+    long hash = key1.getHash64();
+    key1.update("more");
+    assertNotEquals(hash, key1.getHash64());
+  }
+
+  @Test
+  public void shouldHashDatesAndDecimalsFullyIntoHash64() {
+    Timestamp timestamp = new Timestamp(1000L);
+    Timestamp nanosLater = new Timestamp(1000L);
+    nanosLater.setNanos(1);
+    assertEquals(timestamp.hashCode(), nanosLater.hashCode());
+    assertNotEquals(new CacheKey(new Object[] { timestamp }).getHash64(), new CacheKey(new Object[] { nanosLater }).getHash64());
+    assertEquals(new CacheKey(new Object[] { new BigDecimal("1.50") }).getHash64(),
+        new CacheKey(new Object[] { new BigDecimal("1.50") }).getHash64());
+    assertNotEquals(new CacheKey(new Object[] { new BigDecimal("1.50") }).getHash64(),
+        new CacheKey(new Object[] { new BigDecimal("1.5") }).getHash64());
+    LocalDateTime dateTime = LocalDateTime.of(2019, 1, 1, 0, 0);
+    assertEquals(new CacheKey(new Object[] { dateTime }).getHash64(), new CacheKey(new Object[] { LocalDateTime.of(2019, 1, 1, 0, 0) }).getHash64());
+    assertNotEquals(new CacheKey(new Object[] { dateTime }).getHash64(), new CacheKey(new Object[] { dateTime.plusNanos(1) }).getHash64());
+  }
+
+  @Test
+  public void shouldKeepUpdatesOfClonesApart() throws Exception {
+    CacheKey key = new CacheKey(1);
+    key.update("a");
+    CacheKey clone = key.clone();
+    clone.update("b");
+    key.update("c");
+    assertEquals(2, clone.getUpdateCount());
+    assertEquals("a", clone.toString().split(":")[2]);
+    assertEquals("b", clone.toString().split(":")[3]);
+    assertEquals("c", key.toString().split(":")[3]);
+  }
+
+  @Test
+  public void shouldKeepHashesAfterDeserialization() throws Exception {
+    CacheKey cacheKey = new CacheKey(new Object[] { "serializable", 1 });
+    CacheKey copy = serialize(cacheKey);
+    assertEquals(cacheKey.hashCode(), copy.hashCode());
+    assertEquals(cacheKey.getHash64(), copy.getHash64());
+    cacheKey.update(2);
+    copy.update(2);
+    assertEquals(cacheKey, copy);
+    assertEquals(cacheKey.getHash64(), copy.getHash64());
+  }
+
   private static <T> T serialize(T object) throws Exception {
       ByteArrayOutputStream baos = new ByteArrayOutputStream();
       new ObjectOutputStream(baos).writeObject(object);
@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.CoalescingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+public class CoalescingCacheTest {
+
+  @Test
+  public void shouldLoadAMissedKeyOnlyOnce() throws Exception {
+    CoalescingCache cache = new CoalescingCache(new PerpetualCache("default"));
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(8);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Object>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          started.countDown();
+          started.await();
+          Object value = cache.getObject("key");
+          if (value == null) {
+            loads.incrementAndGet();
+            Thread.sleep(50);
+            value = "value";
+            cache.putObject("key", value);
+          }
+          return value;
+        }));
+      }
+      for (Future<Object> future : futures) {
+        assertEquals("value", future.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, loads.get());
+    assertEquals(0, cache.getLoadCount());
+  }
+
+  @Test
+  public void shouldHandTheLoadOverWhenItIsReleasedOrTimesOut() throws Exception {
+    CoalescingCache cache = new CoalescingCache(new PerpetualCache("default"));
+    cache.setTimeout(20);
+    assertNull(cache.getObject("key"));
+    assertEquals(1, cache.getLoadCount());
+    // another thread waits for the abandoned load and then loads the key itself
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertNull(executor.submit(() -> cache.getObject("key")).get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    cache.removeObject("key");
+    assertEquals(0, cache.getLoadCount());
+    assertNull(cache.getObject("key"));
+    cache.putObject("key", "value");
+    assertEquals("value", cache.getObject("key"));
+    assertEquals(0, cache.getLoadCount());
+  }
+
+  @Test
+  public void shouldServeStaleValueWhileOneCallerRevalidates() throws Exception {
+    CoalescingCache cache = new CoalescingCache(new PerpetualCache("default"));
+    cache.setMaxAge(10);
+    cache.setStaleWhileRevalidate(60000);
+    assertNull(cache.getObject("key"));
+    cache.putObject("key", "old");
+    assertEquals("old", cache.getObject("key"));
+    Thread.sleep(30);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertNull(executor.submit(() -> cache.getObject("key")).get(10, TimeUnit.SECONDS));
+      assertEquals("old", cache.getObject("key"));
+      cache.putObject("key", "new");
+      assertEquals("new", cache.getObject("key"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldTreatEntriesPastTheStaleWindowAsMisses() throws Exception {
+    CoalescingCache cache = new CoalescingCache(new PerpetualCache("default"));
+    cache.setMaxAge(5);
+    cache.putObject("key", "old");
+    Thread.sleep(20);
+    assertNull(cache.getObject("key"));
+  }
+
+  @Test
+  public void shouldBuildCoalescingCacheInsteadOfBlockingCache() {
+    Cache cache = new CacheBuilder("default").blocking(true).coalescing(true).coalescingTimeout(100L).build();
+    assertTrue(cache instanceof CoalescingCache);
+    assertEquals(100L, ((CoalescingCache) cache).getTimeout());
+  }
+
+}
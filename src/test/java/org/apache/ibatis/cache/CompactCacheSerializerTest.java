@@ -0,0 +1,208 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.serializer.CompactCacheSerializer;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+public class CompactCacheSerializerTest {
+
+  private final CompactCacheSerializer serializer = new CompactCacheSerializer();
+
+  @Test
+  public void shouldCopyCommonValueTypes() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("int", -42);
+    map.put("long", Long.MIN_VALUE);
+    map.put("short", (short) 7);
+    map.put("byte", (byte) -1);
+    map.put("boolean", true);
+    map.put("double", 3.25d);
+    map.put("float", Float.NaN);
+    map.put("char", 'x');
+    map.put("string", "héllo 世界");
+    map.put("decimal", new BigDecimal("-1234.5678"));
+    map.put("integer", new BigInteger("123456789012345678901234567890"));
+    map.put("date", new Date(1234567890123L));
+    map.put("sqlDate", new java.sql.Date(1234567890123L));
+    Timestamp timestamp = new Timestamp(1234567890000L);
+    timestamp.setNanos(123456789);
+    map.put("timestamp", timestamp);
+    map.put("section", Section.NEWS);
+    map.put("set", new HashSet<>(Arrays.asList(1, 2, 3)));
+    map.put("null", null);
+
+    Object copy = serializer.deserialize(serializer.serialize(map));
+    assertEquals(map, copy);
+    assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(((Map<?, ?>) copy).keySet()));
+    assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) serializer.deserialize(serializer.serialize(new byte[] {1, 2, 3})));
+  }
+
+  @Test
+  public void shouldCopyBeansFieldByField() {
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS);
+    Author copy = (Author) serializer.deserialize(serializer.serialize(author));
+    assertNotSame(author, copy);
+    assertEquals(author, copy);
+    assertEquals(Section.NEWS, copy.getFavouriteSection());
+  }
+
+  @Test
+  public void shouldPreserveSharedAndCyclicReferences() {
+    Node parent = new Node(1, "parent");
+    Node child = new Node(2, "child");
+    child.parent = parent;
+    parent.children.add(child);
+    parent.children.add(child);
+    List<Node> nodes = new ArrayList<>(Arrays.asList(parent, child));
+
+    @SuppressWarnings("unchecked")
+    List<Node> copy = (List<Node>) serializer.deserialize(serializer.serialize(nodes));
+    Node parentCopy = copy.get(0);
+    Node childCopy = copy.get(1);
+    assertEquals("parent", parentCopy.name);
+    assertEquals(2.5d, childCopy.weight);
+    assertSame(childCopy, parentCopy.children.get(0));
+    assertSame(childCopy, parentCopy.children.get(1));
+    assertSame(parentCopy, childCopy.parent);
+  }
+
+  @Test
+  public void shouldFallBackToJavaSerializationForOtherTypes() {
+    Node node = new Node(1, "node");
+    node.value = new Immutable("value");
+    Node copy = (Node) serializer.deserialize(serializer.serialize(node));
+    assertEquals("value", ((Immutable) copy.value).value);
+    assertNotSame(node.value, copy.value);
+  }
+
+  @Test
+  public void shouldKeepCustomSerializationLogic() {
+    Restoring copy = (Restoring) serializer.deserialize(serializer.serialize(new Restoring()));
+    assertTrue(copy.restored);
+  }
+
+  @Test
+  public void shouldRejectNonSerializableObjects() {
+    Node node = new Node(1, "node");
+    node.value = new Object();
+    assertThrows(CacheException.class, () -> serializer.serialize(node));
+  }
+
+  @Test
+  public void shouldBeSmallerThanJavaSerialization() {
+    List<Author> authors = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      authors.add(new Author(i, "user" + i, "password" + i, "user" + i + "@example.com", "bio", Section.NEWS));
+    }
+    byte[] compact = serializer.serialize(authors);
+    byte[] java = new JavaCacheSerializer().serialize(authors);
+    assertTrue(compact.length < java.length);
+    assertEquals(authors, serializer.deserialize(compact));
+  }
+
+  @Test
+  public void shouldDeflateLargeEntries() {
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add("a rather repetitive value");
+    }
+    int plainLength = serializer.serialize(values).length;
+    serializer.setCompressionThreshold(1024);
+    byte[] deflated = serializer.serialize(values);
+    assertTrue(deflated.length < plainLength / 10);
+    assertEquals(values, serializer.deserialize(deflated));
+    assertEquals(3, serializer.deserialize(serializer.serialize(3)));
+  }
+
+  @Test
+  public void shouldBeConfiguredThroughCacheBuilder() {
+    Properties properties = new Properties();
+    properties.setProperty("compressionThreshold", "1024");
+    Cache cache = new CacheBuilder("test")
+        .readWrite(true)
+        .serializer(CompactCacheSerializer.class)
+        .properties(properties)
+        .build();
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS);
+    cache.putObject("key", author);
+    Object copy = cache.getObject("key");
+    assertNotSame(author, copy);
+    assertEquals(author, copy);
+  }
+
+  public static class Node implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private int id;
+    private String name;
+    private double weight = 2.5d;
+    private Node parent;
+    private List<Node> children = new ArrayList<>();
+    private Object value;
+
+    public Node() {
+    }
+
+    Node(int id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  public static class Immutable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String value;
+
+    Immutable(String value) {
+      this.value = value;
+    }
+  }
+
+  public static class Restoring implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private transient boolean restored;
+
+    public Restoring() {
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      restored = true;
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+public class ExpiringCacheTest {
+
+  @Test
+  public void shouldExpireEntriesAfterTimeToLive() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(20);
+    cache.putObject("a", "a");
+    assertEquals("a", cache.getObject("a"));
+    Thread.sleep(40);
+    cache.putObject("b", "b");
+    assertNull(cache.getObject("a"));
+    assertEquals("b", cache.getObject("b"));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldExpireEntriesThatAreNotRead() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToIdle(100);
+    cache.putObject("read", "read");
+    cache.putObject("idle", "idle");
+    for (int i = 0; i < 4; i++) {
+      Thread.sleep(40);
+      assertEquals("read", cache.getObject("read"));
+    }
+    assertNull(cache.getObject("idle"));
+  }
+
+  @Test
+  public void shouldHandEntriesCloseToExpiryToTheRefresher() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    List<Object> refreshed = new ArrayList<>();
+    cache.setTimeToLive(60000);
+    cache.setRefreshAhead(59950);
+    cache.setRefresher(refreshed::add);
+    cache.putObject("a", "a");
+    assertEquals("a", cache.getObject("a"));
+    assertTrue(refreshed.isEmpty());
+    Thread.sleep(100);
+    assertEquals("a", cache.getObject("a"));
+    assertEquals(1, refreshed.size());
+    assertEquals("a", refreshed.get(0));
+  }
+
+}
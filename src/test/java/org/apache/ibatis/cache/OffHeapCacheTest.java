@@ -0,0 +1,160 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapCacheTest {
+
+  @Test
+  public void shouldReturnCopiesAndCountHits() {
+    OffHeapCache cache = new OffHeapCache("default");
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS);
+    cache.putObject("key", author);
+    Object copy = cache.getObject("key");
+    assertNotSame(author, copy);
+    assertEquals(author, copy);
+    assertNull(cache.getObject("other"));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldReplaceAndRemoveEntries() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject("key", "first");
+    cache.putObject("key", "second");
+    assertEquals("second", cache.getObject("key"));
+    assertEquals(1, cache.getSize());
+    cache.removeObject("key");
+    assertNull(cache.getObject("key"));
+    cache.putObject("key", "third");
+    cache.putObject(1, 1);
+    cache.clear();
+    assertEquals(0, cache.getSize());
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  public void shouldMissKeysThatOnlyShareTheHash() throws Exception {
+    File file = File.createTempFile("mybatis-off-heap", ".cache");
+    file.deleteOnExit();
+    OffHeapCache cache = newMappedCache(file);
+    // keys other than CacheKeys are hashed by their string form
+    cache.putObject(1, "integer");
+    assertNull(cache.getObject("1"));
+    assertEquals("integer", cache.getObject(1));
+
+    OffHeapCache reopened = newMappedCache(file);
+    assertNull(reopened.getObject("1"));
+    assertEquals("integer", reopened.getObject(1));
+    reopened.putObject("1", "string");
+    assertNull(reopened.getObject(1));
+    assertEquals("string", reopened.getObject("1"));
+  }
+
+  @Test
+  public void shouldEvictOldestEntriesWhenFull() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(4096);
+    cache.setSlabs(1);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, "value" + i);
+      assertEquals("value" + i, cache.getObject(i));
+    }
+    assertTrue(cache.getSize() < 1000);
+    assertEquals(1000, cache.getSize() + cache.getEvictionCount());
+    assertNull(cache.getObject(0));
+    for (int i = 1000 - cache.getSize(); i < 1000; i++) {
+      assertEquals("value" + i, cache.getObject(i));
+    }
+  }
+
+  @Test
+  public void shouldNotKeepEntriesLargerThanSlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(1024);
+    cache.setSlabs(1);
+    cache.putObject("key", "small");
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      large.append('x');
+    }
+    cache.putObject("key", large.toString());
+    assertNull(cache.getObject("key"));
+  }
+
+  @Test
+  public void shouldRestoreEntriesFromMappedFile() throws Exception {
+    File file = File.createTempFile("mybatis-off-heap", ".cache");
+    file.deleteOnExit();
+    OffHeapCache cache = newMappedCache(file);
+    for (int i = 0; i < 300; i++) {
+      cache.putObject(i, "value" + i);
+    }
+    cache.putObject(299, "latest");
+    cache.removeObject(298);
+    int size = cache.getSize();
+
+    OffHeapCache reopened = newMappedCache(file);
+    assertEquals(size, reopened.getSize());
+    assertEquals("latest", reopened.getObject(299));
+    assertNull(reopened.getObject(298));
+    assertEquals("value297", reopened.getObject(297));
+    reopened.clear();
+
+    assertEquals(0, newMappedCache(file).getSize());
+  }
+
+  @Test
+  public void shouldBeBuiltWithoutSerializedCache() {
+    Properties properties = new Properties();
+    properties.setProperty("capacity", "65536");
+    properties.setProperty("slabs", "2");
+    Cache cache = new CacheBuilder("test")
+        .implementation(OffHeapCache.class)
+        .readWrite(true)
+        .properties(properties)
+        .build();
+    List<String> value = new ArrayList<>();
+    value.add("a");
+    cache.putObject("key", value);
+    assertEquals(value, cache.getObject("key"));
+    assertNotSame(value, cache.getObject("key"));
+  }
+
+  private OffHeapCache newMappedCache(File file) {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(8192);
+    cache.setSlabs(2);
+    cache.setFile(file.getAbsolutePath());
+    cache.initialize();
+    return cache;
+  }
+
+}
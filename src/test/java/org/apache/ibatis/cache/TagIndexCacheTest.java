@@ -0,0 +1,90 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.TagIndexCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+public class TagIndexCacheTest {
+
+  @Test
+  public void shouldInvalidateTaggedAndUntaggedEntries() {
+    TagIndexCache cache = new TagIndexCache(new PerpetualCache("default"));
+    cache.putObject("a", "a", tags("users"));
+    cache.putObject("b", "b", tags("users", "groups"));
+    cache.putObject("c", "c", tags("orders"));
+    cache.putObject("d", "d");
+    cache.invalidate(tags("groups"));
+    assertEquals("a", cache.getObject("a"));
+    assertNull(cache.getObject("b"));
+    assertEquals("c", cache.getObject("c"));
+    assertNull(cache.getObject("d"));
+    assertEquals(2, cache.getIndexedKeyCount());
+  }
+
+  @Test
+  public void shouldRemoveEntriesThatNoLongerFitInTheIndex() {
+    TagIndexCache cache = new TagIndexCache(new PerpetualCache("default"), 3);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i, tags("t" + i));
+    }
+    assertEquals(3, cache.getIndexedKeyCount());
+    assertEquals(3, cache.getSize());
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(1));
+    assertEquals(4, cache.getObject(4));
+  }
+
+  @Test
+  public void shouldReindexReplacedEntries() {
+    TagIndexCache cache = new TagIndexCache(new PerpetualCache("default"));
+    cache.putObject("a", "a", tags("users"));
+    cache.putObject("a", "a2", tags("groups"));
+    cache.invalidate(tags("users"));
+    assertEquals("a2", cache.getObject("a"));
+    cache.putObject("a", null);
+    assertEquals(0, cache.getIndexedKeyCount());
+  }
+
+  @Test
+  public void shouldBuildBlockingCacheOnTopOfTheIndex() {
+    Cache cache = new CacheBuilder("default").blocking(true).tagInvalidation(true).build();
+    assertTrue(cache instanceof BlockingCache);
+    TaggedCache taggedCache = (TaggedCache) cache;
+    assertNull(cache.getObject("a"));
+    taggedCache.putObject("a", "a", tags("users"));
+    assertNull(cache.getObject("b"));
+    taggedCache.putObject("b", "b", tags("groups"));
+    taggedCache.invalidate(tags("users"));
+    assertNull(cache.getObject("a"));
+    cache.removeObject("a");
+    assertEquals("b", cache.getObject("b"));
+  }
+
+  private static Set<String> tags(String... tags) {
+    return new HashSet<>(Arrays.asList(tags));
+  }
+
+}
@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TinyLfuCacheTest {
+
+  @Test
+  public void shouldNeverExceedMaximumSize() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setSize(100);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(100, cache.getSize());
+  }
+
+  @Test
+  public void shouldKeepFrequentlyUsedItemsDuringScan() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setSize(100);
+    for (int i = 0; i < 10; i++) {
+      cache.putObject("hot" + i, i);
+    }
+    for (int n = 0; n < 50; n++) {
+      for (int i = 0; i < 10; i++) {
+        assertEquals(i, cache.getObject("hot" + i));
+      }
+    }
+    // a plain LRU cache would lose the hot items, as more than 100 other items are added between two reads
+    for (int i = 0; i < 10000; i++) {
+      cache.putObject(i, i);
+      if (i % 200 == 199) {
+        for (int j = 0; j < 10; j++) {
+          assertEquals(j, cache.getObject("hot" + j));
+        }
+      }
+    }
+    assertEquals(100, cache.getSize());
+  }
+
+  @Test
+  public void shouldReplaceValueOfExistingKey() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.putObject(0, "a");
+    cache.putObject(0, "b");
+    assertEquals("b", cache.getObject(0));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldEvictWhenSizeIsReduced() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, i);
+    }
+    cache.setSize(5);
+    assertEquals(5, cache.getSize());
+  }
+
+  @Test
+  public void shouldRemoveItemOnDemand() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldFlushAllItemsOnDemand() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldStayBoundedUnderConcurrentAccess() throws Exception {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setSize(64);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        final int seed = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 20000; i++) {
+            int key = (i * 31 + seed) % 500;
+            if (cache.getObject(key) == null) {
+              cache.putObject(key, key);
+            }
+            if (i % 1000 == 0) {
+              cache.removeObject(key);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(cache.getSize() <= 64);
+  }
+
+  @Test
+  public void shouldNotBeSynchronizedWhenBuiltByCacheBuilder() throws Exception {
+    Cache cache = new CacheBuilder("default").implementation(TinyLfuCache.class).size(10).build();
+    assertTrue(cache instanceof LoggingCache);
+    Field delegate = LoggingCache.class.getDeclaredField("delegate");
+    delegate.setAccessible(true);
+    TinyLfuCache tinyLfuCache = (TinyLfuCache) delegate.get(cache);
+    for (int i = 0; i < 20; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(10, tinyLfuCache.getSize());
+  }
+
+}
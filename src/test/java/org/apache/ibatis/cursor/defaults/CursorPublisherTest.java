@@ -0,0 +1,181 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.ibatis.cursor.Flow;
+import org.junit.jupiter.api.Test;
+
+public class CursorPublisherTest {
+
+  @Test
+  public void shouldReadRowsOnlyWhenRequested() throws Exception {
+    CountingIterator iterator = new CountingIterator(Arrays.asList(1, 2, 3, 4, 5));
+    DefaultCursor<Integer> cursor = mockCursor(iterator);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(() -> cursor).subscribe(subscriber);
+
+    assertEquals(0, iterator.fetched);
+    subscriber.subscription.request(2);
+    assertEquals(Arrays.asList(1, 2), subscriber.items);
+    assertEquals(2, iterator.fetched);
+    verify(cursor).setFetchSize(2);
+
+    subscriber.subscription.request(10);
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), subscriber.items);
+    assertTrue(subscriber.completed);
+    verify(cursor).setFetchSize(10);
+    verify(cursor).close();
+  }
+
+  @Test
+  public void shouldCloseCursorOnCancel() throws Exception {
+    DefaultCursor<Integer> cursor = mockCursor(new CountingIterator(Arrays.asList(1, 2, 3)));
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(() -> cursor).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(1);
+    assertEquals(Arrays.asList(1), subscriber.items);
+    assertEquals(false, subscriber.completed);
+    verify(cursor).close();
+  }
+
+  @Test
+  public void shouldNotOpenCursorWithoutDemand() {
+    AtomicInteger opened = new AtomicInteger();
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<Integer>(() -> {
+      opened.incrementAndGet();
+      return mockCursor(new CountingIterator(Arrays.asList(1)));
+    }).subscribe(subscriber);
+
+    subscriber.subscription.cancel();
+    assertEquals(0, opened.get());
+  }
+
+  @Test
+  public void shouldSignalErrorOnInvalidRequest() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(() -> mockCursor(new CountingIterator(Arrays.asList(1)))).subscribe(subscriber);
+
+    subscriber.subscription.request(0);
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+    assertTrue(subscriber.items.isEmpty());
+  }
+
+  @Test
+  public void shouldSignalErrorWhenFetchFails() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<Integer>(() -> {
+      throw new IllegalStateException("query failed");
+    }).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+    assertEquals("query failed", subscriber.error.getMessage());
+  }
+
+  @Test
+  public void shouldNotRecurseWhenRequestingFromOnNext() throws Exception {
+    List<Integer> values = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+    DefaultCursor<Integer> cursor = mockCursor(new CountingIterator(values));
+    RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override
+      public void onNext(Integer item) {
+        super.onNext(item);
+        subscription.request(1);
+      }
+    };
+    new CursorPublisher<>(() -> cursor).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+    assertEquals(values, subscriber.items);
+    assertTrue(subscriber.completed);
+    assertNull(subscriber.error);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static DefaultCursor<Integer> mockCursor(Iterator<Integer> iterator) {
+    DefaultCursor<Integer> cursor = mock(DefaultCursor.class);
+    when(cursor.iterator()).thenReturn(iterator);
+    return cursor;
+  }
+
+  private static class CountingIterator implements Iterator<Integer> {
+
+    private final Iterator<Integer> delegate;
+    private int fetched;
+
+    CountingIterator(List<Integer> values) {
+      this.delegate = values.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return delegate.hasNext();
+    }
+
+    @Override
+    public Integer next() {
+      fetched++;
+      return delegate.next();
+    }
+  }
+
+  private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+
+    Flow.Subscription subscription;
+    final List<Integer> items = new ArrayList<>();
+    boolean completed;
+    Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(Integer item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+}
@@ -0,0 +1,128 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class LocalCacheKeyTest extends BaseDataTest {
+
+  private static DataSource ds;
+  private final Configuration config = new Configuration();
+
+  @BeforeAll
+  public static void setup() throws Exception {
+    ds = createBlogDataSource();
+  }
+
+  @Test
+  public void shouldNotCreateKeyForStatementScopeWithoutNestedQueries() throws Exception {
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    CountingExecutor executor = new CountingExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectAuthor = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      List<Author> authors = executor.query(selectAuthor, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(1, authors.size());
+      assertEquals("jim", authors.get(0).getUsername());
+      assertEquals(0, executor.createdKeys);
+
+      authors = executor.query(selectAuthor, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(1, authors.size());
+      assertEquals(0, executor.createdKeys);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldCreateKeyForSessionScope() throws Exception {
+    CountingExecutor executor = new CountingExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectAuthor = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      List<Author> first = executor.query(selectAuthor, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      List<Author> second = executor.query(selectAuthor, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(2, executor.createdKeys);
+      assertSame(first, second);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldCreateKeysForStatementScopeWithNestedQueries() throws Exception {
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    CountingExecutor executor = new CountingExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectBlog = ExecutorTestHelper.prepareComplexSelectBlogMappedStatement(config);
+      config.addMappedStatement(selectBlog);
+      config.addMappedStatement(ExecutorTestHelper.prepareSelectPostsForBlogMappedStatement(config));
+      List<Blog> blogs = executor.query(selectBlog, 1, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(1, blogs.size());
+      assertEquals(2, blogs.get(0).getPosts().size());
+      assertTrue(executor.createdKeys > 0);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldNotCreateKeyWithoutSecondLevelCache() throws Exception {
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    CountingExecutor delegate = new CountingExecutor(config, new JdbcTransaction(ds, null, false));
+    Executor executor = new CachingExecutor(delegate);
+    try {
+      MappedStatement selectAuthor = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      List<Author> authors = executor.query(selectAuthor, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(2, authors.size());
+      assertEquals(0, delegate.createdKeys);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  private static class CountingExecutor extends SimpleExecutor {
+
+    private int createdKeys;
+
+    CountingExecutor(Configuration configuration, Transaction transaction) {
+      super(configuration, transaction);
+    }
+
+    @Override
+    public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+      createdKeys++;
+      return super.createCacheKey(ms, parameterObject, rowBounds, boundSql);
+    }
+  }
+
+}
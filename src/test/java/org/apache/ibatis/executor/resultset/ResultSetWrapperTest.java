@@ -0,0 +1,149 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.junit.jupiter.api.Test;
+
+public class ResultSetWrapperTest {
+
+  @Test
+  public void shouldShareResolvedTypeHandlersBetweenQueriesWithTheSameLayout() throws Exception {
+    Configuration configuration = new Configuration();
+    ResultSetWrapper first = new ResultSetWrapper(mockResultSet("ID", Types.OTHER), configuration);
+    ResultSetWrapper second = new ResultSetWrapper(mockResultSet("ID", Types.OTHER), configuration);
+
+    TypeHandler<?> handler = first.getTypeHandler(Object.class, "ID");
+    assertEquals(ObjectTypeHandler.class, handler.getClass());
+    assertSame(handler, second.getTypeHandler(Object.class, "ID"));
+    assertSame(handler, second.getTypeHandler(Object.class, "id"));
+    assertEquals(1, configuration.getColumnLayoutCache().size());
+  }
+
+  @Test
+  public void shouldResolveTypeHandlersPerLayout() throws Exception {
+    Configuration configuration = new Configuration();
+    ResultSetWrapper first = new ResultSetWrapper(mockResultSet("ID", Types.OTHER), configuration);
+    ResultSetWrapper second = new ResultSetWrapper(mockResultSet("ID", Types.JAVA_OBJECT), configuration);
+
+    assertNotSame(first.getTypeHandler(Object.class, "ID"), second.getTypeHandler(Object.class, "ID"));
+    assertEquals(2, configuration.getColumnLayoutCache().size());
+
+    configuration.getColumnLayoutCache().clear();
+    assertEquals(0, configuration.getColumnLayoutCache().size());
+  }
+
+  @Test
+  public void shouldReuseStatementMetadataWhenLabelsMatch() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setResultSetMetadataCacheEnabled(true);
+    MappedStatement ms = new MappedStatement.Builder(configuration, "select",
+        new StaticSqlSource(configuration, "select id from t"), SqlCommandType.SELECT).build();
+    ResultSetWrapper first = new ResultSetWrapper(mockResultSet("ID", Types.INTEGER), configuration, ms, 0);
+
+    ResultSet rs = mockResultSet("ID", Types.INTEGER);
+    ResultSetWrapper second = new ResultSetWrapper(rs, configuration, ms, 0);
+    verify(rs.getMetaData(), never()).getColumnType(1);
+    verify(rs.getMetaData(), never()).getColumnClassName(1);
+    assertEquals(first.getJdbcTypes(), second.getJdbcTypes());
+
+    rs = mockResultSet("ID", Types.INTEGER);
+    new ResultSetWrapper(rs, configuration, ms, 1);
+    verify(rs.getMetaData()).getColumnType(1);
+
+    rs = mockResultSet("NAME", Types.VARCHAR);
+    ResultSetWrapper renamed = new ResultSetWrapper(rs, configuration, ms, 0);
+    verify(rs.getMetaData()).getColumnType(1);
+    assertEquals(Collections.singletonList(JdbcType.VARCHAR), renamed.getJdbcTypes());
+  }
+
+  @Test
+  public void shouldReadMetadataWhenStatementCacheIsDisabled() throws Exception {
+    Configuration configuration = new Configuration();
+    MappedStatement ms = new MappedStatement.Builder(configuration, "select",
+        new StaticSqlSource(configuration, "select id from t"), SqlCommandType.SELECT).build();
+    new ResultSetWrapper(mockResultSet("ID", Types.INTEGER), configuration, ms, 0);
+
+    ResultSet rs = mockResultSet("ID", Types.INTEGER);
+    new ResultSetWrapper(rs, configuration, ms, 0);
+    verify(rs.getMetaData()).getColumnType(1);
+  }
+
+  @Test
+  public void shouldResolveTypeHandlersAgainAfterRegistration() throws Exception {
+    Configuration configuration = new Configuration();
+    ResultSetWrapper first = new ResultSetWrapper(mockResultSet("ID", Types.OTHER), configuration);
+    assertEquals(ObjectTypeHandler.class, first.getTypeHandler(Object.class, "ID").getClass());
+
+    TypeHandler<Object> handler = new ObjectTypeHandler();
+    configuration.getTypeHandlerRegistry().register(Object.class, JdbcType.OTHER, handler);
+    ResultSetWrapper second = new ResultSetWrapper(mockResultSet("ID", Types.OTHER), configuration);
+    assertSame(handler, second.getTypeHandler(Object.class, "ID"));
+  }
+
+  @Test
+  public void shouldDropLeastRecentlyUsedLayout() {
+    ColumnLayoutCache cache = new Configuration().getColumnLayoutCache();
+    ColumnLayout first = cache.intern(layout("C0"));
+    ColumnLayout second = cache.intern(layout("C1"));
+    for (int i = 2; i < ColumnLayoutCache.MAX_LAYOUTS; i++) {
+      cache.intern(layout("C" + i));
+    }
+    assertSame(first, cache.intern(layout("C0")));
+
+    cache.intern(layout("NEW"));
+    assertEquals(ColumnLayoutCache.MAX_LAYOUTS, cache.size());
+    assertSame(first, cache.intern(layout("C0")));
+    assertNotSame(second, cache.intern(layout("C1")));
+  }
+
+  private ColumnLayout layout(String column) {
+    return new ColumnLayout(Collections.singletonList(column), Collections.singletonList(JdbcType.INTEGER),
+        Collections.singletonList("java.lang.Integer"));
+  }
+
+  private ResultSet mockResultSet(String column, int type) throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn(column);
+    when(rsmd.getColumnType(1)).thenReturn(type);
+    when(rsmd.getColumnClassName(1)).thenReturn("com.example.Unknown");
+    return rs;
+  }
+
+}
@@ -0,0 +1,106 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.junit.jupiter.api.Test;
+
+public class RowMapperCompilerTest {
+
+  private final TypeHandlerRegistry registry = new TypeHandlerRegistry();
+  private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+
+  @Test
+  public void shouldMapWithTypedGettersAndTypeHandlers() throws Exception {
+    RowMapperCompiler compiler = new RowMapperCompiler();
+    CompiledRowMapper rowMapper = compiler.getRowMapper(Author.class, Arrays.asList(
+        new RowMapperCompiler.ColumnMapping("ID", "id", registry.getTypeHandler(int.class)),
+        new RowMapperCompiler.ColumnMapping("USERNAME", "username", registry.getTypeHandler(String.class)),
+        new RowMapperCompiler.ColumnMapping("FAVOURITE_SECTION", "favouriteSection", registry.getTypeHandler(Section.class))),
+        reflectorFactory);
+    assertNotNull(rowMapper);
+
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getInt("ID")).thenReturn(101);
+    when(rs.getString("USERNAME")).thenReturn("jim");
+    when(rs.getString("FAVOURITE_SECTION")).thenReturn("NEWS");
+
+    Author author = (Author) rowMapper.createResultObject();
+    assertTrue(rowMapper.applyMappings(rs, author, false));
+    assertEquals(101, author.getId());
+    assertEquals("jim", author.getUsername());
+    assertEquals(Section.NEWS, author.getFavouriteSection());
+    verify(rs).getInt("ID");
+  }
+
+  @Test
+  public void shouldReportRowsWithoutValues() throws Exception {
+    RowMapperCompiler compiler = new RowMapperCompiler();
+    CompiledRowMapper rowMapper = compiler.getRowMapper(Author.class, Arrays.asList(
+        new RowMapperCompiler.ColumnMapping("ID", "id", registry.getTypeHandler(int.class)),
+        new RowMapperCompiler.ColumnMapping("USERNAME", "username", registry.getTypeHandler(String.class))),
+        reflectorFactory);
+
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.wasNull()).thenReturn(true);
+
+    Author author = (Author) rowMapper.createResultObject();
+    assertFalse(rowMapper.applyMappings(rs, author, true));
+    assertEquals(-1, author.getId());
+  }
+
+  @Test
+  public void shouldReuseRowMapperForSameLayout() {
+    RowMapperCompiler compiler = new RowMapperCompiler();
+    CompiledRowMapper first = compiler.getRowMapper(Author.class, Collections.singletonList(
+        new RowMapperCompiler.ColumnMapping("ID", "id", registry.getTypeHandler(int.class))), reflectorFactory);
+    CompiledRowMapper second = compiler.getRowMapper(Author.class, Collections.singletonList(
+        new RowMapperCompiler.ColumnMapping("ID", "id", registry.getTypeHandler(int.class))), reflectorFactory);
+    CompiledRowMapper other = compiler.getRowMapper(Author.class, Collections.singletonList(
+        new RowMapperCompiler.ColumnMapping("AUTHOR_ID", "id", registry.getTypeHandler(int.class))), reflectorFactory);
+    assertSame(first, second);
+    assertNotSame(first, other);
+  }
+
+  @Test
+  public void shouldNotCompileWithoutPublicSetter() {
+    RowMapperCompiler compiler = new RowMapperCompiler();
+    assertNull(compiler.getRowMapper(Author.class, Collections.singletonList(
+        new RowMapperCompiler.ColumnMapping("NOPE", "nope", registry.getTypeHandler(String.class))), reflectorFactory));
+    assertNull(compiler.getRowMapper(PackagePrivateBean.class, Collections.singletonList(
+        new RowMapperCompiler.ColumnMapping("NAME", "name", registry.getTypeHandler(String.class))), reflectorFactory));
+  }
+
+  static class PackagePrivateBean {
+    private String name;
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+}
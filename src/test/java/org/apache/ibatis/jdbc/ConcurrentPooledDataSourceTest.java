@@ -0,0 +1,256 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.jdbc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.hsqldb.jdbc.JDBCConnection;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentPooledDataSourceTest extends BaseDataTest {
+
+  @Test
+  public void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setDefaultAutoCommit(false);
+      ds.setDriverProperties(new Properties() {
+        {
+          setProperty("username", "sa");
+          setProperty("password", "");
+        }
+      });
+      ds.setPoolMaximumActiveConnections(3);
+      ds.setPoolMaximumIdleConnections(2);
+      ds.setPoolMaximumCheckoutTime(10000);
+      ds.setPoolPingConnectionsNotUsedFor(1);
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT * FROM PRODUCT");
+      ds.setPoolTimeToWait(10000);
+      ds.setLogWriter(null);
+      List<Connection> connections = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(4, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(0, ds.getPoolState().getHadToWaitCount());
+      assertEquals(0, ds.getPoolState().getAverageOverdueCheckoutTime());
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertEquals(0, ds.getPoolState().getAverageWaitTime());
+      assertNotNull(ds.getPoolState().toString());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldReuseConnectionReturnedByTheSameThread() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      Connection first = ds.getConnection();
+      Connection second = ds.getConnection();
+      Connection realFirst = PooledDataSource.unwrapConnection(first);
+      second.close();
+      first.close();
+      Connection c = ds.getConnection();
+      assertSame(realFirst, PooledDataSource.unwrapConnection(c));
+      c.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldNotReuseConnectionReturnedBeforeForceCloseAll() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    try {
+      Connection first = ds.getConnection();
+      Connection realFirst = PooledDataSource.unwrapConnection(first);
+      first.close();
+      ds.forceCloseAll();
+      assertTrue(realFirst.isClosed());
+
+      Connection c = ds.getConnection();
+      assertNotSame(realFirst, PooledDataSource.unwrapConnection(c));
+      assertFalse(c.isClosed());
+      c.close();
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldSkipReturnedConnectionTakenByAnotherThread() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Connection first = ds.getConnection();
+      Connection realFirst = PooledDataSource.unwrapConnection(first);
+      first.close();
+      Connection taken = executor.submit((Callable<Connection>) ds::getConnection).get(30, TimeUnit.SECONDS);
+      assertSame(realFirst, PooledDataSource.unwrapConnection(taken));
+
+      Connection c = ds.getConnection();
+      assertNotSame(realFirst, PooledDataSource.unwrapConnection(c));
+      assertEquals(2, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      taken.close();
+      c.close();
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldNeverExceedMaximumActiveConnectionsUnderContention() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    ds.setPoolMaximumActiveConnections(2);
+    ds.setPoolMaximumIdleConnections(2);
+    ds.setPoolTimeToWait(100);
+    AtomicInteger inUse = new AtomicInteger();
+    AtomicInteger maxInUse = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 50; j++) {
+            try (Connection c = ds.getConnection()) {
+              maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+              c.getAutoCommit();
+              inUse.decrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      assertTrue(maxInUse.get() <= 2);
+      assertEquals(400, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertTrue(ds.getPoolState().getIdleConnectionCount() <= 2);
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldClaimOverdueConnection() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumCheckoutTime(10);
+    ds.setPoolTimeToWait(20);
+    try {
+      Connection leaked = ds.getConnection();
+      Connection realConnection = PooledDataSource.unwrapConnection(leaked);
+      Connection claimed = ds.getConnection();
+      assertSame(realConnection, PooledDataSource.unwrapConnection(claimed));
+      assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertEquals(1, ds.getPoolState().getHadToWaitCount());
+      assertThrows(SQLException.class, leaked::getAutoCommit);
+
+      leaked.close();
+      assertEquals(1, ds.getPoolState().getBadConnectionCount());
+      assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+
+      claimed.close();
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldReleasePermitOfConnectionThatCannotBeRolledBack() throws Exception {
+    Connection broken = mock(Connection.class);
+    when(broken.getAutoCommit()).thenReturn(false);
+    doThrow(new SQLException("broken")).when(broken).rollback();
+    Connection healthy = mock(Connection.class);
+    when(healthy.getAutoCommit()).thenReturn(true);
+    UnpooledDataSource unpooled = mock(UnpooledDataSource.class);
+    when(unpooled.getConnection()).thenReturn(broken, healthy);
+    ConcurrentPooledDataSource ds = new ConcurrentPooledDataSource(unpooled);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(20);
+    try {
+      Connection c = ds.getConnection();
+      assertSame(healthy, PooledDataSource.unwrapConnection(c));
+      verify(broken).close();
+      assertEquals(1, ds.getPoolState().getBadConnectionCount());
+      assertEquals(0, ds.getPoolState().getHadToWaitCount());
+      c.close();
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldReturnRealConnection() throws Exception {
+    ConcurrentPooledDataSource ds = createConcurrentPooledDataSource();
+    Connection c = ds.getConnection();
+    JDBCConnection realConnection = (JDBCConnection) PooledDataSource.unwrapConnection(c);
+    c.close();
+    ds.forceCloseAll();
+  }
+
+  private static ConcurrentPooledDataSource createConcurrentPooledDataSource() throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    ConcurrentPooledDataSource ds = new ConcurrentPooledDataSource();
+    ds.setDriver(props.getProperty("driver"));
+    ds.setUrl(props.getProperty("url"));
+    ds.setUsername(props.getProperty("username"));
+    ds.setPassword(props.getProperty("password"));
+    return ds;
+  }
+}
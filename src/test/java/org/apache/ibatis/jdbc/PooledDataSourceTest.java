@@ -34,6 +34,8 @@ import org.junit.jupiter.api.Test;
 
 public class PooledDataSourceTest extends BaseDataTest {
 
+  private static final String USERS_QUERY = "SELECT * FROM INFORMATION_SCHEMA.SYSTEM_USERS";
+
   @Test
   public void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -91,6 +93,53 @@ public class PooledDataSourceTest extends BaseDataTest {
     c.close();
   }
 
+  @Test
+  public void shouldReusePreparedStatementsAcrossCheckouts() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolPreparedStatementCacheSize(2);
+    try {
+      PreparedStatement first;
+      try (Connection c = ds.getConnection(); PreparedStatement st = c.prepareStatement(USERS_QUERY)) {
+        first = st.unwrap(PreparedStatement.class);
+        assertSame(c, st.getConnection());
+        st.setMaxRows(1);
+        exexuteQuery(st);
+      }
+      try (Connection c = ds.getConnection(); PreparedStatement st = c.prepareStatement(USERS_QUERY)) {
+        assertSame(first, st.unwrap(PreparedStatement.class));
+        assertEquals(0, st.getMaxRows());
+        // the same SQL is prepared again while the cached statement is in use
+        try (PreparedStatement other = c.prepareStatement(USERS_QUERY)) {
+          assertNotSame(first, other.unwrap(PreparedStatement.class));
+        }
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldCloseLeastRecentlyUsedPreparedStatements() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolPreparedStatementCacheSize(1);
+    try {
+      PreparedStatement first;
+      try (Connection c = ds.getConnection()) {
+        PreparedStatement st = c.prepareStatement(USERS_QUERY);
+        first = st.unwrap(PreparedStatement.class);
+        st.close();
+        assertTrue(st.isClosed());
+        assertThrows(SQLException.class, st::executeQuery);
+        c.prepareStatement(USERS_QUERY + " WHERE 1 = 1").close();
+      }
+      assertTrue(first.isClosed());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   @Disabled("See the comments")
   @Test
   public void shouldReconnectWhenServerKilledLeakedConnection() throws Exception {
@@ -136,6 +185,13 @@ public class PooledDataSourceTest extends BaseDataTest {
     con.close();
   }
 
+  private void exexuteQuery(PreparedStatement st) throws SQLException {
+    try (ResultSet rs = st.executeQuery()) {
+      assertTrue(rs.next());
+      assertFalse(rs.next());
+    }
+  }
+
   private void exexuteQuery(Connection con) throws SQLException {
     try (PreparedStatement st = con.prepareStatement("select 1");
          ResultSet rs = st.executeQuery()) {
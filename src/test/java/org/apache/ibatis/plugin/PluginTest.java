@@ -17,9 +17,15 @@ package org.apache.ibatis.plugin;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.apache.ibatis.reflection.SystemMetaObject;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -39,6 +45,178 @@ public class PluginTest {
     assertFalse("Always".equals(map.toString()));
   }
 
+  @Test
+  public void shouldFlattenNestedPlugins() {
+    List<String> calls = new ArrayList<>();
+    Map<String, String> target = new HashMap<>();
+    target.put("key", "value");
+    Map map = (Map) new TracingMapPlugin("inner", calls).plugin(target);
+    map = (Map) new TracingMapPlugin("outer", calls).plugin(map);
+
+    assertEquals("value", map.get("key"));
+    assertEquals(Arrays.asList("outer", "inner"), calls);
+    assertSame(target, getTarget(map));
+  }
+
+  @Test
+  public void shouldSeeInnerPluginsAsTarget() {
+    List<String> calls = new ArrayList<>();
+    Map<String, String> target = new HashMap<>();
+    target.put("key", "value");
+    Map map = (Map) new TracingMapPlugin("inner", calls).plugin(target);
+    map = (Map) new TargetCallingMapPlugin().plugin(map);
+
+    assertEquals("value", map.get("key"));
+    assertEquals(Arrays.asList("inner"), calls);
+  }
+
+  @Test
+  public void shouldCompileDefaultPlugins() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new DefaultTracingMapPlugin("first", calls));
+    chain.addInterceptor(new DefaultTracingMapPlugin("second", calls));
+    Map<String, String> target = new HashMap<>();
+    target.put("key", "value");
+
+    Map map = (Map) chain.pluginAll(target);
+    assertEquals("value", map.get("key"));
+    assertEquals(Arrays.asList("second", "first"), calls);
+    assertSame(target, getTarget(map));
+
+    List<String> notIntercepted = new ArrayList<>();
+    assertSame(notIntercepted, chain.pluginAll(notIntercepted));
+  }
+
+  @Test
+  public void shouldMixCompiledAndCustomPlugins() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new DefaultTracingMapPlugin("first", calls));
+    chain.addInterceptor(new TracingMapPlugin("second", calls));
+    Map<String, String> target = new HashMap<>();
+
+    Map map = (Map) chain.pluginAll(target);
+    map.get("key");
+    assertEquals(Arrays.asList("second", "first"), calls);
+    assertSame(target, getTarget(map));
+  }
+
+  @Test
+  public void shouldReusePipelinesOfCustomPlugins() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new TracingMapPlugin("first", calls));
+    chain.addInterceptor(new TracingMapPlugin("second", calls));
+
+    Map first = (Map) chain.pluginAll(new HashMap<>());
+    Map second = (Map) chain.pluginAll(new HashMap<>());
+    second.get("key");
+    assertEquals(Arrays.asList("second", "first"), calls);
+    assertSame(getPipeline(first), getPipeline(second));
+  }
+
+  @Test
+  public void shouldReturnSameTargetWithinAnInvocation() {
+    Map<String, String> target = new HashMap<>();
+    Map map = (Map) new TracingMapPlugin("inner", new ArrayList<>()).plugin(target);
+    map = (Map) new SameTargetMapPlugin().plugin(map);
+    assertEquals(Boolean.TRUE, map.get("key"));
+  }
+
+  private static Object getPipeline(Object proxy) {
+    return SystemMetaObject.forObject(Proxy.getInvocationHandler(proxy)).getValue("pipeline");
+  }
+
+  private static Object getTarget(Object proxy) {
+    return SystemMetaObject.forObject(Proxy.getInvocationHandler(proxy)).getValue("target");
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class TracingMapPlugin implements Interceptor {
+    private final String name;
+    private final List<String> calls;
+
+    public TracingMapPlugin(String name, List<String> calls) {
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add(name);
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class DefaultTracingMapPlugin implements Interceptor {
+    private final String name;
+    private final List<String> calls;
+
+    public DefaultTracingMapPlugin(String name, List<String> calls) {
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add(name);
+      return invocation.proceed();
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class TargetCallingMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return ((Map) invocation.getTarget()).get(invocation.getArgs()[0]);
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class SameTargetMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return invocation.getTarget() == invocation.getTarget();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
@@ -25,6 +25,7 @@ import static com.googlecode.catchexception.apis.BDDCatchException.caughtExcepti
 import static com.googlecode.catchexception.apis.BDDCatchException.when;
 import static org.assertj.core.api.BDDAssertions.then;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ReflectorTest {
@@ -272,4 +273,36 @@ public class ReflectorTest {
         Reflector reflector = reflectorFactory.findForClass(Bean.class);
         assertTrue((Boolean) reflector.getGetInvoker("bool").invoke(new Bean(), new Byte[0]));
     }
+
+    @Test
+    public void shouldGetMethodHandlesOfPrimitiveAccessors() throws Throwable {
+        class Bean {
+            private int count;
+            private Long id;
+
+            public int getCount() {
+                return count;
+            }
+
+            public void setCount(int count) {
+                this.count = count;
+            }
+
+            public Long getId() {
+                return id;
+            }
+
+            public void setId(Long id) {
+                this.id = id;
+            }
+        }
+        ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+        Reflector reflector = reflectorFactory.findForClass(Bean.class);
+        Bean bean = new Bean();
+        reflector.getPrimitiveSetter("count").invokeExact((Object) bean, 3);
+        assertEquals(3, (int) reflector.getPrimitiveGetter("count").invokeExact((Object) bean));
+        assertNull(reflector.getPrimitiveSetter("id"));
+        assertNull(reflector.getPrimitiveGetter("id"));
+        assertNull(reflector.getPrimitiveSetter("missing"));
+    }
 }
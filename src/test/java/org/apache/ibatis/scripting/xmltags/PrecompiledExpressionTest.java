@@ -0,0 +1,144 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import ognl.Ognl;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+public class PrecompiledExpressionTest {
+
+  private static final String[] EXPRESSIONS = {
+      "name != null",
+      "name != null and name != ''",
+      "name == 'cbegin' or name == \"norm\"",
+      "!(name == null) && name neq ''",
+      "not flag",
+      "flag == true",
+      "ids != null and ids.size() > 0",
+      "ids.isEmpty()",
+      "name.length() >= 6",
+      "count gt 2",
+      "count lte 3 and count gte 3",
+      "count == 3L",
+      "count == 3",
+      "count < 10 || missing == null",
+      "ratio > 0.5",
+      "author.username == 'cbegin'",
+      "author.id != 0",
+      "author.favouriteSection == null",
+      "nested.inner == 'value'",
+      "name",
+      "count",
+      "name and count",
+      "missing or name",
+      "nan == nan",
+      "nan != nan",
+      "nan == ratio",
+      "contact.eMail == 'cbegin@apache.org'",
+      "contact.URL != null",
+  };
+
+  @Test
+  public void shouldEvaluateLikeOgnl() throws Exception {
+    Map<String, Object> nested = new HashMap<>();
+    nested.put("inner", "value");
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "cbegin");
+    parameter.put("flag", Boolean.FALSE);
+    parameter.put("ids", Arrays.asList(1, 2, 3));
+    parameter.put("count", 3L);
+    parameter.put("ratio", 0.75d);
+    parameter.put("author", new Author(1, "cbegin", "******", "cbegin@apache.org", "N/A", Section.NEWS));
+    parameter.put("nested", nested);
+    parameter.put("missing", null);
+    parameter.put("nan", Double.NaN);
+    parameter.put("contact", new Contact());
+    DynamicContext context = new DynamicContext(new Configuration(), parameter);
+    Map ognlContext = Ognl.createDefaultContext(context.getBindings(), new OgnlMemberAccess(), new OgnlClassResolver(), null);
+
+    for (String expression : EXPRESSIONS) {
+      Object expected = Ognl.getValue(Ognl.parseExpression(expression), ognlContext, context.getBindings());
+      assertEquals(expected, OgnlCache.getValue(expression, context.getBindings()), expression);
+    }
+  }
+
+  @Test
+  public void shouldCompileSimpleExpressions() {
+    assertNotNull(PrecompiledExpression.compile("name != null and name != ''"));
+    assertNotNull(PrecompiledExpression.compile("list.size() > 0"));
+    assertNotNull(PrecompiledExpression.compile("(a lt 1 or b gte 2) and not c"));
+  }
+
+  @Test
+  public void shouldNotCompileUnsupportedExpressions() {
+    assertNull(PrecompiledExpression.compile("list[0] != null"));
+    assertNull(PrecompiledExpression.compile("@java.lang.Math@max(a, b)"));
+    assertNull(PrecompiledExpression.compile("name.substring(1) == 'a'"));
+    assertNull(PrecompiledExpression.compile("flag == 'Y'"));
+    assertNull(PrecompiledExpression.compile("amount > 1.5"));
+    assertNull(PrecompiledExpression.compile("#this != null"));
+    assertNull(PrecompiledExpression.compile("name in {'a', 'b'}"));
+    assertNull(PrecompiledExpression.compile("name != "));
+  }
+
+  @Test
+  public void shouldFallBackToOgnlForUnsupportedValues() {
+    PrecompiledExpression expression = PrecompiledExpression.compile("value == 'NEWS'");
+    assertSame(PrecompiledExpression.UNRESOLVED, expression.getValue(Collections.singletonMap("value", Section.NEWS)));
+    assertSame(PrecompiledExpression.UNRESOLVED, PrecompiledExpression.compile("name.size() > 0")
+        .getValue(Collections.singletonMap("name", "abc")));
+    assertSame(PrecompiledExpression.UNRESOLVED, PrecompiledExpression.compile("value > 1")
+        .getValue(Collections.singletonMap("value", BigDecimal.TEN)));
+    assertEquals(Boolean.TRUE, OgnlCache.getValue("value > 1", Collections.singletonMap("value", BigDecimal.TEN)));
+  }
+
+  @Test
+  public void shouldReadBeanProperties() {
+    Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+    assertEquals(Boolean.TRUE, PrecompiledExpression.compile("username != null and password == null").getValue(author));
+    assertEquals(Boolean.FALSE, PrecompiledExpression.compile("id > 1").getValue(author));
+    assertEquals(Boolean.TRUE, PrecompiledExpression.compile("eMail != null and URL != null").getValue(new Contact()));
+  }
+
+  @Test
+  public void shouldLeaveNaNToOgnl() {
+    assertSame(PrecompiledExpression.UNRESOLVED, PrecompiledExpression.compile("value == 1")
+        .getValue(Collections.singletonMap("value", Double.NaN)));
+  }
+
+  public static class Contact {
+
+    public String geteMail() {
+      return "cbegin@apache.org";
+    }
+
+    public String getURL() {
+      return "https://mybatis.org";
+    }
+  }
+
+}
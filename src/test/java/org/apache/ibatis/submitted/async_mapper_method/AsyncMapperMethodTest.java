@@ -0,0 +1,174 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper_method;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code java.util.concurrent.CompletableFuture} as return type of mapper methods.
+ */
+public class AsyncMapperMethodTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader(
+        "org/apache/ibatis/submitted/async_mapper_method/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/async_mapper_method/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldRunQueriesInParallel() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      CompletableFuture<User> user = mapper.getUser(2);
+      CompletableFuture<List<User>> users = mapper.getUsers();
+      CompletableFuture<Map<Integer, User>> userMap = mapper.getUserMap();
+      CompletableFuture.allOf(user, users, userMap).get(10, TimeUnit.SECONDS);
+
+      assertEquals("User2", user.get().getName());
+      assertEquals(2, users.get().size());
+      assertEquals("User1", users.get().get(0).getName());
+      assertEquals("User1", userMap.get().get(1).getName());
+      assertNull(mapper.getUser(3).get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void shouldCommitWritesOfAsyncCalls() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = new User();
+      user.setId(3);
+      user.setName("User3");
+      assertEquals(Integer.valueOf(1), mapper.insertUser(user).get(10, TimeUnit.SECONDS));
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(Integer.valueOf(3), sqlSession.getMapper(Mapper.class).countUsers().get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void shouldUseConfiguredExecutor() throws Exception {
+    AtomicInteger executions = new AtomicInteger();
+    Executor executor = command -> {
+      executions.incrementAndGet();
+      command.run();
+    };
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(executor);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Integer.valueOf(2), mapper.countUsers().get());
+      assertEquals(1, executions.get());
+    }
+  }
+
+  @Test
+  public void shouldFailFutureWhenQueueIsFull() throws Exception {
+    sqlSessionFactory.getConfiguration().setAsyncExecutorPoolSize(1);
+    sqlSessionFactory.getConfiguration().setAsyncExecutorQueueSize(1);
+    Executor executor = sqlSessionFactory.getConfiguration().getAsyncExecutor();
+    CountDownLatch release = new CountDownLatch(1);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      executor.execute(() -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      CompletableFuture<Integer> queued = mapper.countUsers();
+      CompletableFuture<Integer> rejected = mapper.countUsers();
+      ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+      release.countDown();
+      assertEquals(Integer.valueOf(2), queued.get(10, TimeUnit.SECONDS));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void shouldOpenSessionsWithTheAsyncSqlSessionFactory() throws Exception {
+    SqlSessionFactory asyncSqlSessionFactory = spy(sqlSessionFactory);
+    sqlSessionFactory.getConfiguration().setAsyncSqlSessionFactory(asyncSqlSessionFactory);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(Integer.valueOf(2), sqlSession.getMapper(Mapper.class).countUsers().get(10, TimeUnit.SECONDS));
+    }
+    verify(asyncSqlSessionFactory).openSession();
+  }
+
+  @Test
+  public void shouldShutDownDefaultExecutorOnClose() throws Exception {
+    ExecutorService executor = (ExecutorService) sqlSessionFactory.getConfiguration().getAsyncExecutor();
+    sqlSessionFactory.getConfiguration().close();
+    assertTrue(executor.isShutdown());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CompletableFuture<Integer> rejected = sqlSession.getMapper(Mapper.class).countUsers();
+      ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+  }
+
+  @Test
+  public void shouldCompleteExceptionallyWhenStatementFails() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      CompletableFuture<User> user = mapper.getUserFromMissingTable();
+      ExecutionException e = assertThrows(ExecutionException.class, () -> user.get(10, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof PersistenceException);
+    }
+  }
+
+  @Test
+  public void shouldRejectFutureOfCursor() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThrows(BindingException.class, mapper::getUserCursor);
+    }
+  }
+
+}
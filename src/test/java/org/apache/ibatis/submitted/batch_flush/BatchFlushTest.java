@@ -0,0 +1,137 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_flush;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BatchFlushTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_flush/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_flush/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldNotRetainAutomaticallyFlushedResults() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 7; i++) {
+        mapper.insertUser(i, "User" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals(1, results.get(0).getParameterObjects().size());
+      assertTrue(sqlSession.flushStatements().isEmpty());
+      sqlSession.commit();
+      assertEquals(7, mapper.countUsers());
+    }
+  }
+
+  @Test
+  public void shouldPassEachBatchToBatchResultHandler() {
+    List<BatchResult> handled = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.setBatchResultHandler(handled::add);
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 7; i++) {
+        mapper.insertUser(i, "User" + i);
+      }
+      assertEquals(2, handled.size());
+      assertEquals(3, handled.get(1).getParameterObjects().size());
+      assertEquals(3, handled.get(1).getUpdateCounts().length);
+
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals(3, handled.size());
+      assertSame(results.get(0), handled.get(2));
+      sqlSession.commit();
+      assertEquals(7, mapper.countUsers());
+    }
+  }
+
+  @Test
+  public void shouldCountParameterObjectsOfAllStatements() {
+    List<BatchResult> handled = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.setBatchResultHandler(handled::add);
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(1, "User1");
+      mapper.insertUser(2, "User2");
+      mapper.insertUpperCaseUser(3, "User3");
+      assertEquals(2, handled.size());
+      assertEquals(2, handled.get(0).getParameterObjects().size());
+      assertEquals(1, handled.get(1).getParameterObjects().size());
+      assertTrue(handled.get(1).getMappedStatement().getId().endsWith(".insertUpperCaseUser"));
+    }
+  }
+
+  @Test
+  public void shouldFlushWhenBatchFlushBytesIsReached() {
+    List<BatchResult> handled = new ArrayList<>();
+    sqlSessionFactory.getConfiguration().setBatchFlushSize(0);
+    // an int and a string of 20 characters are estimated at 48 bytes
+    sqlSessionFactory.getConfiguration().setBatchFlushBytes(50);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.setBatchResultHandler(handled::add);
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 5; i++) {
+        mapper.insertUser(i, "UserWithLongName" + (1000 + i));
+      }
+      assertEquals(2, handled.size());
+      assertEquals(2, handled.get(0).getParameterObjects().size());
+      assertEquals(2, handled.get(1).getParameterObjects().size());
+      sqlSession.flushStatements();
+      assertEquals(3, handled.size());
+    }
+  }
+
+  @Test
+  public void shouldScopeBatchResultHandlerToItsSession() {
+    List<BatchResult> handled = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.setBatchResultHandler(handled::add);
+      try (SqlSession otherSession = sqlSessionFactory.openSession()) {
+        Mapper mapper = otherSession.getMapper(Mapper.class);
+        for (int i = 1; i <= 4; i++) {
+          mapper.insertUser(i, "User" + i);
+        }
+        otherSession.rollback();
+      }
+    }
+    assertTrue(handled.isEmpty());
+  }
+
+}
@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_invalidation_bus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.Reader;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CacheInvalidationBusTest {
+
+  private SqlSessionFactory node1;
+  private SqlSessionFactory node2;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    File file = File.createTempFile("cache-invalidation", ".log");
+    file.deleteOnExit();
+    Properties properties = new Properties();
+    properties.setProperty("file", file.getAbsolutePath());
+    node1 = build(properties);
+    node2 = build(properties);
+
+    BaseDataTest.runScript(node1.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cache_invalidation_bus/CreateDB.sql");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    node1.getConfiguration().close();
+    node2.getConfiguration().close();
+  }
+
+  @Test
+  public void shouldEvictEntriesOnOtherNodesAfterCommit() throws Exception {
+    assertEquals("User1", getUserName(node1));
+    assertEquals("User1", getUserName(node2));
+
+    try (SqlSession sqlSession = node1.openSession()) {
+      sqlSession.getMapper(Mapper.class).updateUserName(1, "Changed");
+      Thread.sleep(50);
+      // not committed yet
+      assertEquals("User1", getUserName(node2));
+      sqlSession.commit();
+    }
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!"Changed".equals(getUserName(node2)) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals("Changed", getUserName(node2));
+    assertEquals("Changed", getUserName(node1));
+  }
+
+  private static String getUserName(SqlSessionFactory sqlSessionFactory) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      String name = sqlSession.getMapper(Mapper.class).getUserName(1);
+      sqlSession.commit();
+      return name;
+    }
+  }
+
+  private static SqlSessionFactory build(Properties properties) throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cache_invalidation_bus/mybatis-config.xml")) {
+      return new SqlSessionFactoryBuilder().build(reader, properties);
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.column_index_mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ColumnIndexMappingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/column_index_mapping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/column_index_mapping/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldReadAutomaticMappingsByIndex() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(Mapper.class).getAuthors();
+      assertEquals(2, authors.size());
+      assertEquals(Integer.valueOf(1), authors.get(0).getId());
+      assertEquals("Tolkien", authors.get(0).getName());
+      assertEquals(Integer.valueOf(81), authors.get(0).getAge());
+      assertEquals("Austen", authors.get(1).getName());
+      assertNull(authors.get(1).getAge());
+    }
+  }
+
+  @Test
+  public void shouldReadPrefixedNestedMappingsByIndex() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Book> books = sqlSession.getMapper(Mapper.class).getBooks();
+      assertEquals(2, books.size());
+      assertEquals(Integer.valueOf(10), books.get(0).getId());
+      assertEquals("The Hobbit", books.get(0).getTitle());
+      assertEquals(Integer.valueOf(1), books.get(0).getAuthor().getId());
+      assertEquals("Tolkien", books.get(0).getAuthor().getName());
+      assertEquals("Emma", books.get(1).getTitle());
+      assertEquals("Austen", books.get(1).getAuthor().getName());
+    }
+  }
+
+  @Test
+  public void shouldReadConstructorArgumentsByIndex() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(Mapper.class).getAuthorsByConstructor();
+      assertEquals(Integer.valueOf(2), authors.get(1).getId());
+      assertEquals("Austen", authors.get(1).getName());
+    }
+  }
+
+  @Test
+  public void shouldReadSingleColumnsByIndex() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(Arrays.asList("Tolkien", "Austen"), sqlSession.getMapper(Mapper.class).getAuthorNames());
+    }
+  }
+
+}
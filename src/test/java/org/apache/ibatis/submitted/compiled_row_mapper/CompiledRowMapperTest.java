@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class CompiledRowMapperTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mapper/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/compiled_row_mapper/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldMapAutomaticMappings() {
+    assertTrue(sqlSessionFactory.getConfiguration().isCompiledRowMappersEnabled());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Product> products = sqlSession.getMapper(Mapper.class).getProductsAutoMapped();
+      assertEquals(3, products.size());
+      Product pen = products.get(0);
+      assertEquals(Integer.valueOf(1), pen.getId());
+      assertEquals("Pen", pen.getName());
+      assertEquals(10, pen.getQuantity());
+      assertEquals(Double.valueOf(1.5), pen.getPrice());
+      assertTrue(pen.isAvailable());
+      assertEquals(new BigDecimal("15.00"), pen.getTotal());
+      Product desk = products.get(1);
+      assertEquals(0, desk.getQuantity());
+      assertNull(desk.getPrice());
+      assertFalse(desk.isPriceSetterCalled());
+      assertFalse(desk.isAvailable());
+      assertNull(desk.getTotal());
+      assertNull(products.get(2));
+    }
+  }
+
+  @Test
+  public void shouldMapExplicitMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Product> products = sqlSession.getMapper(Mapper.class).getProductsMapped();
+      assertEquals("Pen", products.get(0).getName());
+      assertEquals(10, products.get(0).getQuantity());
+      assertEquals("Desk", products.get(1).getName());
+    }
+  }
+
+  @Test
+  public void shouldFallBackForDiscriminatedResultMaps() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Product> products = sqlSession.getMapper(Mapper.class).getProductsDiscriminated();
+      assertEquals("Pen", products.get(0).getName());
+      assertEquals(Integer.valueOf(2), products.get(1).getId());
+      assertEquals("Desk", products.get(1).getName());
+    }
+  }
+
+  @Test
+  public void shouldCallSettersOnNulls() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCallSettersOnNulls(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Product> products = sqlSession.getMapper(Mapper.class).getProductsAutoMapped();
+      assertTrue(products.get(1).isPriceSetterCalled());
+    } finally {
+      configuration.setCallSettersOnNulls(false);
+    }
+  }
+
+  @Test
+  public void shouldReturnInstanceForEmptyRow() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setReturnInstanceForEmptyRow(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Product empty = sqlSession.getMapper(Mapper.class).getProductsAutoMapped().get(2);
+      assertNotNull(empty);
+      assertNull(empty.getId());
+      assertNull(empty.getName());
+    } finally {
+      configuration.setReturnInstanceForEmptyRow(false);
+    }
+  }
+
+}
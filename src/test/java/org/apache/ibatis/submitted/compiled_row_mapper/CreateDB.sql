@@ -0,0 +1,31 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table products if exists;
+
+create table products (
+  id int,
+  name varchar(20),
+  quantity int,
+  price double,
+  available boolean,
+  total decimal(10, 2),
+  kind varchar(10)
+);
+
+insert into products values(1, 'Pen', 10, 1.5, true, 15.00, 'OFFICE');
+insert into products values(2, 'Desk', 0, null, false, null, 'FURNITURE');
+insert into products values(null, null, null, null, null, null, null);
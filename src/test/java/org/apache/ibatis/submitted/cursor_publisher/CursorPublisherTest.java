@@ -0,0 +1,129 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_publisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Flow;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class CursorPublisherTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_publisher/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_publisher/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldStreamUsersOnDemand() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      NameCollector subscriber = new NameCollector();
+      mapper.getAllUsers().subscribe(subscriber);
+
+      subscriber.subscription.request(2);
+      assertEquals(Arrays.asList("User1", "User2"), subscriber.names);
+      assertFalse(subscriber.completed);
+
+      subscriber.subscription.request(Long.MAX_VALUE);
+      assertEquals(Arrays.asList("User1", "User2", "User3", "User4", "User5"), subscriber.names);
+      assertTrue(subscriber.completed);
+    }
+  }
+
+  @Test
+  public void shouldApplyParametersAndRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      NameCollector subscriber = new NameCollector();
+      mapper.getUsersAfter(1, new RowBounds(1, 2)).subscribe(subscriber);
+
+      subscriber.subscription.request(10);
+      assertEquals(Arrays.asList("User3", "User4"), subscriber.names);
+      assertTrue(subscriber.completed);
+    }
+  }
+
+  @Test
+  public void shouldCancelFromSqlSessionPublisher() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Flow.Publisher<User> publisher = sqlSession.selectPublisher("org.apache.ibatis.submitted.cursor_publisher.Mapper.getAllUsers");
+      NameCollector subscriber = new NameCollector();
+      publisher.subscribe(subscriber);
+
+      subscriber.subscription.request(1);
+      subscriber.subscription.cancel();
+      subscriber.subscription.request(1);
+      assertEquals(Arrays.asList("User1"), subscriber.names);
+      assertFalse(subscriber.completed);
+      assertNull(subscriber.error);
+
+      // every subscription runs the statement again
+      NameCollector second = new NameCollector();
+      publisher.subscribe(second);
+      second.subscription.request(1);
+      assertEquals(Arrays.asList("User1"), second.names);
+    }
+  }
+
+  private static class NameCollector implements Flow.Subscriber<User> {
+
+    Flow.Subscription subscription;
+    final List<String> names = new ArrayList<>();
+    boolean completed;
+    Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(User item) {
+      names.add(item.getName());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+}
@@ -0,0 +1,135 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.lazy_load_batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.IncompleteElementException;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LazyLoadBatchTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final QueryCounter queryCounter = new QueryCounter();
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/lazy_load_batch/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addInterceptor(queryCounter);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/lazy_load_batch/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldLoadPendingAssociationsWithOneQuery() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(Mapper.class).selectBlogs();
+      assertEquals(1, queryCounter.count.get());
+
+      assertEquals("Author1", blogs.get(0).getAuthor().getName());
+      assertEquals(2, queryCounter.count.get());
+      assertEquals("Author2", blogs.get(1).getAuthor().getName());
+      assertEquals("Author1", blogs.get(2).getAuthor().getName());
+      assertEquals(2, queryCounter.count.get());
+    }
+  }
+
+  @Test
+  public void shouldLoadPendingCollectionsWithOneQuery() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(Mapper.class).selectBlogs();
+
+      assertEquals(2, blogs.get(0).getPosts().size());
+      assertEquals(2, queryCounter.count.get());
+      assertEquals("Post1", blogs.get(0).getPosts().get(0).getSubject());
+      assertEquals("Post2", blogs.get(0).getPosts().get(1).getSubject());
+      assertEquals("Post3", blogs.get(1).getPosts().get(0).getSubject());
+      assertTrue(blogs.get(2).getPosts().isEmpty());
+      assertEquals(2, queryCounter.count.get());
+    }
+  }
+
+  @Test
+  public void shouldLimitNumberOfKeysPerQuery() {
+    sqlSessionFactory.getConfiguration().setLazyLoadBatchSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(Mapper.class).selectBlogs();
+      for (Blog blog : blogs) {
+        assertNotNull(blog.getPosts());
+      }
+      assertEquals(3, queryCounter.count.get());
+      assertEquals(1, blogs.get(1).getPosts().size());
+    }
+  }
+
+  @Test
+  public void shouldRejectUnknownBatchSelect() throws Exception {
+    Configuration configuration = new Configuration();
+    String resource = "org/apache/ibatis/submitted/lazy_load_batch/InvalidBatchSelectMapper.xml";
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+    }
+    IncompleteElementException e = assertThrows(IncompleteElementException.class, configuration::getMappedStatements);
+    assertTrue(e.getMessage().contains("selectMissingAuthors"));
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "query", args = { Statement.class, ResultHandler.class }))
+  public static class QueryCounter implements Interceptor {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      count.incrementAndGet();
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
+}
@@ -0,0 +1,135 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.Arrays;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.metrics.InMemoryMetricsCollector;
+import org.apache.ibatis.metrics.Metric;
+import org.apache.ibatis.metrics.NoOpMetricsCollector;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MetricsTest {
+
+  private static final String GET_NAMES = "org.apache.ibatis.submitted.metrics.Mapper.getNames";
+  private static final String GET_NAME = "org.apache.ibatis.submitted.metrics.Mapper.getName";
+
+  private SqlSessionFactory sqlSessionFactory;
+  private InMemoryMetricsCollector metrics;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/metrics/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/metrics/CreateDB.sql");
+    metrics = (InMemoryMetricsCollector) sqlSessionFactory.getConfiguration().getMetricsCollector();
+  }
+
+  @Test
+  public void shouldBeDisabledByDefault() {
+    assertSame(NoOpMetricsCollector.INSTANCE, new Configuration().getMetricsCollector());
+    assertFalse(NoOpMetricsCollector.INSTANCE.isEnabled());
+  }
+
+  @Test
+  public void shouldRecordQueryTimesAndRowsPerStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList("User1", "User2", "User3"), mapper.getNames());
+      assertEquals("User2", mapper.getName(2));
+    }
+    assertEquals(1, metrics.getCount(Metric.DATABASE_QUERY, GET_NAMES));
+    assertEquals(1, metrics.getCount(Metric.STATEMENT_PREPARE, GET_NAMES));
+    assertEquals(1, metrics.getCount(Metric.STATEMENT_PARAMETERIZE, GET_NAMES));
+    assertEquals(1, metrics.getCount(Metric.STATEMENT_QUERY, GET_NAMES));
+    assertTrue(metrics.getTotal(Metric.DATABASE_QUERY, GET_NAMES) >= metrics.getTotal(Metric.STATEMENT_QUERY, GET_NAMES));
+    assertEquals(3, metrics.getTotal(Metric.RESULT_ROWS, GET_NAMES));
+
+    assertEquals(1, metrics.getCount(Metric.DATABASE_QUERY, GET_NAME));
+    assertEquals(1, metrics.getTotal(Metric.RESULT_ROWS, GET_NAME));
+    assertEquals(0, metrics.getCount(Metric.SECOND_LEVEL_CACHE_MISS, GET_NAME));
+  }
+
+  @Test
+  public void shouldCountSecondLevelCacheHitsAndMisses() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).getNames();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).getNames();
+      sqlSession.getMapper(Mapper.class).getNames();
+    }
+    assertEquals(1, metrics.getTotal(Metric.SECOND_LEVEL_CACHE_MISS, GET_NAMES));
+    assertEquals(2, metrics.getTotal(Metric.SECOND_LEVEL_CACHE_HIT, GET_NAMES));
+    assertEquals(1, metrics.getCount(Metric.DATABASE_QUERY, GET_NAMES));
+  }
+
+  @Test
+  public void shouldRecordConnectionWaitTime() throws Exception {
+    PooledDataSource ds = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:metrics", "sa", "");
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumCheckoutTime(50);
+    ds.setPoolTimeToWait(20);
+    ds.setMetricsCollector(metrics);
+    try {
+      Connection leaked = ds.getConnection();
+      assertEquals(0, metrics.getCount(Metric.CONNECTION_WAIT, null));
+      Connection claimed = ds.getConnection();
+      assertTrue(metrics.getCount(Metric.CONNECTION_WAIT, null) > 0);
+      assertTrue(metrics.getTotal(Metric.CONNECTION_WAIT, null) > 0);
+      claimed.close();
+      leaked.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldComputePercentiles() {
+    InMemoryMetricsCollector collector = new InMemoryMetricsCollector();
+    for (int i = 1; i <= 100; i++) {
+      collector.recordTime(Metric.DATABASE_QUERY, "q", i);
+    }
+    InMemoryMetricsCollector.Histogram histogram = collector.getHistogram(Metric.DATABASE_QUERY, "q");
+    assertEquals(100, histogram.getCount());
+    assertEquals(5050, histogram.getTotal());
+    assertEquals(100, histogram.getMax());
+    assertEquals(50.5, histogram.getMean(), 0.001);
+    assertEquals(63, histogram.getPercentile(50));
+    assertEquals(100, histogram.getPercentile(99));
+    assertEquals(1, histogram.getPercentile(1));
+    assertNull(collector.getHistogram(Metric.DATABASE_QUERY, "other"));
+
+    collector.reset();
+    assertEquals(0, collector.getCount(Metric.DATABASE_QUERY, "q"));
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.metrics.InMemoryMetricsCollector;
+import org.apache.ibatis.metrics.Metric;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MultiRowInsertTest {
+
+  private static final String INSERT_USERS = "org.apache.ibatis.submitted.multi_row_insert.Mapper.insertUsers";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multi_row_insert/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/multi_row_insert/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldInsertChunksOfRowsAndAssignGeneratedKeys() {
+    List<User> users = createUsers(11);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(11, mapper.insertUsers(users));
+      // 4 + 4 + 2 + 1 rows
+      assertEquals(4, getMetrics().getHistogram(Metric.STATEMENT_PREPARE, INSERT_USERS).getCount());
+      List<User> inserted = mapper.getUsers();
+      assertEquals(11, inserted.size());
+      for (int i = 0; i < users.size(); i++) {
+        assertEquals(inserted.get(i).getId(), users.get(i).getId());
+        assertEquals("user" + i, inserted.get(i).getName());
+      }
+    }
+  }
+
+  @Test
+  public void shouldSplitRowsWithDifferentSql() {
+    List<User> users = createUsers(5);
+    users.get(2).setRole("admin");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(5, mapper.insertUsers(users));
+      // 2 + 1 (admin) + 2 rows
+      assertEquals(3, getMetrics().getHistogram(Metric.STATEMENT_PREPARE, INSERT_USERS).getCount());
+      List<User> inserted = mapper.getUsers();
+      assertEquals("user", inserted.get(1).getRole());
+      assertEquals("admin", inserted.get(2).getRole());
+      assertEquals(users.get(4).getId(), inserted.get(4).getId());
+    }
+  }
+
+  @Test
+  public void shouldInsertArrayOfSimpleValues() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(4, mapper.insertNames("a", "b", "c", "d"));
+      List<User> inserted = mapper.getUsers();
+      assertEquals(4, inserted.size());
+      assertEquals("d", inserted.get(3).getName());
+    }
+  }
+
+  @Test
+  public void shouldBatchChunksOfTheSameSize() {
+    List<User> users = createUsers(8);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUsers(users);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] { 4, 4 }, results.get(0).getUpdateCounts());
+      List<User> inserted = mapper.getUsers();
+      assertEquals(8, inserted.size());
+      for (int i = 0; i < users.size(); i++) {
+        assertEquals(inserted.get(i).getId(), users.get(i).getId());
+      }
+    }
+  }
+
+  private InMemoryMetricsCollector getMetrics() {
+    return (InMemoryMetricsCollector) sqlSessionFactory.getConfiguration().getMetricsCollector();
+  }
+
+  private static List<User> createUsers(int count) {
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      users.add(new User("user" + i, null));
+    }
+    return users;
+  }
+
+}
@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.primitive_type_handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class PrimitiveTypeHandlerTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/primitive_type_handler/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/primitive_type_handler/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldMapPrimitiveProperties() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Measurement measurement = sqlSession.getMapper(Mapper.class).getMeasurement(1);
+      assertEquals(1, measurement.getId());
+      assertEquals("first", measurement.getName());
+      assertEquals(3, measurement.getCount());
+      assertEquals(3000000000L, measurement.getTotal());
+      assertEquals(0.5, measurement.getRatio());
+      assertTrue(measurement.isActive());
+    }
+  }
+
+  @Test
+  public void shouldKeepDefaultsOfPrimitivePropertiesOnNullColumns() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Measurement measurement = sqlSession.getMapper(Mapper.class).getMeasurement(2);
+      assertEquals(2, measurement.getId());
+      assertEquals(-1, measurement.getCount());
+      assertEquals(-1L, measurement.getTotal());
+      assertEquals(-1.0, measurement.getRatio());
+      assertFalse(measurement.isActive());
+    }
+  }
+
+  @Test
+  public void shouldUseSubclassesOfBuiltInTypeHandlers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Measurement measurement = sqlSession.getMapper(Mapper.class).getShiftedMeasurement(1);
+      assertEquals(4, measurement.getCount());
+    }
+  }
+
+  @Test
+  public void shouldSetPrimitiveParameters() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Measurement measurement = new Measurement();
+      measurement.setId(3);
+      measurement.setName("third");
+      measurement.setCount(7);
+      measurement.setTotal(Long.MAX_VALUE);
+      measurement.setRatio(0.25);
+      measurement.setActive(true);
+      mapper.insertMeasurement(measurement);
+
+      Measurement inserted = mapper.getMeasurement(3);
+      assertEquals("third", inserted.getName());
+      assertEquals(7, inserted.getCount());
+      assertEquals(Long.MAX_VALUE, inserted.getTotal());
+      assertEquals(0.25, inserted.getRatio());
+      assertTrue(inserted.isActive());
+      sqlSession.rollback();
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.refresh_ahead;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RefreshAheadTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final AtomicInteger backgroundQueries = new AtomicInteger();
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/refresh_ahead/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/refresh_ahead/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().addInterceptor(new BackgroundQueryCounter());
+  }
+
+  @Test
+  public void shouldReloadEntriesReadShortlyBeforeTheyExpire() throws Exception {
+    assertEquals("User1", getUserName(1));
+    // change the database behind the back of the cache, only a refresh can find the new value
+    executeBehindCache("update users set name = 'Changed' where id = 1");
+    Thread.sleep(100);
+    assertEquals("User1", getUserName(1));
+    long deadline = System.currentTimeMillis() + 10000;
+    String name;
+    do {
+      Thread.sleep(20);
+      name = getUserName(1);
+    } while (!"Changed".equals(name) && System.currentTimeMillis() < deadline);
+    assertEquals("Changed", name);
+    // the refresh has run through the plugins
+    assertTrue(backgroundQueries.get() > 0);
+  }
+
+  private String getUserName(int id) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      String name = sqlSession.getMapper(Mapper.class).getUserName(id);
+      sqlSession.commit();
+      return name;
+    }
+  }
+
+  private void executeBehindCache(String sql) throws Exception {
+    try (Connection connection = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource().getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  @Intercepts(@Signature(type = Executor.class, method = "query",
+      args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }))
+  private class BackgroundQueryCounter implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      if (Thread.currentThread().getName().startsWith("mybatis-async-")) {
+        backgroundQueries.incrementAndGet();
+      }
+      return invocation.proceed();
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
+}
@@ -0,0 +1,137 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.tag_invalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TagInvalidationTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/tag_invalidation/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/tag_invalidation/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldEvictOnlyEntriesSharingATag() throws Exception {
+    warmUp();
+    // change the database behind the back of the cache, so that cache hits return the old values
+    executeBehindCache("update users set name = 'Changed2' where id = 2");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.updateUser(1, "Changed1");
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("Changed1", mapper.getUserName(1));
+      assertEquals("User2", mapper.getUserName(2));
+      assertEquals(Arrays.asList("Changed1", "Changed2"), mapper.getUserNames());
+      assertEquals(Arrays.asList("Group1"), mapper.getGroupNames());
+    }
+  }
+
+  @Test
+  public void shouldEvictEntriesWithoutTags() throws Exception {
+    warmUp();
+    executeBehindCache("insert into users (id, name) values(3, 'User3')");
+    executeBehindCache("update groups set name = 'Changed' where id = 1");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(2, mapper.countUsers());
+      mapper.updateUser(1, "Changed1");
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(3, mapper.countUsers());
+      assertEquals(Arrays.asList("Group1"), mapper.getGroupNames());
+    }
+  }
+
+  @Test
+  public void shouldNotServeInvalidatedEntriesBeforeCommit() throws Exception {
+    warmUp();
+    executeBehindCache("update users set name = 'Changed2' where id = 2");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.updateUser(1, "Changed1");
+      assertEquals("Changed1", mapper.getUserName(1));
+      assertEquals("User2", mapper.getUserName(2));
+      sqlSession.rollback();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("User1", mapper.getUserName(1));
+      assertEquals(Arrays.asList("User1", "User2"), mapper.getUserNames());
+    }
+  }
+
+  @Test
+  public void shouldClearWholeCacheForStatementsWithoutTags() throws Exception {
+    warmUp();
+    executeBehindCache("update users set name = 'Changed2' where id = 2");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.updateGroup(1, "Changed");
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("Changed2", mapper.getUserName(2));
+      assertEquals(Arrays.asList("Changed"), mapper.getGroupNames());
+    }
+  }
+
+  private void warmUp() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("User1", mapper.getUserName(1));
+      assertEquals("User2", mapper.getUserName(2));
+      assertEquals(Arrays.asList("User1", "User2"), mapper.getUserNames());
+      assertEquals(Arrays.asList("Group1"), mapper.getGroupNames());
+      assertEquals(2, mapper.countUsers());
+      sqlSession.commit();
+    }
+  }
+
+  private void executeBehindCache(String sql) throws Exception {
+    try (Connection connection = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource().getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+}